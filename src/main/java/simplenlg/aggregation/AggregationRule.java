@@ -24,6 +24,7 @@ import java.util.List;
 import simplenlg.framework.CoordinatedPhraseElement;
 import simplenlg.framework.NLGElement;
 import simplenlg.framework.NLGFactory;
+import simplenlg.framework.RealisationBudget;
 import simplenlg.phrasespec.SPhraseSpec;
 
 /**
@@ -103,6 +104,7 @@ public abstract class AggregationRule {
 
 				for (int j = i + 1; j < phrases.size(); j++) {
 					NLGElement next = phrases.get(j);
+					RealisationBudget.checkpoint();
 					NLGElement aggregated = apply(current, next);
 
 					if (aggregated != null) {
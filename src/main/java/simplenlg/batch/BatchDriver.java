@@ -0,0 +1,398 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.batch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.realiser.BatchRealiser;
+import simplenlg.realiser.Realiser;
+import simplenlg.serialisation.Json;
+import simplenlg.serialisation.JsonSpecReader;
+
+/**
+ * <p>
+ * Realises a corpus of specs from the command line:
+ * </p>
+ * 
+ * <pre>
+ * java -cp SimpleNLG-NL.jar simplenlg.batch.BatchDriver --language nl \
+ *     --threads 8 --output realisations.jsonl specs.jsonl
+ * </pre>
+ * 
+ * <p>
+ * Each non-blank line of the input (standard input if no file is given)
+ * holds one spec in the JSON format read by <code>JsonSpecReader</code>.
+ * A spec object may have an <code>"id"</code> member, which is copied to
+ * the output. The specs are realised as sentences in parallel by a
+ * <code>BatchRealiser</code>, and the results written in the order of the
+ * input, one JSON object per line:
+ * </p>
+ * 
+ * <pre>
+ * {"line":1,"id":"a1","realisation":"De klant betaalde de rekening."}
+ * {"line":2,"error":"java.lang.IllegalArgumentException: Unknown spec type 'x'"}
+ * </pre>
+ * 
+ * <p>
+ * The input is read a window of specs at a time, so it can be much larger
+ * than the memory. When the batch is over, the number of sentences and
+ * errors, the throughput and the latency percentiles are written to the
+ * standard error.
+ * </p>
+ * 
+ * <p>
+ * Options: <code>--language en|nl|fr</code> (English by default),
+ * <code>--lexicon FILE</code> (the default lexicon of the language
+ * otherwise), <code>--threads N</code> (the number of processors by
+ * default), <code>--chunk-size N</code>, <code>--output FILE</code>
+ * (standard output by default).
+ * </p>
+ */
+public class BatchDriver {
+
+	private Language language = Language.DEFAULT_LANGUAGE;
+	private String lexiconFile = null;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int chunkSize = BatchRealiser.DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * @param language
+	 *            the language of the specs
+	 */
+	public void setLanguage(Language language) {
+		if (language == null) {
+			throw new NullPointerException();
+		}
+		this.language = language;
+	}
+
+	/**
+	 * @param lexiconFile
+	 *            the XML lexicon to use, or null for the default lexicon of
+	 *            the language
+	 */
+	public void setLexiconFile(String lexiconFile) {
+		this.lexiconFile = lexiconFile;
+	}
+
+	/**
+	 * @param threads
+	 *            the number of threads realising the specs
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("threads must be positive: " + threads); //$NON-NLS-1$
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * @param chunkSize
+	 *            the number of specs realised by each task
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize); //$NON-NLS-1$
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return a new lexicon of the language, read from the lexicon file if
+	 *         there is one
+	 */
+	Lexicon createLexicon() {
+		if (this.lexiconFile == null) {
+			return Lexicon.getDefaultLexicon(this.language);
+		}
+		switch (this.language) {
+		case DUTCH:
+			return new simplenlg.lexicon.dutch.XMLLexicon(this.lexiconFile);
+		case FRENCH:
+			return new simplenlg.lexicon.french.XMLLexicon(this.lexiconFile);
+		default:
+			return new simplenlg.lexicon.english.XMLLexicon(this.lexiconFile);
+		}
+	}
+
+	/**
+	 * Realises every spec of the input and writes the results.
+	 * 
+	 * @param in
+	 *            the specs, one per line
+	 * @param out
+	 *            where the results are written, one per line
+	 * @return the counts and timings of the batch
+	 * @throws IOException
+	 *             if the input cannot be read or the output written
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting for the
+	 *             realisations
+	 */
+	public BatchReport run(BufferedReader in, final Writer out)
+			throws IOException, InterruptedException {
+		final BatchReport report = new BatchReport();
+		final SpecIterator specs = new SpecIterator(in,
+				new JsonSpecReader(new NLGFactory(createLexicon())));
+
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "simplenlg-batch-" + this.count.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			BatchRealiser batchRealiser = new BatchRealiser(executor, new Supplier<Realiser>() {
+				@Override
+				public Realiser get() {
+					return new Realiser();
+				}
+			});
+			batchRealiser.setChunkSize(this.chunkSize);
+
+			report.start();
+			batchRealiser.realiseSentences(
+					StreamSupport.stream(Spliterators.spliteratorUnknownSize(specs,
+							Spliterator.ORDERED), false),
+					new Consumer<BatchRealiser.Result>() {
+						@Override
+						public void accept(BatchRealiser.Result result) {
+							Spec spec = specs.pending.poll();
+							try {
+								if (spec.error != null) {
+									report.parseError();
+									writeResult(out, spec, null, spec.error);
+								} else {
+									if (result.isSuccessful()) {
+										report.realised(result.getNanos());
+									} else {
+										report.realisationError(result.getNanos());
+									}
+									writeResult(out, spec, result.getRealisation(), result.getError());
+								}
+							} catch (IOException ex) {
+								throw new UncheckedIOException(ex);
+							}
+						}
+					});
+			report.stop();
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		} finally {
+			executor.shutdownNow();
+		}
+		out.flush();
+		return report;
+	}
+
+	/** The line and id of a spec waiting for its result. */
+	private static class Spec {
+		final int line;
+		final Object id;
+		final RuntimeException error;
+
+		Spec(int line, Object id, RuntimeException error) {
+			this.line = line;
+			this.id = id;
+			this.error = error;
+		}
+	}
+
+	/**
+	 * Reads the specs of the non-blank lines. A spec that cannot be read is
+	 * replaced by null, so that its error is reported in its place.
+	 */
+	private static class SpecIterator implements Iterator<NLGElement> {
+		private final BufferedReader in;
+		private final JsonSpecReader reader;
+		private final Deque<Spec> pending = new ArrayDeque<Spec>();
+		private String nextLine;
+		private int lineNumber = 0;
+
+		SpecIterator(BufferedReader in, JsonSpecReader reader) {
+			this.in = in;
+			this.reader = reader;
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				while (this.nextLine == null) {
+					String line = this.in.readLine();
+					if (line == null) return false;
+					this.lineNumber++;
+					if (!line.trim().isEmpty()) this.nextLine = line;
+				}
+				return true;
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		@Override
+		public NLGElement next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			String line = this.nextLine;
+			this.nextLine = null;
+			Object id = null;
+			try {
+				Object spec = Json.parse(line);
+				if (spec instanceof Map && ((Map<?, ?>) spec).containsKey("id")) { //$NON-NLS-1$
+					Map<?, ?> members = new LinkedHashMap<Object, Object>((Map<?, ?>) spec);
+					id = members.remove("id"); //$NON-NLS-1$
+					spec = members;
+				}
+				NLGElement element = this.reader.read(spec);
+				this.pending.add(new Spec(this.lineNumber, id, null));
+				return element;
+			} catch (RuntimeException ex) {
+				this.pending.add(new Spec(this.lineNumber, id, ex));
+				return null;
+			}
+		}
+	}
+
+	private static void writeResult(Writer out, Spec spec, String realisation, Throwable error)
+			throws IOException {
+		out.write("{\"line\":"); //$NON-NLS-1$
+		out.write(Integer.toString(spec.line));
+		if (spec.id != null) {
+			out.write(",\"id\":"); //$NON-NLS-1$
+			Json.append(out, spec.id);
+		}
+		if (error != null) {
+			out.write(",\"error\":"); //$NON-NLS-1$
+			Json.appendString(out, error.toString());
+		} else {
+			out.write(",\"realisation\":"); //$NON-NLS-1$
+			Json.append(out, realisation);
+		}
+		out.write("}\n"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Runs the driver with the command line options described in the class
+	 * comment.
+	 * 
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		System.exit(run(args, System.in, System.out, System.err));
+	}
+
+	/**
+	 * Runs the driver with command line options.
+	 * 
+	 * @return the exit status: 0 if the batch ran, even with errors on some
+	 *         specs, 1 if the input or output failed, 2 if the options are
+	 *         invalid
+	 */
+	static int run(String[] args, InputStream stdin, PrintStream stdout, PrintStream stderr) {
+		BatchDriver driver = new BatchDriver();
+		String input = null;
+		String output = null;
+		try {
+			for (int index = 0; index < args.length; index++) {
+				String arg = args[index];
+				if (!arg.startsWith("--") || arg.equals("-")) { //$NON-NLS-1$ //$NON-NLS-2$
+					if (input != null) throw new IllegalArgumentException("More than one input file"); //$NON-NLS-1$
+					input = arg;
+					continue;
+				}
+				if (index + 1 >= args.length) {
+					throw new IllegalArgumentException("Missing value for " + arg); //$NON-NLS-1$
+				}
+				String value = args[++index];
+				if (arg.equals("--language")) { //$NON-NLS-1$
+					Language language = Language.convertCodeToLanguage(value);
+					if (language == null) throw new IllegalArgumentException("Unknown language " + value); //$NON-NLS-1$
+					driver.setLanguage(language);
+				} else if (arg.equals("--lexicon")) { //$NON-NLS-1$
+					driver.setLexiconFile(value);
+				} else if (arg.equals("--threads")) { //$NON-NLS-1$
+					driver.setThreads(Integer.parseInt(value));
+				} else if (arg.equals("--chunk-size")) { //$NON-NLS-1$
+					driver.setChunkSize(Integer.parseInt(value));
+				} else if (arg.equals("--output")) { //$NON-NLS-1$
+					output = value;
+				} else {
+					throw new IllegalArgumentException("Unknown option " + arg); //$NON-NLS-1$
+				}
+			}
+		} catch (IllegalArgumentException ex) {
+			stderr.println(ex.getMessage());
+			stderr.println("Usage: BatchDriver [--language en|nl|fr] [--lexicon FILE] [--threads N]" //$NON-NLS-1$
+					+ " [--chunk-size N] [--output FILE] [INPUT]"); //$NON-NLS-1$
+			return 2;
+		}
+
+		try (BufferedReader in = input == null || input.equals("-") //$NON-NLS-1$
+				? new BufferedReader(new InputStreamReader(stdin, StandardCharsets.UTF_8))
+				: Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+				Writer out = output == null
+						? new BufferedWriter(new OutputStreamWriter(stdout, StandardCharsets.UTF_8))
+						: Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+			BatchReport report = driver.run(in, out);
+			stderr.print(report);
+			return 0;
+		} catch (IOException ex) {
+			stderr.println(ex);
+			return 1;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			stderr.println(ex);
+			return 1;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.batch;
+
+/**
+ * <p>
+ * The counts and timings of a run of the <code>BatchDriver</code>: the
+ * number of sentences realised, of specs that could not be read and of
+ * realisations that failed, the throughput, and the distribution of the
+ * time taken to realise each sentence.
+ * </p>
+ * 
+ * <p>
+ * The latencies are counted in 16 buckets per power of two nanoseconds, so
+ * a percentile is reported as the upper bound of its bucket, at most 1/16
+ * above the exact value, whatever the size of the batch. A report is not
+ * thread-safe; the driver updates it from a single thread.
+ * </p>
+ */
+public class BatchReport {
+
+	private static final int SUB_BUCKETS = 16;
+	private static final int BUCKETS = (64 - 4 + 1) * SUB_BUCKETS;
+
+	private final long[] latencies = new long[BUCKETS];
+	private long sentences = 0;
+	private long parseErrors = 0;
+	private long realisationErrors = 0;
+	private long maxNanos = 0;
+	private long startNanos = 0;
+	private long elapsedNanos = 0;
+
+	void start() {
+		this.startNanos = System.nanoTime();
+	}
+
+	void stop() {
+		this.elapsedNanos = System.nanoTime() - this.startNanos;
+	}
+
+	void realised(long nanos) {
+		this.sentences++;
+		record(nanos);
+	}
+
+	void realisationError(long nanos) {
+		this.realisationErrors++;
+		record(nanos);
+	}
+
+	void parseError() {
+		this.parseErrors++;
+	}
+
+	private void record(long nanos) {
+		nanos = Math.max(0, nanos);
+		this.latencies[bucket(nanos)]++;
+		this.maxNanos = Math.max(this.maxNanos, nanos);
+	}
+
+	/**
+	 * Values below 16 have a bucket each; above, each power of two is
+	 * divided into 16 buckets by the 4 bits after the highest bit.
+	 */
+	private static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) return (int) nanos;
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int mantissa = (int) (nanos >>> (exponent - 4)) & (SUB_BUCKETS - 1);
+		return (exponent - 3) * SUB_BUCKETS + mantissa;
+	}
+
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+		int exponent = bucket / SUB_BUCKETS + 3;
+		long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 4);
+		long upperBound = lowerBound + (1L << (exponent - 4)) - 1;
+		return upperBound < 0 ? Long.MAX_VALUE : upperBound;
+	}
+
+	/**
+	 * @return the number of sentences realised without error
+	 */
+	public long getSentences() {
+		return this.sentences;
+	}
+
+	/**
+	 * @return the number of lines that were not a valid spec
+	 */
+	public long getParseErrors() {
+		return this.parseErrors;
+	}
+
+	/**
+	 * @return the number of specs whose realisation threw an exception
+	 */
+	public long getRealisationErrors() {
+		return this.realisationErrors;
+	}
+
+	/**
+	 * @return the time taken by the whole batch, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * @return the number of sentences realised per second, errors included
+	 */
+	public double getThroughput() {
+		return this.elapsedNanos == 0 ? 0.0
+				: (this.sentences + this.realisationErrors) * 1e9 / this.elapsedNanos;
+	}
+
+	/**
+	 * Gets an approximate percentile of the time taken to realise a spec.
+	 * 
+	 * @param percentile
+	 *            between 0 and 100, for instance 99 for the 99th percentile
+	 * @return an upper bound of the percentile in nanoseconds, or 0 if
+	 *         nothing was realised
+	 */
+	public long getPercentileNanos(double percentile) {
+		long count = this.sentences + this.realisationErrors;
+		if (count == 0) return 0;
+		long rank = Math.max(1,
+				(long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += this.latencies[bucket];
+			if (seen >= rank) {
+				return Math.min(upperBound(bucket), this.maxNanos);
+			}
+		}
+		return this.maxNanos;
+	}
+
+	/**
+	 * @return the longest time taken to realise a spec, in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return this.maxNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("sentences=%d parseErrors=%d realisationErrors=%d%n" //$NON-NLS-1$
+				+ "elapsed=%.3fs throughput=%.1f sentences/s%n" //$NON-NLS-1$
+				+ "latency p50<=%.1fus p90<=%.1fus p99<=%.1fus p99.9<=%.1fus max=%.1fus%n", //$NON-NLS-1$
+				this.sentences, this.parseErrors, this.realisationErrors,
+				this.elapsedNanos / 1e9, getThroughput(),
+				getPercentileNanos(50) / 1000.0, getPercentileNanos(90) / 1000.0,
+				getPercentileNanos(99) / 1000.0, getPercentileNanos(99.9) / 1000.0,
+				this.maxNanos / 1000.0);
+	}
+}
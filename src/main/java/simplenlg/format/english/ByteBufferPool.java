@@ -0,0 +1,115 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.format.english;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * A pool of <code>ByteBuffer</code>s of the same capacity, for the
+ * <code>ByteBufferSink</code>s of a server. Allocating a direct buffer is
+ * expensive, so the buffers are kept once released instead of being
+ * allocated again for each response.
+ * </p>
+ * 
+ * <p>
+ * A pool can be shared by several threads. At most <code>maxIdle</code>
+ * buffers are kept; the others are left to the garbage collector when
+ * they are released.
+ * </p>
+ */
+public class ByteBufferPool {
+
+	private final int bufferSize;
+	private final boolean direct;
+	private final int maxIdle;
+
+	private final Queue<ByteBuffer> idleBuffers = new ConcurrentLinkedQueue<ByteBuffer>();
+	private final AtomicInteger idleCount = new AtomicInteger();
+
+	/**
+	 * @param bufferSize
+	 *            the capacity of each buffer, in bytes; at least 4, the
+	 *            longest UTF-8 sequence
+	 * @param direct
+	 *            true to allocate direct buffers, that a channel can write
+	 *            without copying them
+	 * @param maxIdle
+	 *            the number of released buffers kept for later
+	 */
+	public ByteBufferPool(int bufferSize, boolean direct, int maxIdle) {
+		if (bufferSize < 4) {
+			throw new IllegalArgumentException("bufferSize must be at least 4"); //$NON-NLS-1$
+		}
+		this.bufferSize = bufferSize;
+		this.direct = direct;
+		this.maxIdle = maxIdle;
+	}
+
+	/**
+	 * @return an empty buffer, ready to be written
+	 */
+	public ByteBuffer acquire() {
+		ByteBuffer buffer = this.idleBuffers.poll();
+		if (buffer == null) {
+			return this.direct ? ByteBuffer.allocateDirect(this.bufferSize)
+					: ByteBuffer.allocate(this.bufferSize);
+		}
+		this.idleCount.decrementAndGet();
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * Gives back a buffer once its content has been written out. The buffer
+	 * must not be used any more by the caller.
+	 * 
+	 * @param buffer
+	 *            a buffer obtained from <code>acquire()</code>
+	 */
+	public void release(ByteBuffer buffer) {
+		if (buffer == null || buffer.capacity() != this.bufferSize
+				|| buffer.isDirect() != this.direct) {
+			return;
+		}
+		if (this.idleCount.incrementAndGet() <= this.maxIdle) {
+			this.idleBuffers.offer(buffer);
+		} else {
+			this.idleCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * @return the capacity of the buffers of this pool
+	 */
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+
+	/**
+	 * @return true if the buffers of this pool are direct
+	 */
+	public boolean isDirect() {
+		return this.direct;
+	}
+}
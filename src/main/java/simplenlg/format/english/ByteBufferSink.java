@@ -0,0 +1,243 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.format.english;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * An <code>Appendable</code> that encodes the text in UTF-8 straight into a
+ * <code>ByteBuffer</code>, so that a realisation can be written to a
+ * non-blocking channel without going through a <code>String</code> and
+ * <code>getBytes()</code>. The formatters write to it through
+ * <code>Realiser.realise(NLGElement, Appendable)</code>:
+ * </p>
+ * 
+ * <pre>
+ * ByteBufferSink sink = new ByteBufferSink(pool);
+ * realiser.realise(document, sink);
+ * for (ByteBuffer buffer : sink.finish()) {
+ * 	// write the buffer to the channel, then pool.release(buffer)
+ * }
+ * </pre>
+ * 
+ * <p>
+ * When the current buffer cannot hold the next character, the sink asks its
+ * <code>Continuation</code> for another one. The full buffer is passed to
+ * the continuation first, so that it can be sent (and the same buffer
+ * cleared and returned) or queued (and a new buffer returned). A character
+ * is never split between two buffers, so each buffer holds valid UTF-8 on
+ * its own. The continuation of <code>ByteBufferSink(ByteBufferPool)</code>
+ * takes a new buffer from the pool and keeps the chain of full buffers
+ * until <code>finish()</code>; without a continuation a
+ * <code>BufferOverflowException</code> is thrown.
+ * </p>
+ * 
+ * <p>
+ * Unpaired surrogates are replaced by '?', as <code>getBytes()</code> does.
+ * A sink must not be used by several threads at the same time.
+ * </p>
+ */
+public class ByteBufferSink implements Appendable {
+
+	/**
+	 * Provides the buffer in which the encoding continues when the current
+	 * one is full.
+	 */
+	public interface Continuation {
+
+		/**
+		 * @param full
+		 *            the full buffer, in write mode (its position is the
+		 *            number of bytes written)
+		 * @return a buffer with some room left, in write mode
+		 * @throws IOException
+		 *             if the full buffer could not be sent
+		 */
+		ByteBuffer overflow(ByteBuffer full) throws IOException;
+	}
+
+	private ByteBuffer buffer;
+	private final Continuation continuation;
+
+	/** The full buffers kept by the continuation of the pool. */
+	private final List<ByteBuffer> chain;
+
+	/** A high surrogate waiting for the next character. */
+	private char highSurrogate = 0;
+	private long byteCount = 0;
+
+	/**
+	 * Creates a sink writing into <code>buffer</code>.
+	 * 
+	 * @param buffer
+	 *            the first buffer, in write mode
+	 * @param continuation
+	 *            called when a buffer is full; may be null, in which case a
+	 *            <code>BufferOverflowException</code> is thrown
+	 */
+	public ByteBufferSink(ByteBuffer buffer, Continuation continuation) {
+		this.buffer = buffer;
+		this.continuation = continuation;
+		this.chain = null;
+	}
+
+	/**
+	 * Creates a sink writing into buffers taken from the pool, as many as
+	 * needed. They are returned by <code>finish()</code> and should be given
+	 * back to the pool once sent.
+	 * 
+	 * @param pool
+	 *            the pool providing the buffers
+	 */
+	public ByteBufferSink(final ByteBufferPool pool) {
+		this.buffer = pool.acquire();
+		this.chain = new ArrayList<ByteBuffer>();
+		this.continuation = new Continuation() {
+			@Override
+			public ByteBuffer overflow(ByteBuffer full) {
+				ByteBufferSink.this.chain.add(full);
+				return pool.acquire();
+			}
+		};
+	}
+
+	@Override
+	public ByteBufferSink append(CharSequence csq) throws IOException {
+		if (csq == null) {
+			csq = "null"; //$NON-NLS-1$
+		}
+		return append(csq, 0, csq.length());
+	}
+
+	@Override
+	public ByteBufferSink append(CharSequence csq, int start, int end) throws IOException {
+		if (csq == null) {
+			csq = "null"; //$NON-NLS-1$
+		}
+		for (int index = start; index < end; index++) {
+			encode(csq.charAt(index));
+		}
+		return this;
+	}
+
+	@Override
+	public ByteBufferSink append(char c) throws IOException {
+		encode(c);
+		return this;
+	}
+
+	private void encode(char c) throws IOException {
+		if (this.highSurrogate != 0) {
+			char high = this.highSurrogate;
+			this.highSurrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				int codePoint = Character.toCodePoint(high, c);
+				ByteBuffer out = room(4);
+				out.put((byte) (0xF0 | (codePoint >> 18)));
+				out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				out.put((byte) (0x80 | (codePoint & 0x3F)));
+				this.byteCount += 4;
+				return;
+			}
+			room(1).put((byte) '?');
+			this.byteCount++;
+		}
+
+		if (c < 0x80) {
+			room(1).put((byte) c);
+			this.byteCount++;
+		} else if (c < 0x800) {
+			ByteBuffer out = room(2);
+			out.put((byte) (0xC0 | (c >> 6)));
+			out.put((byte) (0x80 | (c & 0x3F)));
+			this.byteCount += 2;
+		} else if (Character.isHighSurrogate(c)) {
+			this.highSurrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			room(1).put((byte) '?');
+			this.byteCount++;
+		} else {
+			ByteBuffer out = room(3);
+			out.put((byte) (0xE0 | (c >> 12)));
+			out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+			out.put((byte) (0x80 | (c & 0x3F)));
+			this.byteCount += 3;
+		}
+	}
+
+	/**
+	 * @return the current buffer, after asking for another one if it has
+	 *         less than <code>length</code> bytes left
+	 */
+	private ByteBuffer room(int length) throws IOException {
+		if (this.buffer.remaining() < length) {
+			if (this.continuation == null) {
+				throw new BufferOverflowException();
+			}
+			ByteBuffer next = this.continuation.overflow(this.buffer);
+			if (next == null || next.remaining() < length) {
+				throw new BufferOverflowException();
+			}
+			this.buffer = next;
+		}
+		return this.buffer;
+	}
+
+	/**
+	 * Ends the text: a high surrogate left alone at the end is written as
+	 * '?'. The buffers are flipped, ready to be read, and the sink must not
+	 * be used any more.
+	 * 
+	 * @return the buffers written since the last overflow, or all those of
+	 *         the chain for a sink created with a pool, in order
+	 * @throws IOException
+	 *             if the continuation throws one
+	 */
+	public List<ByteBuffer> finish() throws IOException {
+		if (this.highSurrogate != 0) {
+			this.highSurrogate = 0;
+			room(1).put((byte) '?');
+			this.byteCount++;
+		}
+		List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+		if (this.chain != null) {
+			buffers.addAll(this.chain);
+			this.chain.clear();
+		}
+		buffers.add(this.buffer);
+		for (ByteBuffer full : buffers) {
+			full.flip();
+		}
+		return buffers;
+	}
+
+	/**
+	 * @return the number of bytes encoded so far
+	 */
+	public long getByteCount() {
+		return this.byteCount;
+	}
+}
@@ -20,6 +20,7 @@
 
 package simplenlg.format.english;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -42,6 +43,9 @@ import simplenlg.framework.StringElement;
  * <li>Adding appropriate new line breaks for ease-of-reading.</li>
  * <li>Indenting list items with ' * '.</li>
  * </ul>
+ * The numbering of enumerated lists is left to the browser (&lt;ol&gt;), so
+ * the formatter keeps no state between calls and can be shared by several
+ * threads.
  * </p>
  *
  * @author D. Westwater, University of Aberdeen ~ for the TextFormatter;
@@ -51,7 +55,7 @@ import simplenlg.framework.StringElement;
  */
 
 //public class TextFormatter extends NLGModule {
-public class HTMLFormatter extends NLGModule {
+public class HTMLFormatter extends NLGModule implements StreamingFormatter {
 
     // Modifications by James Christie to convert TextFormatter into a HTML Formatter
 
@@ -62,9 +66,25 @@ public class HTMLFormatter extends NLGModule {
 
     @Override
     public NLGElement realise(NLGElement element) { // realise a single element
-        NLGElement realisedComponent = null;
-        StringBuffer realisation = new StringBuffer();
+        StringBuilder realisation = new StringBuilder();
+        try {
+            write(element, new LevelWriter(realisation));
+        } catch(IOException e) {
+            // a StringBuilder does not throw it
+            throw new IllegalStateException(e);
+        }
+        return new StringElement(realisation.toString());
+    } // realise ~ single element
 
+    @Override
+    public void write(NLGElement element, Appendable out) throws IOException { // write a single element
+        LevelWriter writer = new LevelWriter(out);
+        writer.begin();
+        write(element, writer);
+        writer.end();
+    } // write ~ single element
+
+    private void write(NLGElement element, LevelWriter out) throws IOException {
         if(element != null) {
             ElementCategory category = element.getCategory();
             List<NLGElement> components = element.getChildren();
@@ -73,7 +93,7 @@ public class HTMLFormatter extends NLGModule {
 
             // check if this is a canned text first
             if(element instanceof StringElement) {
-                realisation.append(element.getRealisation());
+                out.append(element.getRealisation());
 
             } else if(category instanceof DocumentCategory) {
                 // && element instanceof DocumentElement
@@ -82,13 +102,10 @@ public class HTMLFormatter extends NLGModule {
 
                     case DOCUMENT :
                         String title = element instanceof DocumentElement ? ((DocumentElement) element).getTitle() : null;
-                        realisation.append("<h1>" + title + "</h1>");
+                        out.append("<h1>").append(title).append("</h1>");
 
                         for(NLGElement eachComponent : components) {
-                            realisedComponent = realise(eachComponent);
-                            if(realisedComponent != null) {
-                                realisation.append(realisedComponent.getRealisation());
-                            }
+                            writeComponent(eachComponent, out);
                         }
 
                         break;
@@ -97,80 +114,58 @@ public class HTMLFormatter extends NLGModule {
                         title = element instanceof DocumentElement ? ((DocumentElement) element).getTitle() : null;
 
                         if(title != null) {
-                            String sectionTitle = ((DocumentElement) element).getTitle();
-                            realisation.append("<h2>" + sectionTitle + "</h2>");
+                            out.append("<h2>").append(title).append("</h2>");
                         }
 
                         for(NLGElement eachComponent : components) {
-                            realisedComponent = realise(eachComponent);
-                            if(realisedComponent != null) {
-                                realisation.append(realisedComponent.getRealisation());
-                            }
+                            writeComponent(eachComponent, out);
                         }
                         break;
 
                     case LIST :
-                        realisation.append("<ul>");
+                        out.append("<ul>");
                         for(NLGElement eachComponent : components) {
-                            realisedComponent = realise(eachComponent);
-                            if(realisedComponent != null) {
-                                realisation.append(realisedComponent.getRealisation());
-                            }
+                            writeComponent(eachComponent, out);
                         }
-                        realisation.append("</ul>");
+                        out.append("</ul>");
                         break;
 
                     case ENUMERATED_LIST :
-                        realisation.append("<ol>");
+                        out.append("<ol>");
                         for(NLGElement eachComponent : components) {
-                            realisedComponent = realise(eachComponent);
-                            if(realisedComponent != null) {
-                                realisation.append(realisedComponent.getRealisation());
-                            }
+                            writeComponent(eachComponent, out);
                         }
-                        realisation.append("</ol>");
+                        out.append("</ol>");
                         break;
 
                     case PARAGRAPH :
                         if(null != components && 0 < components.size()) {
-                            realisedComponent = realise(components.get(0));
-                            if(realisedComponent != null) {
-                                realisation.append("<p>");
-                                realisation.append(realisedComponent.getRealisation());
-                            }
+                            out.append("<p>");
+                            writeComponent(components.get(0), out);
                             for(int i = 1; i < components.size(); i++ ) {
-                                if(realisedComponent != null) {
-                                    realisation.append(" ");
-                                }
-                                realisedComponent = realise(components.get(i));
-                                if(realisedComponent != null) {
-                                    realisation.append(realisedComponent.getRealisation());
-                                }
+                                out.append(" ");
+                                writeComponent(components.get(i), out);
                             }
-                            realisation.append("</p>");
+                            out.append("</p>");
                         }
 
                         break;
 
                     case SENTENCE :
-                        realisation.append(element.getRealisation());
+                        out.append(element.getRealisation());
                         break;
 
                     case LIST_ITEM :
-                        realisation.append("<li>");
+                        out.append("<li>");
 
                         for(NLGElement eachComponent : components) {
-                            realisedComponent = realise(eachComponent);
-
-                            if(realisedComponent != null) {
-                                realisation.append(realisedComponent.getRealisation());
+                            writeComponent(eachComponent, out);
 
-                                if(components.indexOf(eachComponent) < components.size() - 1) {
-                                    realisation.append(' ');
-                                }
+                            if(components.indexOf(eachComponent) < components.size() - 1) {
+                                out.append(' ');
                             }
                         }
-                        realisation.append("</li>");
+                        out.append("</li>");
 
                         break;
 
@@ -181,16 +176,72 @@ public class HTMLFormatter extends NLGModule {
             } else if(element instanceof ListElement || element instanceof CoordinatedPhraseElement) {
 
                 for(NLGElement eachComponent : components) {
-                    realisedComponent = realise(eachComponent);
-                    if(realisedComponent != null) {
-                        realisation.append(realisedComponent.getRealisation()).append(' ');
-                    }
+                    writeComponent(eachComponent, out);
+                    out.append(' ');
                 }
             }
         }
+    } // write ~ single element
 
-        return new StringElement(realisation.toString());
-    } // realise ~ single element
+    private void writeComponent(NLGElement component, LevelWriter out) throws IOException { // as its own element
+        out.begin();
+        write(component, out);
+        out.end();
+    } // writeComponent
+
+    @Override
+    public boolean isStreamable(NLGElement element) { // documents, sections and lists
+        ElementCategory category = element != null ? element.getCategory() : null;
+        return !(element instanceof StringElement)
+                && (category == DocumentCategory.DOCUMENT
+                        || category == DocumentCategory.SECTION
+                        || category == DocumentCategory.LIST
+                        || category == DocumentCategory.ENUMERATED_LIST);
+    } // isStreamable
+
+    @Override
+    public void startContainer(NLGElement container, Appendable out) throws IOException {
+        String title = container instanceof DocumentElement ? ((DocumentElement) container).getTitle() : null;
+
+        switch((DocumentCategory) container.getCategory()) {
+            case DOCUMENT :
+                out.append("<h1>" + title + "</h1>");
+                break;
+
+            case SECTION :
+                if(title != null) {
+                    out.append("<h2>" + title + "</h2>");
+                }
+                break;
+
+            case LIST :
+                out.append("<ul>");
+                break;
+
+            case ENUMERATED_LIST :
+                out.append("<ol>");
+                break;
+
+            default :
+                break;
+        }
+    } // startContainer
+
+    @Override
+    public void endContainer(NLGElement container, Appendable out) throws IOException {
+        switch((DocumentCategory) container.getCategory()) {
+            case LIST :
+                out.append("</ul>");
+                break;
+
+            case ENUMERATED_LIST :
+                out.append("</ol>");
+                break;
+
+            default :
+                break;
+        }
+    } // endContainer
 
     @Override
     public List<NLGElement> realise(List<NLGElement> elements) { // realise a list of elements
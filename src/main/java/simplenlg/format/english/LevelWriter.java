@@ -0,0 +1,144 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.format.english;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Lets a formatter write the formatted text of nested elements straight
+ * to an <code>Appendable</code>, with the result it would have by building
+ * a <code>StringElement</code> for each element and appending their
+ * realisations to their parents.
+ * </p>
+ * 
+ * <p>
+ * <code>NLGElement.getRealisation()</code> removes the spaces at the
+ * beginning and the end of the realisation of an element, so the text of
+ * each nested element is written between <code>begin()</code> and
+ * <code>end()</code>: the spaces at its beginning are dropped, and those
+ * at its end are held back until something else than a space is written
+ * after the element. Outside of any element the text is written as is.
+ * </p>
+ */
+final class LevelWriter implements Appendable {
+
+	private final Appendable out;
+
+	/** The number of elements begun and not ended. */
+	private int depth = 0;
+
+	/** For each enclosing element, whether it was empty when the current one began. */
+	private boolean[] enclosingEmpty = new boolean[16];
+
+	/** True until the current element has written something else than spaces. */
+	private boolean empty = true;
+
+	/** Spaces written after the last non-space character, not yet passed on. */
+	private int pendingSpaces = 0;
+
+	LevelWriter(Appendable out) {
+		this.out = out;
+	}
+
+	/**
+	 * Begins the text of an element.
+	 */
+	void begin() {
+		if (this.depth == this.enclosingEmpty.length) {
+			this.enclosingEmpty = Arrays.copyOf(this.enclosingEmpty, this.depth * 2);
+		}
+		this.enclosingEmpty[this.depth++] = this.empty;
+		this.empty = true;
+	}
+
+	/**
+	 * Ends the text of an element, dropping the spaces at its end.
+	 */
+	void end() {
+		boolean elementEmpty = this.empty;
+		if (!elementEmpty) {
+			// the pending spaces are those at the end of the element
+			this.pendingSpaces = 0;
+		}
+		this.empty = this.enclosingEmpty[--this.depth] && elementEmpty;
+	}
+
+	@Override
+	public Appendable append(CharSequence csq) throws IOException {
+		if (csq == null) csq = "null"; //$NON-NLS-1$
+		return append(csq, 0, csq.length());
+	}
+
+	@Override
+	public Appendable append(CharSequence csq, int start, int end) throws IOException {
+		if (csq == null) csq = "null"; //$NON-NLS-1$
+		if (this.depth == 0) {
+			this.out.append(csq, start, end);
+			return this;
+		}
+		int first = start;
+		while (first < end && csq.charAt(first) == ' ') {
+			first++;
+		}
+		if (first == end) {
+			addSpaces(end - start);
+			return this;
+		}
+		int last = end;
+		while (csq.charAt(last - 1) == ' ') {
+			last--;
+		}
+		addSpaces(first - start);
+		writePendingSpaces();
+		this.out.append(csq, first, last);
+		this.empty = false;
+		this.pendingSpaces = end - last;
+		return this;
+	}
+
+	@Override
+	public Appendable append(char c) throws IOException {
+		if (this.depth == 0) {
+			this.out.append(c);
+		} else if (c == ' ') {
+			addSpaces(1);
+		} else {
+			writePendingSpaces();
+			this.out.append(c);
+			this.empty = false;
+		}
+		return this;
+	}
+
+	private void addSpaces(int count) {
+		// spaces at the beginning of an element are dropped
+		if (!this.empty) {
+			this.pendingSpaces += count;
+		}
+	}
+
+	private void writePendingSpaces() throws IOException {
+		for (; this.pendingSpaces > 0; this.pendingSpaces--) {
+			this.out.append(' ');
+		}
+	}
+}
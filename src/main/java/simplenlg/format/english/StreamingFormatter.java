@@ -0,0 +1,87 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.format.english;
+
+import java.io.IOException;
+
+import simplenlg.framework.NLGElement;
+
+/**
+ * <p>
+ * A formatter that can write a document, section or list piece by piece,
+ * so that <code>Realiser.realise(NLGElement, Appendable)</code> can realise
+ * and write its components one at a time instead of building the whole
+ * text in memory.
+ * </p>
+ * 
+ * <p>
+ * For a container, the realiser writes <code>startContainer()</code>, then
+ * the formatted realisation of each component in turn, then
+ * <code>endContainer()</code>. The result must be the same as the
+ * realisation of the whole container by the formatter.
+ * </p>
+ */
+public interface StreamingFormatter {
+
+	/**
+	 * @param element
+	 *            an element about to be realised
+	 * @return true if the element is a container this formatter can write
+	 *         piece by piece
+	 */
+	boolean isStreamable(NLGElement element);
+
+	/**
+	 * Writes what comes before the components of the container, such as
+	 * its title.
+	 * 
+	 * @param container
+	 *            a container for which <code>isStreamable()</code> is true
+	 * @param out
+	 *            where the text is written
+	 * @throws IOException
+	 */
+	void startContainer(NLGElement container, Appendable out) throws IOException;
+
+	/**
+	 * Writes what comes after the components of the container.
+	 * 
+	 * @param container
+	 *            a container for which <code>isStreamable()</code> is true
+	 * @param out
+	 *            where the text is written
+	 * @throws IOException
+	 */
+	void endContainer(NLGElement container, Appendable out) throws IOException;
+
+	/**
+	 * Formats an element whose orthography has been realised and writes the
+	 * text straight to <code>out</code>, without building a string for each
+	 * of its components. The text written is the realisation of the element
+	 * returned by <code>realise()</code>.
+	 * 
+	 * @param element
+	 *            the element to format
+	 * @param out
+	 *            where the text is written
+	 * @throws IOException
+	 */
+	void write(NLGElement element, Appendable out) throws IOException;
+}
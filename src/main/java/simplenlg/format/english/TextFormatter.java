@@ -18,6 +18,7 @@
  */
 package simplenlg.format.english;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,13 +40,15 @@ import simplenlg.framework.StringElement;
  * <li>Adding appropriate new line breaks for ease-of-reading.</li>
  * <li>Indenting list items with ' * '.</li>
  * </ul>
+ * The formatter keeps no state between calls and can be shared by several
+ * threads.
  * </p>
  * 
  * @author D. Westwater, University of Aberdeen.
  * @version 4.0
  * 
  */
-public class TextFormatter extends NLGModule {
+public class TextFormatter extends NLGModule implements StreamingFormatter {
 
 	@Override
 	public void initialise() {
@@ -54,9 +57,34 @@ public class TextFormatter extends NLGModule {
 
 	@Override
 	public NLGElement realise(NLGElement element) {
-		NLGElement realisedComponent = null;
-		StringBuffer realisation = new StringBuffer();
-		
+		StringBuilder realisation = new StringBuilder();
+		try {
+			write(element, new LevelWriter(realisation));
+		} catch (IOException e) {
+			// a StringBuilder does not throw it
+			throw new IllegalStateException(e);
+		}
+		return new StringElement(realisation.toString());
+	}
+
+	@Override
+	public void write(NLGElement element, Appendable out) throws IOException {
+		LevelWriter writer = new LevelWriter(out);
+		writer.begin();
+		write(element, writer);
+		writer.end();
+	}
+
+	/**
+	 * Writes the formatted text of an element and of its components.
+	 * 
+	 * @param element
+	 *            the element to write
+	 * @param out
+	 *            where the text is written
+	 * @throws IOException
+	 */
+	private void write(NLGElement element, LevelWriter out) throws IOException {
 		if (element != null) {
 			ElementCategory category = element.getCategory();
 			List<NLGElement> components = element.getChildren();
@@ -65,7 +93,7 @@ public class TextFormatter extends NLGModule {
 			
 			// check if this is a canned text first
 			if (element instanceof StringElement) {
-				realisation.append(element.getRealisation());
+				out.append(element.getRealisation());
 
 			} else if (category instanceof DocumentCategory) {
 				// && element instanceof DocumentElement
@@ -80,56 +108,39 @@ public class TextFormatter extends NLGModule {
 				case SECTION:
 				case LIST:
 					if (title != null) {
-						realisation.append(title).append('\n');
+						out.append(title).append('\n');
 					}
 					for (NLGElement eachComponent : components) {
-						realisedComponent = realise(eachComponent);
-						if (realisedComponent != null) {
-							realisation.append(realisedComponent
-									.getRealisation());
-						}
+						writeComponent(eachComponent, out);
 					}
 					break;
 
 				case PARAGRAPH:
 					if (null != components && 0 < components.size()) {
-						realisedComponent = realise(components.get(0));
-						if (realisedComponent != null) {
-							realisation.append(realisedComponent
-									.getRealisation());
-						}
+						writeComponent(components.get(0), out);
 						for (int i = 1; i < components.size(); i++) {
-							if (realisedComponent != null) {
-								realisation.append(' ');
-							}
-							realisedComponent = realise(components.get(i));
-							if (realisedComponent != null) {
-								realisation.append(realisedComponent
-										.getRealisation());
-							}
+							out.append(' ');
+							writeComponent(components.get(i), out);
 						}
 					}
-					realisation.append("\n\n");
+					out.append("\n\n");
 					break;
 
 				case SENTENCE:
-					realisation.append(element.getRealisation());
+					out.append(element.getRealisation());
 					break;
 
 				case LIST_ITEM:
 					// cch fix
 					//realisation.append(" * ").append(element.getRealisation()); //$NON-NLS-1$
-					realisation.append(" * "); //$NON-NLS-1$
+					out.append(" * "); //$NON-NLS-1$
 
 					for (NLGElement eachComponent : components) {
-						realisedComponent = realise(eachComponent);
-						if (realisedComponent != null) {
-							realisation.append(realisedComponent
-									.getRealisation()).append(' ');							
-						}
+						writeComponent(eachComponent, out);
+						out.append(' ');
 					}
 					//finally, append newline
-					realisation.append("\n");
+					out.append("\n");
 					break;
 				}
 
@@ -137,16 +148,49 @@ public class TextFormatter extends NLGModule {
 				// have embedded lists post-orthography)
 			} else if (element instanceof ListElement) {
 				for (NLGElement eachComponent : components) {
-					realisedComponent = realise(eachComponent);
-					if (realisedComponent != null) {
-						realisation.append(realisedComponent.getRealisation()).append(' ');
-					}
+					writeComponent(eachComponent, out);
+					out.append(' ');
 				}
 
 			}
 		}
-		
-		return new StringElement(realisation.toString());
+	}
+
+	/**
+	 * Writes a component as its own element, whose spaces at the beginning
+	 * and the end are removed.
+	 */
+	private void writeComponent(NLGElement component, LevelWriter out) throws IOException {
+		out.begin();
+		write(component, out);
+		out.end();
+	}
+
+	/**
+	 * Documents, sections and lists can be written piece by piece.
+	 */
+	@Override
+	public boolean isStreamable(NLGElement element) {
+		ElementCategory category = element != null ? element.getCategory() : null;
+		return !(element instanceof StringElement)
+				&& (category == DocumentCategory.DOCUMENT
+						|| category == DocumentCategory.SECTION
+						|| category == DocumentCategory.LIST);
+	}
+
+	@Override
+	public void startContainer(NLGElement container, Appendable out) throws IOException {
+		String title = container instanceof DocumentElement ? ((DocumentElement) container)
+				.getTitle()
+				: null;
+		if (title != null) {
+			out.append(title).append('\n');
+		}
+	}
+
+	@Override
+	public void endContainer(NLGElement container, Appendable out) {
+		// nothing after the components
 	}
 
 	@Override
@@ -20,9 +20,7 @@
 package simplenlg.framework;
 
 import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 
 import simplenlg.features.Feature;
 import simplenlg.features.Gender;
@@ -58,9 +56,6 @@ import simplenlg.framework.LexicalCategory;
  */
 public class CoordinatedPhraseElement extends NLGElement {
 
-	// added by vaudrypl
-	private static Map<Language, AbstractCoordinatedPhraseHelper> coordinatedPhraseHelpers = null; 
-	
 	// not used anymore, commented out by vaudrypl
 //	/** Coordinators which make the coordinate plural (eg, "and" but not "or")*/
 //	@SuppressWarnings("nls")
@@ -134,9 +129,7 @@ public class CoordinatedPhraseElement extends NLGElement {
 	public CoordinatedPhraseElement(CoordinatedPhraseElement coordinatedPhrase) {
 		if (coordinatedPhrase != null) {
 			//the new coordinated phrase inherits all features from the base word
-			for(String feature : coordinatedPhrase.getAllFeatureNames()) {
-				setFeature(feature, coordinatedPhrase.getFeature(feature));
-			}
+			copyAllFeatures(coordinatedPhrase);
 			
 			setFactory(coordinatedPhrase.getFactory());
 			
@@ -162,7 +155,7 @@ public class CoordinatedPhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the coordinated phrase helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language, as registered in LanguageHelpers.
 	 * 
 	 * @param language
 	 * @return the coordinated phrase helper to be used to do the syntax of this language
@@ -170,30 +163,7 @@ public class CoordinatedPhraseElement extends NLGElement {
 	 */
 	public static AbstractCoordinatedPhraseHelper getCoordinatedPhraseHelper(Language language)
 	{
-		if (coordinatedPhraseHelpers == null) {
-			coordinatedPhraseHelpers =
-				new EnumMap<Language,AbstractCoordinatedPhraseHelper>(Language.class); 
-		}
-		AbstractCoordinatedPhraseHelper coordinatedPhraseHelper =
-			coordinatedPhraseHelpers.get(language);
-		if (coordinatedPhraseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				coordinatedPhraseHelper =
-					new simplenlg.syntax.english.nonstatic.CoordinatedPhraseHelper();
-				break;
-			case FRENCH:
-				coordinatedPhraseHelper =
-					new simplenlg.syntax.french.CoordinatedPhraseHelper();
-				break;
-			case DUTCH:
-				coordinatedPhraseHelper =
-					new simplenlg.syntax.dutch.CoordinatedPhraseHelper();
-				break;
-			}
-			coordinatedPhraseHelpers.put(language, coordinatedPhraseHelper);
-		}
-		return coordinatedPhraseHelper;
+		return LanguageHelpers.forLanguage(language).getCoordinatedPhraseHelper();
 	}
 
 	/**
@@ -586,6 +556,7 @@ public class CoordinatedPhraseElement extends NLGElement {
 		if (getFeatureAsBoolean(Feature.ELIDED).booleanValue()) {
 			return null;
 		}
+		RealisationBudget.checkpoint();
 		
 		return getCoordinatedPhraseHelper().realise(this);
 	}
@@ -0,0 +1,252 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.framework;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Computes the structural fingerprint of an <code>NLGElement</code>: a 64-bit
+ * hash of its class, category, realisation and features, the elements held
+ * in its features (its children) included. The hash only uses the contents
+ * of strings, numbers and enum names, so it is the same in every JVM run and
+ * can be stored or sent to other processes.
+ * </p>
+ * 
+ * <p>
+ * Features are combined in an order-independent way, since they are kept in
+ * a <code>HashMap</code>, while lists keep their order. The parent of an
+ * element is not part of its fingerprint.
+ * </p>
+ * 
+ * <p>
+ * Fingerprints are cached on the elements (see
+ * <code>NLGElement.getFingerprint()</code>) with the value of a global
+ * modification count taken when the computation started. Once an element
+ * has been fingerprinted, each change to it advances the count and records
+ * the new value on the element. A cached fingerprint is used only if no
+ * element below it was changed after it was computed, which is checked by
+ * comparing counts, without hashing. Elements keep no reference to the
+ * elements holding them, so a subtree shared by many trees (a lexicon word
+ * for instance) does not keep them alive.
+ * </p>
+ */
+final class ElementFingerprint {
+
+	private static final long NULL_HASH = 0x6A09E667F3BCC908L;
+	private static final long TRUE_HASH = 0xBB67AE8584CAA73BL;
+	private static final long FALSE_HASH = 0x3C6EF372FE94F82BL;
+	private static final long CYCLE_HASH = 0xA54FF53A5F1D36F1L;
+	private static final long INTEGER_TAG = 1;
+	private static final long LONG_TAG = 2;
+	private static final long FLOAT_TAG = 3;
+	private static final long DOUBLE_TAG = 4;
+	private static final long STRING_TAG = 5;
+	private static final long ENUM_TAG = 6;
+	private static final long LIST_TAG = 7;
+	private static final long ELEMENT_TAG = 8;
+	private static final long OTHER_TAG = 9;
+
+	/** Advanced by each change to an element that has been fingerprinted. */
+	private static final AtomicLong MODIFICATIONS = new AtomicLong();
+
+	/** A fingerprint, and the modification count when it was computed. */
+	static final class Cached {
+		final long value;
+		final long computedAt;
+
+		Cached(long value, long computedAt) {
+			this.value = value;
+			this.computedAt = computedAt;
+		}
+	}
+
+	/** The modification count when this computation started. */
+	private final long start;
+
+	/** Elements being hashed, to stop on cycles. */
+	private final Map<NLGElement, Boolean> inProgress =
+		new IdentityHashMap<NLGElement, Boolean>();
+
+	/**
+	 * Set when a cycle has been cut: the fingerprints computed afterwards
+	 * depend on where the computation started and are not cached.
+	 */
+	private boolean cycleFound = false;
+
+	private ElementFingerprint(long start) {
+		// one instance per computation
+		this.start = start;
+	}
+
+	/**
+	 * @return the modification count to record on an element being changed
+	 */
+	static long nextModification() {
+		return MODIFICATIONS.incrementAndGet();
+	}
+
+	/**
+	 * @param element
+	 * @return the fingerprint of the element, from its cache if possible
+	 */
+	static long of(NLGElement element) {
+		Cached cached = element.getCachedFingerprint();
+		if (cached != null && unchangedSince(element, cached.computedAt)) {
+			return cached.value;
+		}
+		return new ElementFingerprint(MODIFICATIONS.get()).hashElement(element);
+	}
+
+	/**
+	 * @return true if neither the element nor any element held in its
+	 *         features was changed after the given modification count
+	 */
+	private static boolean unchangedSince(NLGElement element, long time) {
+		if (element.getModifiedAt() > time) return false;
+		for (Object value : element.features.values()) {
+			if (!valueUnchangedSince(value, time)) return false;
+		}
+		return true;
+	}
+
+	private static boolean valueUnchangedSince(Object value, long time) {
+		if (value instanceof NLGElement) {
+			return unchangedSince((NLGElement) value, time);
+		} else if (value instanceof Collection<?>) {
+			for (Object item : (Collection<?>) value) {
+				if (!valueUnchangedSince(item, time)) return false;
+			}
+		}
+		return true;
+	}
+
+	private long hashElement(NLGElement element) {
+		// from now on, changes to the element are recorded
+		element.markFingerprinted();
+		Cached cached = element.getCachedFingerprint();
+		if (cached != null && unchangedSince(element, cached.computedAt)) {
+			return cached.value;
+		}
+		if (this.inProgress.containsKey(element)) {
+			this.cycleFound = true;
+			return CYCLE_HASH;
+		}
+		this.inProgress.put(element, Boolean.TRUE);
+
+		long hash = combine(ELEMENT_TAG, hashString(element.getClass().getName()));
+		hash = combine(hash, hashValue(element.getCategory()));
+		hash = combine(hash, hashString(element.getRealisation()));
+		if (element instanceof WordElement) {
+			WordElement word = (WordElement) element;
+			hash = combine(hash, hashString(word.getBaseForm()));
+			hash = combine(hash, hashString(word.getId()));
+		}
+
+		// order-independent sum of the feature entries
+		long features = 0;
+		int count = 0;
+		for (Map.Entry<String, Object> feature : element.features.entrySet()) {
+			features += combine(hashString(feature.getKey()),
+					hashValue(feature.getValue()));
+			count++;
+		}
+		hash = mix(combine(hash, features) + count);
+
+		this.inProgress.remove(element);
+		if (!this.cycleFound) {
+			element.cacheFingerprint(new Cached(hash, this.start));
+		}
+		return hash;
+	}
+
+	private long hashValue(Object value) {
+		if (value == null) {
+			return NULL_HASH;
+		} else if (value instanceof String) {
+			return combine(STRING_TAG, hashString((String) value));
+		} else if (value instanceof Boolean) {
+			return ((Boolean) value).booleanValue() ? TRUE_HASH : FALSE_HASH;
+		} else if (value instanceof Enum<?>) {
+			Enum<?> constant = (Enum<?>) value;
+			return combine(combine(ENUM_TAG,
+					hashString(constant.getDeclaringClass().getName())),
+					hashString(constant.name()));
+		} else if (value instanceof NLGElement) {
+			return hashElement((NLGElement) value);
+		} else if (value instanceof Collection<?>) {
+			long hash = LIST_TAG;
+			for (Object item : (Collection<?>) value) {
+				hash = combine(hash, hashValue(item));
+			}
+			return mix(hash + ((Collection<?>) value).size());
+		} else if (value instanceof Integer) {
+			return combine(INTEGER_TAG, ((Integer) value).longValue());
+		} else if (value instanceof Long) {
+			return combine(LONG_TAG, ((Long) value).longValue());
+		} else if (value instanceof Float) {
+			return combine(FLOAT_TAG, Float.floatToIntBits(((Float) value).floatValue()));
+		} else if (value instanceof Double) {
+			return combine(DOUBLE_TAG, Double.doubleToLongBits(((Double) value).doubleValue()));
+		} else {
+			// only stable if the class defines a stable hashCode()
+			return combine(combine(OTHER_TAG, hashString(value.getClass().getName())),
+					value.hashCode());
+		}
+	}
+
+	/**
+	 * @param string
+	 * @return 64-bit FNV-1a hash of the characters of the string
+	 */
+	private static long hashString(String string) {
+		if (string == null) return NULL_HASH;
+		long hash = 0xCBF29CE484222325L;
+		int length = string.length();
+		for (int index = 0; index < length; index++) {
+			hash ^= string.charAt(index);
+			hash *= 0x100000001B3L;
+		}
+		return mix(hash ^ length);
+	}
+
+	/**
+	 * Order-dependent combination of two hashes.
+	 */
+	private static long combine(long first, long second) {
+		return mix(first * 0x9E3779B97F4A7C15L + second);
+	}
+
+	/**
+	 * Finalisation step of MurmurHash3 : spreads every input bit
+	 * over the whole output.
+	 */
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -19,9 +19,7 @@
 
 package simplenlg.framework;
 
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 
 import simplenlg.features.Feature;
 import simplenlg.features.InternalFeature;
@@ -43,10 +41,6 @@ import simplenlg.morphology.MorphologyRulesInterface;
  * 
  */
 public class InflectedWordElement extends NLGElement {
-	
-	// Morphology rule sets used by realiseMorphology() to inflect the word
-	// instantiated by getMorphologyRuleSet(Language language)
-	private static Map<Language, MorphologyRulesInterface> morphologyRuleSets = null; 
 
 	/**
 	 * Constructs a new inflected word using the giving word as the base form.
@@ -76,9 +70,7 @@ public class InflectedWordElement extends NLGElement {
 		if (word != null) {
 			//the inflected word inherits all features from the base word
 			// (moved from WordElement.realiseSyntax())
-			for(String feature : word.getAllFeatureNames()) {
-				setFeature(feature, word.getFeature(feature));
-			}
+			copyAllFeatures(word);
 			
 			setFeature(InternalFeature.BASE_WORD, word);
 			// AG: changed to use the default spelling variant
@@ -126,7 +118,7 @@ public class InflectedWordElement extends NLGElement {
 	
 	/**
 	 * This static method returns the morphology rule set corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language, as registered in LanguageHelpers.
 	 * 
 	 * @param language
 	 * @return the morphology rule set to be used for this language
@@ -134,26 +126,7 @@ public class InflectedWordElement extends NLGElement {
 	 */
 	public static MorphologyRulesInterface getMorphologyRuleSet(Language language)
 	{
-		if (morphologyRuleSets == null) {
-			morphologyRuleSets =
-				new EnumMap<Language,MorphologyRulesInterface>(Language.class); 
-		}
-		MorphologyRulesInterface ruleSet = morphologyRuleSets.get(language);
-		if (ruleSet == null) {
-			switch (language) {
-			case ENGLISH:
-				ruleSet = new simplenlg.morphology.english.NonStaticMorphologyRules();
-				break;
-			case FRENCH:
-				ruleSet = new simplenlg.morphology.french.MorphologyRules();
-				break;
-			case DUTCH:
-				ruleSet = new simplenlg.morphology.dutch.MorphologyRules();
-				break;
-			}
-			morphologyRuleSets.put(language, ruleSet);
-		}
-		return ruleSet;
+		return LanguageHelpers.forLanguage(language).getMorphologyRuleSet();
 	}
 
 	/**
@@ -261,6 +234,7 @@ public class InflectedWordElement extends NLGElement {
 	 */
 	public NLGElement realiseMorphology()
 	{
+		RealisationBudget.checkpoint();
 		NLGElement realisedElement = null;
 		if (getFeatureAsBoolean(InternalFeature.NON_MORPH)
 				.booleanValue()) {
@@ -0,0 +1,278 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+import java.util.ServiceLoader;
+
+import simplenlg.morphology.MorphologyRulesInterface;
+import simplenlg.morphophonology.MorphophonologyRulesInterface;
+import simplenlg.orthography.OrthographyHelperInterface;
+import simplenlg.syntax.AbstractClauseHelper;
+import simplenlg.syntax.AbstractCoordinatedPhraseHelper;
+import simplenlg.syntax.AbstractNounPhraseHelper;
+import simplenlg.syntax.AbstractVerbPhraseHelper;
+import simplenlg.syntax.GenericPhraseHelper;
+
+/**
+ * <p>
+ * Holds the syntax helpers, morphology rules, morphophonology rules and
+ * orthography helper used to realise one language. Instances are immutable.
+ * </p>
+ * 
+ * <p>
+ * The helpers of every language are created once, when this class is
+ * loaded, and are then only read. They can therefore be used by several
+ * threads realising at the same time.
+ * </p>
+ * 
+ * <p>
+ * The default helpers of a language can be replaced by registering a
+ * <code>LanguageHelpersProvider</code> in a
+ * <code>META-INF/services/simplenlg.framework.LanguageHelpersProvider</code>
+ * file, as described in <code>java.util.ServiceLoader</code>. A provider
+ * that cannot be loaded or that returns helpers for another language makes
+ * the loading of this class fail, rather than being silently ignored.
+ * </p>
+ */
+public class LanguageHelpers {
+
+	// indexed by Language.ordinal()
+	private static final LanguageHelpers[] registry = createRegistry();
+
+	private final Language language;
+	private final AbstractClauseHelper clauseHelper;
+	private final AbstractNounPhraseHelper nounPhraseHelper;
+	private final GenericPhraseHelper phraseHelper;
+	private final AbstractVerbPhraseHelper verbPhraseHelper;
+	private final AbstractCoordinatedPhraseHelper coordinatedPhraseHelper;
+	private final MorphologyRulesInterface morphologyRuleSet;
+	private final MorphophonologyRulesInterface morphophonologyRuleSet;
+	private final OrthographyHelperInterface orthographyHelper;
+
+	/**
+	 * Creates a set of helpers for a language. None of the arguments
+	 * can be null.
+	 * 
+	 * @param language
+	 * @param clauseHelper
+	 * @param nounPhraseHelper
+	 * @param phraseHelper
+	 * @param verbPhraseHelper
+	 * @param coordinatedPhraseHelper
+	 * @param morphologyRuleSet
+	 * @param morphophonologyRuleSet
+	 * @param orthographyHelper
+	 */
+	public LanguageHelpers(Language language,
+			AbstractClauseHelper clauseHelper,
+			AbstractNounPhraseHelper nounPhraseHelper,
+			GenericPhraseHelper phraseHelper,
+			AbstractVerbPhraseHelper verbPhraseHelper,
+			AbstractCoordinatedPhraseHelper coordinatedPhraseHelper,
+			MorphologyRulesInterface morphologyRuleSet,
+			MorphophonologyRulesInterface morphophonologyRuleSet,
+			OrthographyHelperInterface orthographyHelper) {
+		if (language == null || clauseHelper == null || nounPhraseHelper == null
+				|| phraseHelper == null || verbPhraseHelper == null
+				|| coordinatedPhraseHelper == null || morphologyRuleSet == null
+				|| morphophonologyRuleSet == null || orthographyHelper == null) {
+			throw new IllegalArgumentException("Missing helper for language " + language); //$NON-NLS-1$
+		}
+		this.language = language;
+		this.clauseHelper = clauseHelper;
+		this.nounPhraseHelper = nounPhraseHelper;
+		this.phraseHelper = phraseHelper;
+		this.verbPhraseHelper = verbPhraseHelper;
+		this.coordinatedPhraseHelper = coordinatedPhraseHelper;
+		this.morphologyRuleSet = morphologyRuleSet;
+		this.morphophonologyRuleSet = morphophonologyRuleSet;
+		this.orthographyHelper = orthographyHelper;
+	}
+
+	/**
+	 * @param language
+	 * @return the helpers registered for this language
+	 *         (those of Language.DEFAULT_LANGUAGE if language is null)
+	 */
+	public static LanguageHelpers forLanguage(Language language) {
+		if (language == null) language = Language.DEFAULT_LANGUAGE;
+		return registry[language.ordinal()];
+	}
+
+	/**
+	 * Creates the helpers supplied with SimpleNLG for a language,
+	 * ignoring the registered providers.
+	 * 
+	 * @param language
+	 * @return new default helpers for this language
+	 */
+	public static LanguageHelpers createDefault(Language language) {
+		switch (language) {
+		case FRENCH:
+			return new LanguageHelpers(language,
+					new simplenlg.syntax.french.ClauseHelper(),
+					new simplenlg.syntax.french.NounPhraseHelper(),
+					new simplenlg.syntax.french.PhraseHelper(),
+					new simplenlg.syntax.french.VerbPhraseHelper(),
+					new simplenlg.syntax.french.CoordinatedPhraseHelper(),
+					new simplenlg.morphology.french.MorphologyRules(),
+					new simplenlg.morphophonology.french.MorphophonologyRules(),
+					new simplenlg.orthography.french.OrthographyHelper());
+		case DUTCH:
+			return new LanguageHelpers(language,
+					new simplenlg.syntax.dutch.ClauseHelper(),
+					new simplenlg.syntax.dutch.NounPhraseHelper(),
+					new simplenlg.syntax.dutch.PhraseHelper(),
+					new simplenlg.syntax.dutch.VerbPhraseHelper(),
+					new simplenlg.syntax.dutch.CoordinatedPhraseHelper(),
+					new simplenlg.morphology.dutch.MorphologyRules(),
+					new simplenlg.morphophonology.dutch.MorphophonologyRules(),
+					new simplenlg.orthography.dutch.OrthographyHelper());
+		case ENGLISH:
+		default:
+			return new LanguageHelpers(language,
+					new simplenlg.syntax.english.nonstatic.ClauseHelper(),
+					new simplenlg.syntax.english.nonstatic.NounPhraseHelper(),
+					new simplenlg.syntax.english.nonstatic.PhraseHelper(),
+					new simplenlg.syntax.english.nonstatic.VerbPhraseHelper(),
+					new simplenlg.syntax.english.nonstatic.CoordinatedPhraseHelper(),
+					new simplenlg.morphology.english.NonStaticMorphologyRules(),
+					new simplenlg.morphophonology.english.MorphophonologyRules(),
+					new simplenlg.orthography.english.OrthographyHelper());
+		}
+	}
+
+	/**
+	 * Creates the default helpers of every language, then lets the
+	 * providers registered with the class loader of this class replace them.
+	 */
+	private static LanguageHelpers[] createRegistry() {
+		Language[] languages = Language.values();
+		LanguageHelpers[] helpers = new LanguageHelpers[languages.length];
+		for (Language language : languages) {
+			helpers[language.ordinal()] =
+				load(language, LanguageHelpers.class.getClassLoader());
+		}
+		return helpers;
+	}
+
+	/**
+	 * Creates the default helpers of a language, then lets the providers
+	 * for this language registered with a class loader replace them. If
+	 * several providers are registered for the same language, the last one
+	 * found wins. This is how the helpers returned by
+	 * <code>forLanguage()</code> are created.
+	 * 
+	 * @param language
+	 * @param loader
+	 *            the class loader used to find the providers
+	 * @return the helpers for this language
+	 * @throws java.util.ServiceConfigurationError
+	 *             if a registered provider cannot be loaded
+	 * @throws IllegalStateException
+	 *             if a provider has no language or returns helpers for
+	 *             another language
+	 */
+	public static LanguageHelpers load(Language language, ClassLoader loader) {
+		LanguageHelpers helpers = createDefault(language);
+		for (LanguageHelpersProvider provider :
+				ServiceLoader.load(LanguageHelpersProvider.class, loader)) {
+			Language providerLanguage = provider.getLanguage();
+			if (providerLanguage == null) {
+				throw new IllegalStateException("Language helpers provider without a language: " //$NON-NLS-1$
+						+ provider.getClass().getName());
+			}
+			if (providerLanguage == language) {
+				LanguageHelpers replacement = provider.createHelpers(helpers);
+				if (replacement != null) {
+					if (replacement.getLanguage() != language) {
+						throw new IllegalStateException("Language helpers provider " //$NON-NLS-1$
+								+ provider.getClass().getName() + " returned helpers for " //$NON-NLS-1$
+								+ replacement.getLanguage() + " instead of " + language); //$NON-NLS-1$
+					}
+					helpers = replacement;
+				}
+			}
+		}
+		return helpers;
+	}
+
+	/**
+	 * @return the language of these helpers
+	 */
+	public Language getLanguage() {
+		return this.language;
+	}
+
+	/**
+	 * @return the clause helper
+	 */
+	public AbstractClauseHelper getClauseHelper() {
+		return this.clauseHelper;
+	}
+
+	/**
+	 * @return the noun phrase helper
+	 */
+	public AbstractNounPhraseHelper getNounPhraseHelper() {
+		return this.nounPhraseHelper;
+	}
+
+	/**
+	 * @return the generic phrase helper
+	 */
+	public GenericPhraseHelper getPhraseHelper() {
+		return this.phraseHelper;
+	}
+
+	/**
+	 * @return the verb phrase helper
+	 */
+	public AbstractVerbPhraseHelper getVerbPhraseHelper() {
+		return this.verbPhraseHelper;
+	}
+
+	/**
+	 * @return the coordinated phrase helper
+	 */
+	public AbstractCoordinatedPhraseHelper getCoordinatedPhraseHelper() {
+		return this.coordinatedPhraseHelper;
+	}
+
+	/**
+	 * @return the morphology rule set
+	 */
+	public MorphologyRulesInterface getMorphologyRuleSet() {
+		return this.morphologyRuleSet;
+	}
+
+	/**
+	 * @return the morphophonology rule set
+	 */
+	public MorphophonologyRulesInterface getMorphophonologyRuleSet() {
+		return this.morphophonologyRuleSet;
+	}
+
+	/**
+	 * @return the orthography helper
+	 */
+	public OrthographyHelperInterface getOrthographyHelper() {
+		return this.orthographyHelper;
+	}
+}
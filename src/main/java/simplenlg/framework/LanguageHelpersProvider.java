@@ -0,0 +1,53 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+package simplenlg.framework;
+
+/**
+ * <p>
+ * Service provider interface used to replace the helpers of a language.
+ * Implementations are found with <code>java.util.ServiceLoader</code> when
+ * <code>LanguageHelpers</code> is loaded, and must have a public no-argument
+ * constructor. A provider that cannot be loaded, that has no language or
+ * that returns helpers for another language makes the loading of
+ * <code>LanguageHelpers</code> fail.
+ * </p>
+ * 
+ * <p>
+ * Implementations must not call <code>LanguageHelpers.forLanguage()</code>
+ * or the helper getters of the elements while creating their helpers, as
+ * the registry is not built yet at that time.
+ * </p>
+ */
+public interface LanguageHelpersProvider {
+
+	/**
+	 * @return the language for which this provider creates helpers
+	 */
+	public Language getLanguage();
+
+	/**
+	 * Creates the helpers to be used for the language. Helpers that are
+	 * not replaced can be taken from the current ones.
+	 * 
+	 * @param current
+	 *            the helpers that would be used without this provider
+	 * @return the new helpers, or null to keep the current ones
+	 */
+	public LanguageHelpers createHelpers(LanguageHelpers current);
+}
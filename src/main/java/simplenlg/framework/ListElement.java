@@ -68,9 +68,7 @@ public class ListElement extends NLGElement {
 		//the ListElement inherits factory, category and all features from phrase
 		setFactory(phrase.getFactory());
 		setCategory(phrase.getCategory());
-		for(String feature : phrase.getAllFeatureNames()) {
-			setFeature(feature, phrase.getFeature(feature));
-		}	
+		copyAllFeatures(phrase);
 	}
 
 	/**
@@ -20,7 +20,6 @@ package simplenlg.framework;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -34,6 +33,7 @@ import simplenlg.features.Tense;
 import simplenlg.features.dutch.DutchLexicalFeature;
 import simplenlg.features.french.FrenchLexicalFeature;
 import simplenlg.lexicon.Lexicon;
+import simplenlg.morphophonology.MorphophonologyEngine;
 import simplenlg.orthography.OrthographyHelperInterface;
 
 /**
@@ -79,6 +79,18 @@ public abstract class NLGElement {
 	/** The NLGFactory which created this element */
 	private NLGFactory factory;
 
+	/** The cached structural fingerprint, or null. */
+	private volatile ElementFingerprint.Cached fingerprint;
+
+	/** Set once this element has been part of a fingerprint computation. */
+	private volatile boolean fingerprinted = false;
+
+	/**
+	 * The modification count (see <code>ElementFingerprint</code>) of the
+	 * last change made to this element after it was fingerprinted, 0 if none.
+	 */
+	private volatile long modifiedAt = 0;
+
 	/**
 	 * Sets the category of this element.
 	 * 
@@ -86,6 +98,7 @@ public abstract class NLGElement {
 	 *            the new <code>ElementCategory</code> for this element.
 	 */
 	public void setCategory(ElementCategory newCategory) {
+		invalidateFingerprint();
 		this.category = newCategory;
 	}
 
@@ -110,6 +123,7 @@ public abstract class NLGElement {
 	 *            feature is to be removed.
 	 */
 	public void setFeature(String featureName, Object featureValue) {
+		invalidateFingerprint();
 		if (featureName != null) {
 			if (featureValue == null) {
 				this.features.remove(featureName);
@@ -128,6 +142,7 @@ public abstract class NLGElement {
 	 *            the <code>boolean</code> value of the feature.
 	 */
 	public void setFeature(String featureName, boolean featureValue) {
+		invalidateFingerprint();
 		if (featureName != null) {
 			this.features.put(featureName, new Boolean(featureValue));
 		}
@@ -142,6 +157,7 @@ public abstract class NLGElement {
 	 *            the <code>int</code> value of the feature.
 	 */
 	public void setFeature(String featureName, int featureValue) {
+		invalidateFingerprint();
 		if (featureName != null) {
 			this.features.put(featureName, new Integer(featureValue));
 		}
@@ -156,6 +172,7 @@ public abstract class NLGElement {
 	 *            the <code>long</code> value of the feature.
 	 */
 	public void setFeature(String featureName, long featureValue) {
+		invalidateFingerprint();
 		if (featureName != null) {
 			this.features.put(featureName, new Long(featureValue));
 		}
@@ -170,6 +187,7 @@ public abstract class NLGElement {
 	 *            the <code>float</code> value of the feature.
 	 */
 	public void setFeature(String featureName, float featureValue) {
+		invalidateFingerprint();
 		if (featureName != null) {
 			this.features.put(featureName, new Float(featureValue));
 		}
@@ -185,6 +203,7 @@ public abstract class NLGElement {
 	 *            the <code>double</code> value of the feature.
 	 */
 	public void setFeature(String featureName, double featureValue) {
+		invalidateFingerprint();
 		if (featureName != null) {
 			this.features.put(featureName, new Double(featureValue));
 		}
@@ -457,6 +476,8 @@ public abstract class NLGElement {
 	 * @return a <code>Map</code> of <code>String</code>, <code>Object</code>.
 	 */
 	public Map<String, Object> getAllFeatures() {
+		// the map can be modified by the caller
+		invalidateFingerprint();
 		return this.features;
 	}
 
@@ -478,6 +499,23 @@ public abstract class NLGElement {
 		}
 	}
 
+	/**
+	 * Copies all the features of another element into this element, in one
+	 * step. It has the same effect as calling <code>setFeature</code> for
+	 * every feature of the other element, but the map is only resized once
+	 * instead of growing one feature at a time. It is used by the
+	 * constructors that copy the features of an element during realisation.
+	 * 
+	 * @param source
+	 *            the element whose features are copied.
+	 */
+	protected void copyAllFeatures(NLGElement source) {
+		if (source != null && source != this) {
+			invalidateFingerprint();
+			this.features.putAll(source.features);
+		}
+	}
+
 	/**
 	 * Deletes the named feature from the map.
 	 * 
@@ -485,6 +523,7 @@ public abstract class NLGElement {
 	 *            the name of the feature to be removed.
 	 */
 	public void removeFeature(String featureName) {
+		invalidateFingerprint();
 		this.features.remove(featureName);
 	}
 
@@ -492,6 +531,7 @@ public abstract class NLGElement {
 	 * Deletes all the features in the map.
 	 */
 	public void clearAllFeatures() {
+		invalidateFingerprint();
 		this.features.clear();
 	}
 
@@ -523,6 +563,7 @@ public abstract class NLGElement {
 	 *            this element.
 	 */
 	public void setRealisation(String realised) {
+		invalidateFingerprint();
 		this.realisation = realised;
 	}
 
@@ -599,6 +640,8 @@ public abstract class NLGElement {
 	 *         feature names. The set is unordered.
 	 */
 	public Set<String> getAllFeatureNames() {
+		// features can be removed through the key set
+		invalidateFingerprint();
 		return this.features.keySet();
 	}
 
@@ -803,6 +846,68 @@ public abstract class NLGElement {
 		return eq;
 	}
 
+	/**
+	 * <p>
+	 * Returns a stable 64-bit structural fingerprint of this element: a hash
+	 * of its class name, category, realisation and features (for a
+	 * <code>WordElement</code>, also its base form and ID), the elements held
+	 * in its features included, recursively. The parent is not hashed. Only
+	 * the contents of strings, numbers and enum names are used, so the value
+	 * does not change from one JVM run to another.
+	 * </p>
+	 * 
+	 * <p>
+	 * This is not the hash of <code>equals</code>, which compares neither
+	 * the class nor the realisation: elements equal by <code>equals</code>
+	 * may have different fingerprints.
+	 * </p>
+	 * 
+	 * <p>
+	 * The fingerprint is cached on this element and on its children. Reading
+	 * it checks, without hashing anything, that none of them (lexicon words
+	 * included) has been modified through its setters since. Values held in
+	 * a feature (for instance a list) must not be modified in place without
+	 * setting the feature again.
+	 * </p>
+	 * 
+	 * @return the structural fingerprint of this element
+	 */
+	public long getFingerprint() {
+		return ElementFingerprint.of(this);
+	}
+
+	ElementFingerprint.Cached getCachedFingerprint() {
+		return this.fingerprint;
+	}
+
+	void cacheFingerprint(ElementFingerprint.Cached newFingerprint) {
+		this.fingerprint = newFingerprint;
+	}
+
+	void markFingerprinted() {
+		// read first: lexicon words are shared by all the threads
+		if (!this.fingerprinted) {
+			this.fingerprinted = true;
+		}
+	}
+
+	long getModifiedAt() {
+		return this.modifiedAt;
+	}
+
+	/**
+	 * Clears the cached fingerprint of this element and, if it has been
+	 * fingerprinted, records the change, which makes the fingerprints cached
+	 * on the elements holding it stale. Called by every method that modifies
+	 * the element.
+	 */
+	protected void invalidateFingerprint() {
+		if (this.fingerprinted) {
+			this.fingerprint = null;
+			this.modifiedAt = ElementFingerprint.nextModification();
+		}
+	}
+
 	/**
 	 * Realisation method for the syntax stage.
 	 * To be overridden by subclasses.
@@ -886,19 +991,22 @@ public abstract class NLGElement {
 
 	/**
 	 * Realisation method for the morphophonology stage.
-	 * To be overridden by subclasses.
+	 * The tree is flattened once by a <code>MorphophonologyEngine</code>,
+	 * which then applies the rules to each pair of adjacent words.
 	 * 
 	 * @return morphophonologically realised form
 	 * @author vaudrypl
 	 */
 	public NLGElement realiseMorphophonology()
 	{
-		return realiseMorphophonology(null);
+		return new MorphophonologyEngine().realise(this);
 	}
 
 	/**
-	 * Realisation method for the morphophonology stage.
-	 * To be overridden by subclasses.
+	 * Recursive realisation method for the morphophonology stage.
+	 * To be overridden by subclasses. It gives the same result as
+	 * realiseMorphophonology(), but walks the subtrees again at
+	 * every level of the tree.
 	 * 
 	 * @param nextElement	ignored by default
 	 * @return morphophonologically realised form
@@ -1036,10 +1144,6 @@ public abstract class NLGElement {
 		return realisedList;
 	}
 
-	// Morphology rule sets used by realiseMorphology() to inflect the word
-	// instantiated by getMorphologyRuleSet(Language language)
-	private static Map<Language, OrthographyHelperInterface> orthographyHelpers = null; 
-
 	/**
 	 * @return the orthography helper to be used for this element
 	 * @author vaudrypl
@@ -1050,35 +1154,16 @@ public abstract class NLGElement {
 	}
 	
 	/**
-	 * This static method returns the morphology rule set corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * This static method returns the orthography helper corresponding to
+	 * a particular language, as registered in LanguageHelpers.
 	 * 
 	 * @param language
-	 * @return the morphology rule set to be used for this language
+	 * @return the orthography helper to be used for this language
 	 * @author vaudrypl
 	 */
 	public static OrthographyHelperInterface getOrthographyHelper(Language language)
 	{
-		if (orthographyHelpers == null) {
-			orthographyHelpers =
-				new EnumMap<Language,OrthographyHelperInterface>(Language.class); 
-		}
-		OrthographyHelperInterface orthographyHelper = orthographyHelpers.get(language);
-		if (orthographyHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				orthographyHelper = new simplenlg.orthography.english.OrthographyHelper();
-				break;
-			case FRENCH:
-				orthographyHelper = new simplenlg.orthography.french.OrthographyHelper();
-				break;
-			case DUTCH:
-				orthographyHelper = new simplenlg.orthography.dutch.OrthographyHelper();
-				break;
-			}
-			orthographyHelpers.put(language, orthographyHelper);
-		}
-		return orthographyHelper;
+		return LanguageHelpers.forLanguage(language).getOrthographyHelper();
 	}
 
 	/**
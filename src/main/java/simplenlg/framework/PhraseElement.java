@@ -19,7 +19,6 @@
 package simplenlg.framework;
 
 import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -48,12 +47,6 @@ import simplenlg.syntax.*;
  */
 public class PhraseElement extends NLGElement {
 
-	// added by vaudrypl
-	private static Map<Language, AbstractClauseHelper> clauseHelpers = null; 
-	private static Map<Language, AbstractNounPhraseHelper> nounPhraseHelpers = null; 
-	private static Map<Language, GenericPhraseHelper> phraseHelpers = null; 
-	private static Map<Language, AbstractVerbPhraseHelper> verbPhraseHelpers = null; 
-
 	/**
 	 * Creates a new phrase of the given type.
 	 * 
@@ -78,7 +71,7 @@ public class PhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the clause helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language, as registered in LanguageHelpers.
 	 * 
 	 * @param language
 	 * @return the clause helper to be used to do the syntax of this language
@@ -86,26 +79,7 @@ public class PhraseElement extends NLGElement {
 	 */
 	public static AbstractClauseHelper getClauseHelper(Language language)
 	{
-		if (clauseHelpers == null) {
-			clauseHelpers =
-				new EnumMap<Language,AbstractClauseHelper>(Language.class); 
-		}
-		AbstractClauseHelper clauseHelper = clauseHelpers.get(language);
-		if (clauseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				clauseHelper = new simplenlg.syntax.english.nonstatic.ClauseHelper();
-				break;
-			case FRENCH:
-				clauseHelper = new simplenlg.syntax.french.ClauseHelper();
-				break;
-			case DUTCH:
-				clauseHelper = new simplenlg.syntax.dutch.ClauseHelper();
-				break;
-			}
-			clauseHelpers.put(language, clauseHelper);
-		}
-		return clauseHelper;
+		return LanguageHelpers.forLanguage(language).getClauseHelper();
 	}
 	
 	/**
@@ -119,7 +93,7 @@ public class PhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the noun phrase helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language, as registered in LanguageHelpers.
 	 * 
 	 * @param language
 	 * @return the noun phrase helper to be used to do the syntax of this language
@@ -127,30 +101,7 @@ public class PhraseElement extends NLGElement {
 	 */
 	public static AbstractNounPhraseHelper getNounPhraseHelper(Language language)
 	{
-		if (nounPhraseHelpers == null) {
-			nounPhraseHelpers =
-				new EnumMap<Language,AbstractNounPhraseHelper>(Language.class); 
-		}
-		AbstractNounPhraseHelper nounPhraseHelper =
-			nounPhraseHelpers.get(language);
-		if (nounPhraseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				nounPhraseHelper =
-					new simplenlg.syntax.english.nonstatic.NounPhraseHelper();
-				break;
-			case FRENCH:
-				nounPhraseHelper =
-					new simplenlg.syntax.french.NounPhraseHelper();
-				break;
-			case DUTCH:
-				nounPhraseHelper =
-					new simplenlg.syntax.dutch.NounPhraseHelper();
-				break;
-			}
-			nounPhraseHelpers.put(language, nounPhraseHelper);
-		}
-		return nounPhraseHelper;
+		return LanguageHelpers.forLanguage(language).getNounPhraseHelper();
 	}
 
 	/**
@@ -164,7 +115,7 @@ public class PhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the phrase helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language, as registered in LanguageHelpers.
 	 * 
 	 * @param language
 	 * @return the phrase helper to be used to do the syntax of this language
@@ -172,30 +123,7 @@ public class PhraseElement extends NLGElement {
 	 */
 	public static GenericPhraseHelper getPhraseHelper(Language language)
 	{
-		if (phraseHelpers == null) {
-			phraseHelpers =
-				new EnumMap<Language,GenericPhraseHelper>(Language.class); 
-		}
-		GenericPhraseHelper phraseHelper =
-			phraseHelpers.get(language);
-		if (phraseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				phraseHelper =
-					new simplenlg.syntax.english.nonstatic.PhraseHelper();
-				break;
-			case FRENCH:
-				phraseHelper =
-					new simplenlg.syntax.french.PhraseHelper();
-				break;
-			case DUTCH:
-				phraseHelper =
-					new simplenlg.syntax.dutch.PhraseHelper();
-				break;
-			}
-			phraseHelpers.put(language, phraseHelper);
-		}
-		return phraseHelper;
+		return LanguageHelpers.forLanguage(language).getPhraseHelper();
 	}
 
 	/**
@@ -209,7 +137,7 @@ public class PhraseElement extends NLGElement {
 	
 	/**
 	 * This static method returns the verb phrase helper corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language, as registered in LanguageHelpers.
 	 * 
 	 * @param language
 	 * @return the verb phrase helper to be used to do the syntax of this language
@@ -217,30 +145,7 @@ public class PhraseElement extends NLGElement {
 	 */
 	public static AbstractVerbPhraseHelper getVerbPhraseHelper(Language language)
 	{
-		if (verbPhraseHelpers == null) {
-			verbPhraseHelpers =
-				new EnumMap<Language,AbstractVerbPhraseHelper>(Language.class); 
-		}
-		AbstractVerbPhraseHelper verbPhraseHelper =
-			verbPhraseHelpers.get(language);
-		if (verbPhraseHelper == null) {
-			switch (language) {
-			case ENGLISH:
-				verbPhraseHelper =
-					new simplenlg.syntax.english.nonstatic.VerbPhraseHelper();
-				break;
-			case FRENCH:
-				verbPhraseHelper =
-					new simplenlg.syntax.french.VerbPhraseHelper();
-				break;
-			case DUTCH:
-				verbPhraseHelper =
-					new simplenlg.syntax.dutch.VerbPhraseHelper();
-				break;
-			}
-			verbPhraseHelpers.put(language, verbPhraseHelper);
-		}
-		return verbPhraseHelper;
+		return LanguageHelpers.forLanguage(language).getVerbPhraseHelper();
 	}
 
 	/**
@@ -739,11 +644,28 @@ public class PhraseElement extends NLGElement {
 		if (getFeatureAsBoolean(Feature.ELIDED).booleanValue()) {
 			return null;
 		}
+		RealisationBudget.checkpoint();
 		
 		NLGElement realisedElement = null;
 
 		ElementCategory category = getCategory();
 
+		// reuse the realisation of an identical noun phrase or
+		// prepositional phrase if a memo is active
+		PhraseMemo memo = null;
+		Object memoKey = null;
+		if (category == PhraseCategory.NOUN_PHRASE
+				|| category == PhraseCategory.PREPOSITIONAL_PHRASE) {
+			memo = PhraseMemo.current();
+			if (memo != null) {
+				memoKey = memo.createKey(this);
+				realisedElement = memo.get(memoKey);
+				if (realisedElement != null) {
+					return realisedElement;
+				}
+			}
+		}
+
 		if (category instanceof PhraseCategory) {
 			switch ((PhraseCategory) category) {
 
@@ -770,6 +692,9 @@ public class PhraseElement extends NLGElement {
 				break;
 			}
 		}
+		if (memo != null && realisedElement != null) {
+			memo.put(memoKey, realisedElement);
+		}
 		return realisedElement;
 	}
 }
@@ -0,0 +1,237 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.framework;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+
+/**
+ * <p>
+ * Remembers the syntactic realisation of noun phrases and prepositional
+ * phrases, so that a constituent that appears several times in a document
+ * or a batch ("de klant", "in Amsterdam") is realised only once.
+ * </p>
+ * 
+ * <p>
+ * A realisation is reused for a phrase with the same fingerprint (see
+ * <code>NLGElement.getFingerprint()</code>) and the same agreement context:
+ * the discourse function, number, gender and person of the phrase, and
+ * whether its parent is passive or negated. The memo keeps a copy of the
+ * realised subtree and returns a new copy every time, because the later
+ * stages of the realisation modify it and depend on its parent. Only
+ * subtrees made of <code>ListElement</code>, <code>InflectedWordElement</code>,
+ * <code>StringElement</code> and <code>WordElement</code> are remembered.
+ * </p>
+ * 
+ * <p>
+ * A memo is active on a thread between <code>enter()</code> and the
+ * matching <code>exit()</code>. Calls can be nested: the realisations of
+ * a whole batch share the memo entered by the outermost call.
+ * </p>
+ */
+public final class PhraseMemo {
+
+	private static final ThreadLocal<PhraseMemo> CURRENT = new ThreadLocal<PhraseMemo>();
+
+	private final Map<Key, NLGElement> realisations = new HashMap<Key, NLGElement>();
+	private int depth = 0;
+	private long hitCount = 0;
+	private long missCount = 0;
+
+	private PhraseMemo() {
+	}
+
+	/**
+	 * Activates the memo of the current thread, creating it if there is none.
+	 * Each call must be followed by a call to <code>exit()</code>.
+	 * 
+	 * @return the active memo
+	 */
+	public static PhraseMemo enter() {
+		PhraseMemo memo = CURRENT.get();
+		if (memo == null) {
+			memo = new PhraseMemo();
+			CURRENT.set(memo);
+		}
+		memo.depth++;
+		return memo;
+	}
+
+	/**
+	 * Deactivates the memo. It is discarded when the outermost
+	 * <code>enter()</code> is exited.
+	 */
+	public void exit() {
+		if (--this.depth <= 0) {
+			this.realisations.clear();
+			CURRENT.remove();
+		}
+	}
+
+	/**
+	 * @return the memo active on the current thread, or null if there is none
+	 */
+	static PhraseMemo current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * @return the number of phrases whose realisation was reused
+	 */
+	public long getHitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * @return the number of phrases that had to be realised
+	 */
+	public long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * Creates the key of a phrase, before it is realised.
+	 */
+	Object createKey(PhraseElement phrase) {
+		NLGElement parent = phrase.getParent();
+		return new Key(phrase.getFingerprint(),
+				phrase.getFeature(InternalFeature.DISCOURSE_FUNCTION),
+				phrase.getFeature(Feature.NUMBER),
+				phrase.getFeature(LexicalFeature.GENDER),
+				phrase.getFeature(Feature.PERSON),
+				parent != null && parent.getFeatureAsBoolean(Feature.PASSIVE),
+				parent != null && (parent.getFeatureAsBoolean(Feature.NEGATED)
+						|| parent.checkIfNeOnlyNegation()));
+	}
+
+	/**
+	 * @return a copy of the realisation remembered for this key, or null
+	 */
+	NLGElement get(Object key) {
+		NLGElement realisation = this.realisations.get(key);
+		if (realisation == null) {
+			this.missCount++;
+			return null;
+		}
+		this.hitCount++;
+		return copy(realisation);
+	}
+
+	/**
+	 * Remembers a copy of the realisation, if it can be copied.
+	 */
+	void put(Object key, NLGElement realisation) {
+		NLGElement copy = copy(realisation);
+		if (copy != null) {
+			this.realisations.put((Key) key, copy);
+		}
+	}
+
+	/**
+	 * Copies a syntactically realised subtree. Lexicon words are shared.
+	 * 
+	 * @return the copy, or null if the subtree contains other elements
+	 */
+	private static NLGElement copy(NLGElement element) {
+		NLGElement copy;
+		if (element instanceof WordElement) {
+			return element;
+		} else if (element instanceof ListElement) {
+			List<NLGElement> components = ((ListElement) element).getChildren();
+			List<NLGElement> copiedComponents = null;
+			if (components != null) {
+				copiedComponents = new ArrayList<NLGElement>(components.size());
+				for (NLGElement component : components) {
+					NLGElement copiedComponent = copy(component);
+					if (copiedComponent == null) return null;
+					copiedComponents.add(copiedComponent);
+				}
+			}
+			copy = new ListElement();
+			copy.copyAllFeatures(element);
+			if (copiedComponents != null) {
+				((ListElement) copy).setComponents(copiedComponents);
+			}
+		} else if (element instanceof InflectedWordElement) {
+			copy = new InflectedWordElement((WordElement) null);
+			copy.copyAllFeatures(element);
+		} else if (element instanceof StringElement) {
+			copy = new StringElement(element.getRealisation());
+			copy.copyAllFeatures(element);
+		} else {
+			return null;
+		}
+		copy.setCategory(element.getCategory());
+		// setFactory(null) would load the default lexicon
+		if (element.getFactory() != null) {
+			copy.setFactory(element.getFactory());
+		}
+		return copy;
+	}
+
+	private static final class Key {
+		private final long fingerprint;
+		private final Object function;
+		private final Object number;
+		private final Object gender;
+		private final Object person;
+		private final boolean passiveParent;
+		private final boolean negatedParent;
+
+		Key(long fingerprint, Object function, Object number, Object gender,
+				Object person, boolean passiveParent, boolean negatedParent) {
+			this.fingerprint = fingerprint;
+			this.function = function;
+			this.number = number;
+			this.gender = gender;
+			this.person = person;
+			this.passiveParent = passiveParent;
+			this.negatedParent = negatedParent;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (this.fingerprint ^ (this.fingerprint >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			return this.fingerprint == other.fingerprint
+					&& equal(this.function, other.function)
+					&& equal(this.number, other.number)
+					&& equal(this.gender, other.gender)
+					&& equal(this.person, other.person)
+					&& this.passiveParent == other.passiveParent
+					&& this.negatedParent == other.negatedParent;
+		}
+
+		private static boolean equal(Object a, Object b) {
+			return a == null ? b == null : a.equals(b);
+		}
+	}
+}
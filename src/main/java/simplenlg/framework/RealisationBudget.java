@@ -0,0 +1,177 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.framework;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Limits the work done by one realisation, so that a pathological spec
+ * (deeply nested coordinations, huge lists of complements...) cannot hold a
+ * thread for seconds. A budget has a maximum duration and a maximum number
+ * of nodes, either of which can be unlimited.
+ * </p>
+ * 
+ * <p>
+ * A budget is active on a thread between <code>enter()</code> and the
+ * matching <code>exit()</code>, as <code>Realiser</code> does when it is
+ * given one. The realisation calls <code>checkpoint()</code> for every
+ * phrase, coordination and inflected word it realises and for every pair of
+ * phrases an aggregation rule compares, and between its stages. Once the
+ * budget is spent, the next checkpoint throws a
+ * <code>RealisationBudgetExceededException</code>. Without an active budget
+ * a checkpoint only reads a thread-local variable.
+ * </p>
+ * 
+ * <p>
+ * Calls can be nested: the inner calls use the budget entered by the
+ * outermost one. A budget itself is immutable and can be shared.
+ * </p>
+ */
+public final class RealisationBudget {
+
+	private static final ThreadLocal<Tracker> CURRENT = new ThreadLocal<Tracker>();
+
+	/** A budget without limits. */
+	public static final RealisationBudget UNLIMITED = new RealisationBudget(Long.MAX_VALUE,
+			Long.MAX_VALUE);
+
+	private final long maxNanos;
+	private final long maxNodes;
+
+	/**
+	 * @param maxNanos
+	 *            the maximum duration of a realisation, in nanoseconds, or
+	 *            Long.MAX_VALUE
+	 * @param maxNodes
+	 *            the maximum number of checkpoints of a realisation, or
+	 *            Long.MAX_VALUE
+	 */
+	public RealisationBudget(long maxNanos, long maxNodes) {
+		if (maxNanos <= 0 || maxNodes <= 0) {
+			throw new IllegalArgumentException("Budget limits must be positive"); //$NON-NLS-1$
+		}
+		this.maxNanos = maxNanos;
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * @param maxMillis
+	 * @return a budget limiting only the duration of a realisation
+	 */
+	public static RealisationBudget ofMillis(long maxMillis) {
+		return new RealisationBudget(TimeUnit.MILLISECONDS.toNanos(maxMillis), Long.MAX_VALUE);
+	}
+
+	/**
+	 * @param maxNodes
+	 * @return a budget limiting only the number of nodes realised
+	 */
+	public static RealisationBudget ofNodes(long maxNodes) {
+		return new RealisationBudget(Long.MAX_VALUE, maxNodes);
+	}
+
+	/**
+	 * @return the maximum duration of a realisation, in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return this.maxNanos;
+	}
+
+	/**
+	 * @return the maximum number of nodes of a realisation
+	 */
+	public long getMaxNodes() {
+		return this.maxNodes;
+	}
+
+	/**
+	 * Starts spending this budget on the current thread, unless a budget is
+	 * already active. Each call must be followed by a call to
+	 * <code>exit()</code> on the returned tracker.
+	 * 
+	 * @return the active tracker
+	 */
+	public Tracker enter() {
+		Tracker tracker = CURRENT.get();
+		if (tracker == null) {
+			tracker = new Tracker(this);
+			CURRENT.set(tracker);
+		}
+		tracker.depth++;
+		return tracker;
+	}
+
+	/**
+	 * Counts one node against the budget active on the current thread, if
+	 * any.
+	 * 
+	 * @throws RealisationBudgetExceededException
+	 *             if the budget is spent
+	 */
+	public static void checkpoint() {
+		Tracker tracker = CURRENT.get();
+		if (tracker != null) {
+			tracker.charge();
+		}
+	}
+
+	/**
+	 * The spending of a budget by the realisations of a thread.
+	 */
+	public static final class Tracker {
+		private final RealisationBudget budget;
+		private final long start = System.nanoTime();
+		private long nodes = 0;
+		private int depth = 0;
+
+		private Tracker(RealisationBudget budget) {
+			this.budget = budget;
+		}
+
+		void charge() {
+			this.nodes++;
+			long elapsed = System.nanoTime() - this.start;
+			if (this.nodes > this.budget.maxNodes) {
+				throw new RealisationBudgetExceededException(false, this.nodes, elapsed);
+			}
+			if (elapsed > this.budget.maxNanos) {
+				throw new RealisationBudgetExceededException(true, this.nodes, elapsed);
+			}
+		}
+
+		/**
+		 * @return the number of nodes counted so far
+		 */
+		public long getNodes() {
+			return this.nodes;
+		}
+
+		/**
+		 * Stops spending the budget. It is discarded when the outermost
+		 * <code>enter()</code> is exited.
+		 */
+		public void exit() {
+			if (--this.depth <= 0) {
+				CURRENT.remove();
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.framework;
+
+/**
+ * Thrown when a realisation has spent its <code>RealisationBudget</code>.
+ * The element being realised may have been partly modified, as with any
+ * other exception thrown by the realisation.
+ */
+public class RealisationBudgetExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final boolean timeExceeded;
+	private final long nodes;
+	private final long elapsedNanos;
+
+	/**
+	 * @param timeExceeded
+	 *            true if the duration was exceeded, false if the number of
+	 *            nodes was
+	 * @param nodes
+	 *            the number of nodes counted
+	 * @param elapsedNanos
+	 *            the time spent
+	 */
+	public RealisationBudgetExceededException(boolean timeExceeded, long nodes, long elapsedNanos) {
+		super((timeExceeded ? "Realisation deadline exceeded after " //$NON-NLS-1$
+				: "Realisation node budget exceeded after ") //$NON-NLS-1$
+				+ nodes + " nodes and " + (elapsedNanos / 1000) + "us"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.timeExceeded = timeExceeded;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return true if the duration was exceeded, false if the number of
+	 *         nodes was
+	 */
+	public boolean isTimeExceeded() {
+		return this.timeExceeded;
+	}
+
+	/**
+	 * @return the number of nodes counted when the budget ran out
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * @return the time spent when the budget ran out, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+}
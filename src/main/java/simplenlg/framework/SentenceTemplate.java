@@ -0,0 +1,306 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.framework;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Person;
+
+/**
+ * <p>
+ * A sentence shape compiled once and realised many times with different
+ * fillers, such as "&lt;subject&gt; heeft &lt;amount&gt; betaald op
+ * &lt;date&gt;". The specification is written with <code>TemplateSlot</code>s
+ * where the fillers go, and <code>compile()</code> performs its syntax and
+ * morphology stages once: the word order, the agreement of the verb with
+ * the slots and the inflection of all the other words are fixed in the
+ * resulting plan.
+ * </p>
+ * 
+ * <p>
+ * Filling the plan only realises the fillers (syntax and morphology of
+ * each filler, in the function of its slot) and performs the
+ * morphophonology and orthography stages on a copy of the plan. The result
+ * is the same as the realisation of the specification with the fillers in
+ * place of the slots, as long as the fillers have the agreement features of
+ * their slots.
+ * </p>
+ * 
+ * <p>
+ * A template is not modified when it is filled, so it can be used by
+ * several threads at the same time. The elements given as fillers are
+ * realised, and must not be used again.
+ * </p>
+ */
+public final class SentenceTemplate {
+
+	/** The features of a slot that the rest of the sentence agrees with. */
+	private static final String[] AGREEMENT_FEATURES = {
+		Feature.NUMBER, Feature.PERSON, LexicalFeature.GENDER };
+
+	private final NLGElement plan;
+	private final Map<String, TemplateSlot> slots;
+
+	private SentenceTemplate(NLGElement plan, Map<String, TemplateSlot> slots) {
+		this.plan = plan;
+		this.slots = Collections.unmodifiableMap(slots);
+	}
+
+	/**
+	 * Compiles a specification containing slots into a template. As with
+	 * <code>Realiser.realiseSentence()</code>, an element that is not a
+	 * <code>DocumentElement</code> is realised as a sentence. The
+	 * specification is realised, and must not be used again.
+	 * 
+	 * @param specification
+	 *            the specification, with <code>TemplateSlot</code>s
+	 * @return the compiled template
+	 * @throws IllegalArgumentException
+	 *             if the specification is realised as nothing, or if two
+	 *             slots have the same name
+	 */
+	public static SentenceTemplate compile(NLGElement specification) {
+		NLGElement sentence = specification;
+		if (!(specification instanceof DocumentElement)) {
+			DocumentElement wrapper = new DocumentElement(DocumentCategory.SENTENCE, null,
+					specification.getFactory());
+			wrapper.addComponent(specification);
+			sentence = wrapper;
+		}
+		NLGElement postSyntax = sentence.realiseSyntax();
+		NLGElement plan = postSyntax != null ? postSyntax.realiseMorphology() : null;
+		if (plan == null) {
+			throw new IllegalArgumentException("The specification is realised as nothing"); //$NON-NLS-1$
+		}
+		Map<String, TemplateSlot> slots = new LinkedHashMap<String, TemplateSlot>();
+		collectSlots(plan, slots);
+		return new SentenceTemplate(plan, slots);
+	}
+
+	private static void collectSlots(NLGElement element, Map<String, TemplateSlot> slots) {
+		if (element instanceof TemplateSlot) {
+			TemplateSlot slot = (TemplateSlot) element;
+			if (slots.put(slot.getName(), slot) != null) {
+				throw new IllegalArgumentException("Two slots are named " + slot.getName()); //$NON-NLS-1$
+			}
+			return;
+		}
+		List<NLGElement> children = element.getChildren();
+		if (children != null) {
+			for (NLGElement child : children) {
+				if (child != null) {
+					collectSlots(child, slots);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the names of the slots of the template, in the order of the
+	 *         realised sentence
+	 */
+	public Set<String> getSlotNames() {
+		return this.slots.keySet();
+	}
+
+	/**
+	 * @param name
+	 *            the name of a slot
+	 * @return the slot, or null if the template has no slot of that name
+	 */
+	public TemplateSlot getSlot(String name) {
+		return this.slots.get(name);
+	}
+
+	/**
+	 * Fills the slots of the template and realises the result up to the
+	 * orthography stage. The formatting is left to the caller, see
+	 * <code>Realiser.realiseSentence(SentenceTemplate, Map)</code>.
+	 * 
+	 * @param fillers
+	 *            a filler for every slot, by slot name: an
+	 *            <code>NLGElement</code>, or any other object used as canned
+	 *            text
+	 * @return the realised sentence
+	 * @throws IllegalArgumentException
+	 *             if a slot has no filler, if there is a filler for a slot
+	 *             the template does not have, or if a filler does not have
+	 *             the type or the agreement features of its slot
+	 */
+	public NLGElement fill(Map<String, ?> fillers) {
+		for (String name : fillers.keySet()) {
+			if (!this.slots.containsKey(name)) {
+				throw new IllegalArgumentException("The template has no slot named " + name); //$NON-NLS-1$
+			}
+		}
+		NLGElement filled = instantiate(this.plan, fillers);
+		NLGElement postMorphophonology = filled != null ? filled.realiseMorphophonology() : null;
+		return postMorphophonology != null ? postMorphophonology.realiseOrthography() : null;
+	}
+
+	/**
+	 * Copies the plan, replacing the slots with their realised fillers. The
+	 * copy can be modified by the later stages without changing the plan.
+	 */
+	private static NLGElement instantiate(NLGElement element, Map<String, ?> fillers) {
+		if (element instanceof TemplateSlot) {
+			TemplateSlot slot = (TemplateSlot) element;
+			return realiseFiller(slot, fillers.get(slot.getName()));
+
+		} else if (element instanceof DocumentElement) {
+			DocumentElement document = new DocumentElement(
+					(DocumentCategory) element.getCategory(),
+					((DocumentElement) element).getTitle());
+			copyFactory(element, document);
+			document.copyAllFeatures(element);
+			document.setComponents(instantiate(element.getChildren(), fillers));
+			return document;
+
+		} else if (element instanceof ListElement) {
+			ListElement list = new ListElement(element);
+			list.setComponents(instantiate(element.getChildren(), fillers));
+			return list;
+
+		} else if (element instanceof CoordinatedPhraseElement) {
+			CoordinatedPhraseElement coordination = new CoordinatedPhraseElement(
+					(CoordinatedPhraseElement) element);
+			List<NLGElement> coordinates = instantiate(element.getChildren(), fillers);
+			coordination.clearCoordinates();
+			for (NLGElement coordinate : coordinates) {
+				coordination.addCoordinate(coordinate);
+			}
+			return coordination;
+
+		} else if (element instanceof StringElement) {
+			StringElement word = new StringElement(element.getRealisation());
+			word.copyAllFeatures(element);
+			word.setCategory(element.getCategory());
+			copyFactory(element, word);
+			return word;
+
+		} else if (element instanceof InflectedWordElement) {
+			InflectedWordElement word = new InflectedWordElement(
+					((InflectedWordElement) element).getBaseForm(), null);
+			word.copyAllFeatures(element);
+			word.setCategory(element.getCategory());
+			word.setRealisation(element.getRealisation());
+			copyFactory(element, word);
+			return word;
+
+		} else if (element instanceof WordElement) {
+			WordElement source = (WordElement) element;
+			WordElement word = new WordElement(source.getBaseForm(), null, source.getId(),
+					source.getLexicon());
+			word.copyAllFeatures(element);
+			word.setCategory(element.getCategory());
+			word.setRealisation(element.getRealisation());
+			copyFactory(element, word);
+			return word;
+
+		} else {
+			// the later stages set the parent of the elements they are given
+			throw new IllegalStateException("Cannot copy a " + element.getClass().getName() //$NON-NLS-1$
+					+ " of the plan"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * setFactory(null) would create a new factory and load the default
+	 * lexicon, so elements without a factory are left without one.
+	 */
+	private static void copyFactory(NLGElement source, NLGElement copy) {
+		if (source.getFactory() != null) {
+			copy.setFactory(source.getFactory());
+		}
+	}
+
+	private static List<NLGElement> instantiate(List<NLGElement> elements, Map<String, ?> fillers) {
+		List<NLGElement> copies = new ArrayList<NLGElement>(elements != null ? elements.size() : 0);
+		if (elements != null) {
+			for (NLGElement element : elements) {
+				NLGElement copy = element != null ? instantiate(element, fillers) : null;
+				if (copy != null) {
+					copies.add(copy);
+				}
+			}
+		}
+		return copies;
+	}
+
+	/**
+	 * Checks a filler against its slot and realises it in the function of
+	 * the slot.
+	 */
+	private static NLGElement realiseFiller(TemplateSlot slot, Object filler) {
+		NLGElement element;
+		if (filler instanceof NLGElement) {
+			element = (NLGElement) filler;
+		} else if (filler != null) {
+			element = new StringElement(filler.toString());
+		} else {
+			throw new IllegalArgumentException("No filler for slot " + slot.getName()); //$NON-NLS-1$
+		}
+
+		if (slot.getType() != null && !element.isA(slot.getType())) {
+			throw new IllegalArgumentException("Slot " + slot.getName() + " needs a " //$NON-NLS-1$ //$NON-NLS-2$
+					+ slot.getType() + ", not a " + element.getCategory()); //$NON-NLS-1$
+		}
+		for (String feature : AGREEMENT_FEATURES) {
+			if (slot.hasFeature(feature) && !agrees(feature, slot.getFeature(feature),
+					element.getFeature(feature))) {
+				throw new IllegalArgumentException("Slot " + slot.getName() + " was compiled with " //$NON-NLS-1$ //$NON-NLS-2$
+						+ feature + " " + slot.getFeature(feature) + ", not " //$NON-NLS-1$ //$NON-NLS-2$
+						+ element.getFeature(feature));
+			}
+		}
+
+		element.setFeature(InternalFeature.DISCOURSE_FUNCTION,
+				slot.getFeature(InternalFeature.DISCOURSE_FUNCTION));
+		element.setParent(slot.getParent());
+		NLGElement postSyntax = element.realiseSyntax();
+		return postSyntax != null ? postSyntax.realiseMorphology() : null;
+	}
+
+	/**
+	 * A filler without a number or person is singular and third person,
+	 * as the syntax stage assumes. The gender is only checked when the
+	 * filler has one.
+	 */
+	private static boolean agrees(String feature, Object slotValue, Object fillerValue) {
+		if (Feature.NUMBER.equals(feature)) {
+			return (slotValue == NumberAgreement.PLURAL) == (fillerValue == NumberAgreement.PLURAL);
+		} else if (Feature.PERSON.equals(feature)) {
+			if (slotValue == null) slotValue = Person.THIRD;
+			if (fillerValue == null) fillerValue = Person.THIRD;
+		} else if (fillerValue == null) {
+			return true;
+		}
+		return slotValue.equals(fillerValue);
+	}
+}
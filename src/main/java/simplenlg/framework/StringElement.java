@@ -19,13 +19,13 @@
 package simplenlg.framework;
 
 import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
 import simplenlg.features.Feature;
 import simplenlg.features.InternalFeature;
 import simplenlg.lexicon.Lexicon;
+import simplenlg.morphophonology.MorphophonologyEngine;
 import simplenlg.morphophonology.MorphophonologyRulesInterface;
 
 /**
@@ -42,10 +42,6 @@ import simplenlg.morphophonology.MorphophonologyRulesInterface;
  */
 public class StringElement extends NLGElement {
 
-	// Morphology rule sets used by realiseMorphophonology() to inflect the word
-	// instantiated by getMorphophonologyRuleSet(Language language)
-	private static Map<Language, MorphophonologyRulesInterface> morphophonologyRuleSets = null; 
-
 	/**
 	 * Constructs a new string element representing some canned text.
 	 * 
@@ -67,9 +63,7 @@ public class StringElement extends NLGElement {
 	 */
 	public StringElement(String form, InflectedWordElement word) {
 		//the StringElement inherits all features from the inflected word
-		for(String feature : word.getAllFeatureNames()) {
-			setFeature(feature, word.getFeature(feature));
-		}
+		copyAllFeatures(word);
 		setCategory(word.getCategory());
 		setFeature(Feature.ELIDED, false);
 		setRealisation(form);
@@ -169,7 +163,7 @@ public class StringElement extends NLGElement {
 	
 	/**
 	 * This static method returns the morphophonology rule set corresponding to
-	 * a particular language and instantiates it if necessary.
+	 * a particular language, as registered in LanguageHelpers.
 	 * 
 	 * @param language
 	 * @return the morphophonology rule set to be used for this language
@@ -177,26 +171,7 @@ public class StringElement extends NLGElement {
 	 */
 	public static MorphophonologyRulesInterface getMorphophonologyRuleSet(Language language)
 	{
-		if (morphophonologyRuleSets == null) {
-			morphophonologyRuleSets =
-				new EnumMap<Language,MorphophonologyRulesInterface>(Language.class); 
-		}
-		MorphophonologyRulesInterface ruleSet = morphophonologyRuleSets.get(language);
-		if (ruleSet == null) {
-			switch (language) {
-			case ENGLISH:
-				ruleSet = new simplenlg.morphophonology.english.MorphophonologyRules();
-				break;
-			case FRENCH:
-				ruleSet = new simplenlg.morphophonology.french.MorphophonologyRules();
-				break;
-			case DUTCH:
-				ruleSet = new simplenlg.morphophonology.dutch.MorphophonologyRules();
-				break;
-			}
-			morphophonologyRuleSets.put(language, ruleSet);
-		}
-		return ruleSet;
+		return LanguageHelpers.forLanguage(language).getMorphophonologyRuleSet();
 	}
 
 	/**
@@ -210,16 +185,9 @@ public class StringElement extends NLGElement {
 	{
 		if (nextElement instanceof StringElement)
 		{
-			StringElement rightWord = (StringElement) nextElement;
-			MorphophonologyRulesInterface leftWordRules = this.getMorphophonologyRuleSet(),
-				rightWordRules = rightWord.getMorphophonologyRuleSet();
 			// Use morphophonology rules from the languages of both words
-			// if they are different. (Those of the left word first,
-			// for no particular reason.)
-			leftWordRules.doMorphophonology(this, rightWord);
-			if (leftWordRules != rightWordRules) {
-				rightWordRules.doMorphophonology(this, rightWord);				
-			}
+			// if they are different.
+			MorphophonologyEngine.applyRules(this, (StringElement) nextElement);
 		}
 		return this;
 	}
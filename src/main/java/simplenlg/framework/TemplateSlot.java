@@ -0,0 +1,89 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.framework;
+
+/**
+ * <p>
+ * A named hole in the specification of a <code>SentenceTemplate</code>, to
+ * be filled with a different element each time the template is realised.
+ * A slot is used like any other element while the specification is built,
+ * for instance as the subject of a clause or the complement of a
+ * preposition.
+ * </p>
+ * 
+ * <p>
+ * The type of the slot is the category of the elements that can fill it,
+ * for instance <code>PhraseCategory.NOUN_PHRASE</code> or
+ * <code>PhraseCategory.CANNED_TEXT</code>. The agreement features of the
+ * slot (<code>Feature.NUMBER</code>, <code>Feature.PERSON</code> and
+ * <code>LexicalFeature.GENDER</code>) are the ones the rest of the sentence
+ * agrees with when the template is compiled, so the fillers must have the
+ * same. For instance a plural subject slot :
+ * </p>
+ * 
+ * <pre>
+ * TemplateSlot subject = new TemplateSlot(&quot;subject&quot;, PhraseCategory.NOUN_PHRASE);
+ * subject.setPlural(true);
+ * clause.setSubject(subject);
+ * </pre>
+ */
+public class TemplateSlot extends StringElement {
+
+	private final String name;
+	private final ElementCategory type;
+
+	/**
+	 * Creates a slot.
+	 * 
+	 * @param name
+	 *            the name of the slot, unique in its template
+	 * @param type
+	 *            the category of the elements that can fill the slot, or
+	 *            null to accept any element
+	 */
+	public TemplateSlot(String name, ElementCategory type) {
+		super("<" + name + ">"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (name == null) {
+			throw new IllegalArgumentException("A template slot needs a name"); //$NON-NLS-1$
+		}
+		this.name = name;
+		this.type = type;
+	}
+
+	/**
+	 * @return the name of the slot
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return the category of the elements that can fill the slot, or null
+	 *         if there is no restriction
+	 */
+	public ElementCategory getType() {
+		return this.type;
+	}
+
+	@Override
+	public String toString() {
+		return "TemplateSlot[" + this.name + ':' + this.type + ']'; //$NON-NLS-1$
+	}
+}
@@ -172,6 +172,7 @@ public class WordElement extends NLGElement {
 	 *            the baseForm to set
 	 */
 	public void setBaseForm(String baseForm) {
+		invalidateFingerprint();
 		this.baseForm = baseForm;
 	}
 
@@ -180,6 +181,7 @@ public class WordElement extends NLGElement {
 	 *            the id to set
 	 */
 	public void setId(String id) {
+		invalidateFingerprint();
 		this.id = id;
 	}
 
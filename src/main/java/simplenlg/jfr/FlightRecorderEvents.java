@@ -0,0 +1,145 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.jfr;
+
+import java.util.List;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.realiser.RealisationStage;
+
+/**
+ * The code of <code>FlightRecording</code> that uses the JFR classes, kept
+ * apart so that they are only loaded when Flight Recorder is available.
+ */
+final class FlightRecorderEvents {
+
+	private FlightRecorderEvents() {
+	}
+
+	/**
+	 * Keeps <code>FlightRecording.isRecording()</code> up to date.
+	 */
+	static void register() {
+		FlightRecorder.addListener(new FlightRecorderListener() {
+			@Override
+			public void recorderInitialized(FlightRecorder recorder) {
+				update(recorder);
+			}
+
+			@Override
+			public void recordingStateChanged(Recording changed) {
+				update(FlightRecorder.getFlightRecorder());
+			}
+		});
+	}
+
+	private static synchronized void update(FlightRecorder recorder) {
+		boolean running = false;
+		for (Recording recording : recorder.getRecordings()) {
+			if (recording.getState() == RecordingState.RUNNING) {
+				running = true;
+				break;
+			}
+		}
+		FlightRecording.setRecording(running);
+	}
+
+	static Object beginRealisation(NLGElement input) {
+		RealisationEvent event = new RealisationEvent();
+		if (!event.isEnabled()) return null;
+		event.language = languageCode(input.getLanguage());
+		event.treeSize = countElements(input);
+		event.begin();
+		return event;
+	}
+
+	static void endRealisation(Object started, NLGElement output, long[] stageNanos) {
+		RealisationEvent event = (RealisationEvent) started;
+		event.end();
+		if (event.shouldCommit()) {
+			event.syntax = stageNanos[RealisationStage.SYNTAX.ordinal()];
+			event.morphology = stageNanos[RealisationStage.MORPHOLOGY.ordinal()];
+			event.morphophonology = stageNanos[RealisationStage.MORPHOPHONOLOGY.ordinal()];
+			event.orthography = stageNanos[RealisationStage.ORTHOGRAPHY.ordinal()];
+			event.formatting = stageNanos[RealisationStage.FORMATTING.ordinal()];
+			event.realisation = output != null ? output.getRealisation() : null;
+			event.commit();
+		}
+	}
+
+	static void lexiconMiss(Lexicon lexicon, String baseForm, LexicalCategory category) {
+		LexiconMissEvent event = new LexiconMissEvent();
+		if (event.shouldCommit()) {
+			event.language = languageCode(lexicon.getLanguage());
+			event.lexicon = lexicon.getClass().getName();
+			event.baseForm = baseForm;
+			event.category = category != null ? category.toString() : null;
+			event.commit();
+		}
+	}
+
+	static Object beginLexiconLoad() {
+		LexiconLoadEvent event = new LexiconLoadEvent();
+		if (!event.isEnabled()) return null;
+		event.begin();
+		return event;
+	}
+
+	static void endLexiconLoad(Object started, Lexicon lexicon, String phase, String source,
+			int wordCount) {
+		LexiconLoadEvent event = (LexiconLoadEvent) started;
+		event.end();
+		if (event.shouldCommit()) {
+			event.language = languageCode(lexicon.getLanguage());
+			event.phase = phase;
+			event.source = source;
+			event.wordCount = wordCount;
+			event.commit();
+		}
+	}
+
+	private static String languageCode(Language language) {
+		return language != null ? language.code : null;
+	}
+
+	/**
+	 * Counts the elements of a tree, the root included.
+	 */
+	private static int countElements(NLGElement element) {
+		int count = 1;
+		List<NLGElement> children = element.getChildren();
+		if (children != null) {
+			for (NLGElement child : children) {
+				if (child != null) {
+					count += countElements(child);
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.jfr;
+
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.lexicon.Lexicon;
+
+/**
+ * <p>
+ * Emits JDK Flight Recorder events about the realisations and the lexicons.
+ * There are three events, each disabled by default and enabled by its
+ * own JFR setting :
+ * </p>
+ * <UL>
+ * <LI><code>simplenlg.Realisation</code> : one per realisation, with the
+ * language, the size of the input tree and the duration of every stage;
+ * <LI><code>simplenlg.LexiconMiss</code> : one every time
+ * <code>Lexicon.lookupWord()</code> finds no word and creates a default one;
+ * <LI><code>simplenlg.LexiconLoad</code> : one for each phase of the
+ * loading of an XML lexicon (parsing the file, indexing the words).
+ * </UL>
+ * 
+ * <p>
+ * For instance :
+ * </p>
+ * <pre>
+ * jcmd &lt;pid&gt; JFR.start +simplenlg.Realisation#enabled=true +simplenlg.Realisation#threshold=1ms
+ * </pre>
+ * 
+ * <p>
+ * When no recording is running, the only cost is the test of a volatile
+ * field: the stages are not timed and no event is created. On a JVM
+ * without Flight Recorder the JFR classes are never loaded.
+ * </p>
+ */
+public final class FlightRecording {
+
+	private static final boolean AVAILABLE = register();
+
+	// true while at least one recording is running, set by the
+	// recorder listener of FlightRecorderEvents
+	private static volatile boolean recording = false;
+
+	private FlightRecording() {
+	}
+
+	private static boolean register() {
+		try {
+			Class.forName("jdk.jfr.FlightRecorder"); //$NON-NLS-1$
+			FlightRecorderEvents.register();
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		} catch (LinkageError e) {
+			return false;
+		} catch (SecurityException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return true if Flight Recorder is available in this JVM
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	/**
+	 * @return true if a recording is running, in which case the other
+	 *         methods of this class can be called
+	 */
+	public static boolean isRecording() {
+		return recording;
+	}
+
+	static void setRecording(boolean running) {
+		recording = running;
+	}
+
+	/**
+	 * Starts a realisation event, if it is enabled.
+	 * 
+	 * @param input
+	 *            the element about to be realised
+	 * @return the event, to be passed to <code>endRealisation()</code>, or
+	 *         null if the event is disabled
+	 */
+	public static Object beginRealisation(NLGElement input) {
+		return FlightRecorderEvents.beginRealisation(input);
+	}
+
+	/**
+	 * Ends and commits a realisation event.
+	 * 
+	 * @param event
+	 *            the event returned by <code>beginRealisation()</code>
+	 * @param output
+	 *            the result of the realisation (may be null)
+	 * @param stageNanos
+	 *            the duration of each stage in nanoseconds, indexed by the
+	 *            ordinal of <code>RealisationStage</code>
+	 */
+	public static void endRealisation(Object event, NLGElement output, long[] stageNanos) {
+		FlightRecorderEvents.endRealisation(event, output, stageNanos);
+	}
+
+	/**
+	 * Commits a lexicon miss event, if it is enabled.
+	 * 
+	 * @param lexicon
+	 *            the lexicon in which the word was looked up
+	 * @param baseForm
+	 *            the base form looked up
+	 * @param category
+	 *            the category looked up
+	 */
+	public static void lexiconMiss(Lexicon lexicon, String baseForm, LexicalCategory category) {
+		FlightRecorderEvents.lexiconMiss(lexicon, baseForm, category);
+	}
+
+	/**
+	 * Starts a lexicon load event, if it is enabled.
+	 * 
+	 * @return the event, to be passed to <code>endLexiconLoad()</code>, or
+	 *         null if the event is disabled
+	 */
+	public static Object beginLexiconLoad() {
+		return FlightRecorderEvents.beginLexiconLoad();
+	}
+
+	/**
+	 * Ends and commits a lexicon load event.
+	 * 
+	 * @param event
+	 *            the event returned by <code>beginLexiconLoad()</code>
+	 * @param lexicon
+	 *            the lexicon being loaded
+	 * @param phase
+	 *            the phase that has just ended, for instance "parse"
+	 * @param source
+	 *            the location of the lexicon
+	 * @param wordCount
+	 *            the number of words loaded so far
+	 */
+	public static void endLexiconLoad(Object event, Lexicon lexicon, String phase,
+			String source, int wordCount) {
+		FlightRecorderEvents.endLexiconLoad(event, lexicon, phase, source, wordCount);
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of the loading of an XML lexicon : "parse" for the reading of
+ * the file, "index" for the creation and indexing of the words.
+ */
+@Name("simplenlg.LexiconLoad") //$NON-NLS-1$
+@Label("Lexicon Load") //$NON-NLS-1$
+@Description("Phase of the loading of a lexicon") //$NON-NLS-1$
+@Category("SimpleNLG") //$NON-NLS-1$
+@Enabled(false)
+@StackTrace(false)
+final class LexiconLoadEvent extends Event {
+
+	@Label("Language") //$NON-NLS-1$
+	String language;
+
+	@Label("Phase") //$NON-NLS-1$
+	String phase;
+
+	@Label("Source") //$NON-NLS-1$
+	String source;
+
+	@Label("Word Count") //$NON-NLS-1$
+	int wordCount;
+}
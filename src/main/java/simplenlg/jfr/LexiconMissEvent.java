@@ -0,0 +1,52 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A word looked up with <code>Lexicon.lookupWord()</code> that is not in the
+ * lexicon, for which a default word is created. Enable the stack trace of
+ * the event to see where the word comes from.
+ */
+@Name("simplenlg.LexiconMiss") //$NON-NLS-1$
+@Label("Lexicon Miss") //$NON-NLS-1$
+@Description("Word looked up in a lexicon that does not contain it") //$NON-NLS-1$
+@Category("SimpleNLG") //$NON-NLS-1$
+@Enabled(false)
+final class LexiconMissEvent extends Event {
+
+	@Label("Language") //$NON-NLS-1$
+	String language;
+
+	@Label("Lexicon") //$NON-NLS-1$
+	String lexicon;
+
+	@Label("Base Form") //$NON-NLS-1$
+	String baseForm;
+
+	@Label("Category") //$NON-NLS-1$
+	String category;
+}
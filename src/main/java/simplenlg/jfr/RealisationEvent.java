@@ -0,0 +1,73 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One realisation by a <code>Realiser</code>. The stages that were not
+ * performed (for instance the morphophonology in the fused pipeline) have a
+ * duration of 0.
+ */
+@Name("simplenlg.Realisation") //$NON-NLS-1$
+@Label("Realisation") //$NON-NLS-1$
+@Description("Realisation of an element, with the duration of each stage") //$NON-NLS-1$
+@Category("SimpleNLG") //$NON-NLS-1$
+@Enabled(false)
+@StackTrace(false)
+final class RealisationEvent extends Event {
+
+	@Label("Language") //$NON-NLS-1$
+	String language;
+
+	@Label("Tree Size") //$NON-NLS-1$
+	@Description("Number of elements in the input tree") //$NON-NLS-1$
+	int treeSize;
+
+	@Label("Syntax") //$NON-NLS-1$
+	@Timespan(Timespan.NANOSECONDS)
+	long syntax;
+
+	@Label("Morphology") //$NON-NLS-1$
+	@Timespan(Timespan.NANOSECONDS)
+	long morphology;
+
+	@Label("Morphophonology") //$NON-NLS-1$
+	@Timespan(Timespan.NANOSECONDS)
+	long morphophonology;
+
+	@Label("Orthography") //$NON-NLS-1$
+	@Timespan(Timespan.NANOSECONDS)
+	long orthography;
+
+	@Label("Formatting") //$NON-NLS-1$
+	@Timespan(Timespan.NANOSECONDS)
+	long formatting;
+
+	@Label("Realisation") //$NON-NLS-1$
+	String realisation;
+}
@@ -24,6 +24,7 @@ import java.util.Map;
 import simplenlg.framework.Language;
 import simplenlg.framework.LexicalCategory;
 import simplenlg.framework.WordElement;
+import simplenlg.jfr.FlightRecording;
 
 /**
  * This is the generic abstract class for a Lexicon. In simplenlg V4, a
@@ -82,6 +83,10 @@ public abstract class Lexicon {
 	// The language of this lexicon.
 	// added by vaudrypl 
 	private final Language language;
+
+	// Incremented every time the contents of the lexicon are replaced,
+	// so that realisations cached with the old contents are not reused.
+	private volatile long version = 0;
 	
 	/****************************************************************************/
 	// constructors and related
@@ -128,6 +133,25 @@ public abstract class Lexicon {
 		return this.language;
 	}
 
+	/**
+	 * Gets the version of the contents of this lexicon. It changes every
+	 * time the lexicon is reloaded, and can be used as part of the key of
+	 * anything computed from the lexicon.
+	 * 
+	 * @return the version of this lexicon
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Increments the version of this lexicon. Subclasses must call it after
+	 * replacing any of the words of the lexicon.
+	 */
+	protected synchronized void incrementVersion() {
+		this.version++;
+	}
+
 	/**
 	 * returns the default built-in lexicon
 	 * 
@@ -137,6 +161,24 @@ public abstract class Lexicon {
 		return new simplenlg.lexicon.english.XMLLexicon();
 	}
 
+	/**
+	 * returns a new instance of the built-in lexicon of a language
+	 * 
+	 * @param language
+	 *            the language of the lexicon
+	 * @return default lexicon of the language
+	 */
+	public static Lexicon getDefaultLexicon(Language language) {
+		switch (language) {
+		case DUTCH:
+			return new simplenlg.lexicon.dutch.XMLLexicon();
+		case FRENCH:
+			return new simplenlg.lexicon.french.XMLLexicon();
+		default:
+			return new simplenlg.lexicon.english.XMLLexicon();
+		}
+	}
+
 	/**
 	 * create a default WordElement. May be overridden by specific types of
 	 * lexicon
@@ -190,8 +232,11 @@ public abstract class Lexicon {
 			return getWordFromVariant(baseForm, category);
 		else if (hasWordByID(baseForm))
 			return getWordByID(baseForm);
-		else
+		else {
+			if (FlightRecording.isRecording())
+				FlightRecording.lexiconMiss(this, baseForm, category);
 			return createWord(baseForm, category);
+		}
 	}
 
 	/**
@@ -121,6 +121,7 @@ public class MultipleLexicon extends Lexicon {
 	 */
 	public void addInitialLexicon(Lexicon lex) {
 		lexiconList.add(0, lex);
+		incrementVersion();
 	}
 
 	/** add lexicon at end of list (is searched last)
@@ -130,6 +131,21 @@ public class MultipleLexicon extends Lexicon {
 		// corrected by vaudrypl
 		// lexiconList.add(0, lex);
 		lexiconList.add(lex);
+		incrementVersion();
+	}
+
+	/**
+	 * The version of a multi lexicon changes when a lexicon is added
+	 * or when one of its lexicons is reloaded.
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getVersion()
+	 */
+	@Override
+	public long getVersion() {
+		long version = super.getVersion();
+		for (Lexicon lex: lexiconList)
+			version += lex.getVersion();
+		return version;
 	}
 
 	/**
@@ -144,6 +160,7 @@ public class MultipleLexicon extends Lexicon {
 	 */
 	public void setAlwaysSearchAll(boolean alwaysSearchAll) {
 		this.alwaysSearchAll = alwaysSearchAll;
+		incrementVersion();
 	}
 
 	/**********************************************************************/
@@ -26,13 +26,15 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -46,6 +48,7 @@ import simplenlg.features.LexicalFeature;
 import simplenlg.framework.Language;
 import simplenlg.framework.LexicalCategory;
 import simplenlg.framework.WordElement;
+import simplenlg.jfr.FlightRecording;
 
 /**
  * This class loads words from an XML lexicon. All features specified in the
@@ -80,6 +83,13 @@ public class XMLLexicon extends Lexicon {
 	// added by vaudrypl
 	protected Map<LexicalCategory, List<WordElement>> indexByCategory; // map from variants
 
+	// location the lexicon was loaded from, used to reload it
+	private URI lexiconURI;
+
+	// number of words created for unknown base forms and added to the lexicon
+	private int createdWords = 0;
+	private int maxCreatedWords = Integer.MAX_VALUE;
+
 	
 	/**********************************************************************/
 	// constructors
@@ -246,19 +256,29 @@ public class XMLLexicon extends Lexicon {
 	 * @param uri
 	 */
 	private void createLexicon(URI lexiconURI) {
+		this.lexiconURI = lexiconURI;
 		// initialise objects
-		words = new HashSet<WordElement>();
-		indexByID = new HashMap<String, WordElement>();
-		indexByBase = new HashMap<String, List<WordElement>>();
-		indexByVariant = new HashMap<String, List<WordElement>>();
+		// the indices are concurrent so that words can be created while
+		// other threads are looking words up
+		words = Collections.newSetFromMap(new ConcurrentHashMap<WordElement, Boolean>());
+		indexByID = new ConcurrentHashMap<String, WordElement>();
+		indexByBase = new ConcurrentHashMap<String, List<WordElement>>();
+		indexByVariant = new ConcurrentHashMap<String, List<WordElement>>();
 		// added by vaudrypl
-		indexByCategory = new EnumMap<LexicalCategory, List<WordElement>>(LexicalCategory.class);
+		indexByCategory = Collections.synchronizedMap(
+				new EnumMap<LexicalCategory, List<WordElement>>(LexicalCategory.class));
+		createdWords = 0;
 
 		try {
 			DocumentBuilderFactory factory = DocumentBuilderFactory
 					.newInstance();
 			DocumentBuilder builder = factory.newDocumentBuilder();
+			Object loadEvent = FlightRecording.isRecording() ? FlightRecording.beginLexiconLoad() : null;
 			Document doc = builder.parse(lexiconURI.toString());
+			if (loadEvent != null) {
+				FlightRecording.endLexiconLoad(loadEvent, this, "parse", lexiconURI.toString(), 0); //$NON-NLS-1$
+				loadEvent = FlightRecording.beginLexiconLoad();
+			}
 
 			if (doc != null) {
 				Element lexRoot = doc.getDocumentElement();
@@ -275,11 +295,36 @@ public class XMLLexicon extends Lexicon {
 					}
 				}
 			}
+			if (loadEvent != null) {
+				FlightRecording.endLexiconLoad(loadEvent, this, "index", lexiconURI.toString(), words.size()); //$NON-NLS-1$
+			}
 		} catch (Exception ex) {
 			System.out.println(ex.toString());
 		}
 	}
 
+	/**
+	 * Loads the lexicon again from the location it was first loaded from,
+	 * replacing all its words, and increments its version. Words created
+	 * since the lexicon was loaded are discarded.
+	 */
+	public synchronized void reload() {
+		if (this.lexiconURI != null) {
+			createLexicon(this.lexiconURI);
+			addSpecialCases();
+			incrementVersion();
+		}
+	}
+
+	/**
+	 * Adds the words and variants that cannot be described in the XML file.
+	 * Called by <code>reload()</code>, and by the constructors of the
+	 * subclasses that need it. The default method does nothing.
+	 */
+	protected void addSpecialCases() {
+		// default method does nothing
+	}
+
 	/**
 	 * create a simplenlg WordElement from a Word node in a lexicon XML file
 	 * 
@@ -393,7 +438,7 @@ public class XMLLexicon extends Lexicon {
 		// shouldn't really need is, as all words have category
 		if (category != null) {
 			if (!indexByCategory.containsKey(category)) {
-				indexByCategory.put(category, new ArrayList<WordElement>());
+				indexByCategory.put(category, new CopyOnWriteArrayList<WordElement>());
 			}
 			indexByCategory.get(category).add(word);
 		}
@@ -416,6 +461,8 @@ public class XMLLexicon extends Lexicon {
 
 	/**
 	 * convenience method to update an index
+	 * The list of words is replaced rather than modified, so that
+	 * it can be read by other threads at the same time.
 	 * 
 	 * @param word
 	 * @param base
@@ -423,9 +470,55 @@ public class XMLLexicon extends Lexicon {
 	 */
 	protected /*private*/ void updateIndex(WordElement word, String base,
 			Map<String, List<WordElement>> index) {
-		if (!index.containsKey(base))
-			index.put(base, new ArrayList<WordElement>());
-		index.get(base).add(word);
+		List<WordElement> oldList = index.get(base);
+		List<WordElement> newList;
+		if (oldList == null) {
+			newList = new ArrayList<WordElement>(1);
+		} else {
+			newList = new ArrayList<WordElement>(oldList.size() + 1);
+			newList.addAll(oldList);
+		}
+		newList.add(word);
+		index.put(base, newList);
+	}
+
+	/**
+	 * Sets the number of words created for unknown base forms from now on
+	 * (the words created while the lexicon is loaded are not counted) that
+	 * are added to the lexicon. Beyond it, such words are still created but
+	 * not added, so that a lexicon fed with untrusted input (a server for
+	 * instance) does not grow without limit. Unlimited by default.
+	 * 
+	 * @param maxCreatedWords
+	 *            the maximum number of created words kept, 0 for none
+	 */
+	public synchronized void setMaxCreatedWords(int maxCreatedWords) {
+		if (maxCreatedWords < 0) {
+			throw new IllegalArgumentException("maxCreatedWords must not be negative: " //$NON-NLS-1$
+					+ maxCreatedWords);
+		}
+		this.maxCreatedWords = maxCreatedWords;
+		this.createdWords = 0;
+	}
+
+	/**
+	 * @return the maximum number of words created for unknown base forms
+	 *         that are added to the lexicon
+	 */
+	public synchronized int getMaxCreatedWords() {
+		return this.maxCreatedWords;
+	}
+
+	/**
+	 * Adds a word created for an unknown base form to the lexicon, unless
+	 * there are already <code>maxCreatedWords</code> of them.
+	 */
+	private void addCreatedWord(WordElement newWord) {
+		if (this.createdWords < this.maxCreatedWords) {
+			this.createdWords++;
+			words.add(newWord);
+			IndexWord(newWord);
+		}
 	}
 
 	/**
@@ -439,10 +532,13 @@ public class XMLLexicon extends Lexicon {
 	 * @author vaudrypl
 	 */
 	@Override
-	protected WordElement createWord(String baseForm, LexicalCategory category) {
+	protected synchronized WordElement createWord(String baseForm, LexicalCategory category) {
+		// another thread may have created it since it was looked up
+		List<WordElement> created = getWords(baseForm, category);
+		if (!created.isEmpty()) return created.get(0);
+
 		WordElement newWord = super.createWord(baseForm, category);
-		words.add(newWord);
-		IndexWord(newWord);
+		addCreatedWord(newWord);
 		return newWord; // return default
 		// WordElement of this
 		// baseForm, category
@@ -457,10 +553,13 @@ public class XMLLexicon extends Lexicon {
 	 * @author vaudrypl
 	 */
 	@Override
-	protected WordElement createWord(String baseForm) {
+	protected synchronized WordElement createWord(String baseForm) {
+		// another thread may have created it since it was looked up
+		List<WordElement> created = getWords(baseForm, LexicalCategory.ANY);
+		if (!created.isEmpty()) return created.get(0);
+
 		WordElement newWord = super.createWord(baseForm);
-		words.add(newWord);
-		IndexWord(newWord);
+		addCreatedWord(newWord);
 		return newWord;  // return default WordElement of this
 		// baseForm
 	}
@@ -83,6 +83,7 @@ public class XMLLexicon extends simplenlg.lexicon.XMLLexicon {
 	 * moved from simplenlg.lexicon.XMLLexicon
 	 * 
 	 */
+	@Override
 	protected void addSpecialCases() {
 		// add variants of "be"
 		WordElement be = getWord("be", LexicalCategory.VERB);
@@ -29,6 +29,7 @@ import simplenlg.morphology.MorphologyRulesInterface;
 import simplenlg.syntax.dutch.VerbPhraseHelper;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 import static simplenlg.features.NumberAgreement.SINGULAR;
 import static simplenlg.syntax.dutch.VerbPhraseHelper.getSeparableCompoundVerb;
@@ -46,6 +47,8 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 	
 	public static final String a_o_regex = "\\A[aäàâoô].*";
 
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
 	/**
 	 * This method performs the morphology for determiners.
 	 * It returns a StringElement made from the baseform, or
@@ -179,40 +182,27 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 		}
 
 		// Plural, common gender, definite determiner or possesive pronoun, therefore, add -e.
-		int length = baseForm.length();
         String specifier = parent.getFeatureAsString(InternalFeature.SPECIFIER);
-        String regexCVVC = ".*" // anything, followed by a consonant
-                + "([aeiouAEIOU])\\1" // two repeated vowels
-                + "[b-df-hj-np-tv-xzB-DF-HJ-NP-TV-XZ]";
-
 
         if (realised == null) {
 
+            int tail = Spelling.classify(baseForm);
             if (Inflection.REGULAR_DOUBLE.equals(patternValue)) {
-                realised =  baseForm + baseForm.charAt(baseForm.length() - 1);
-            } else if (baseForm.matches(regexCVVC)
+                realised = Spelling.doubleConsonant(baseForm);
+            } else if (Spelling.is(tail, Spelling.LONG_VOWEL_CLOSED)
 					&& (parent.isPlural()
 					|| parent.getFeature(LexicalFeature.GENDER) == Gender.COMMON
 					|| (!"een".equals(specifier)
 						&& ! "geen".equals(specifier)))
 					&& parent.getCategory() != PhraseCategory.VERB_PHRASE) {
-                String lastConsonant = baseForm.substring(length -1);
-                String front = baseForm.substring(0, length - 2);
-                realised = front + lastConsonant;
+                realised = Spelling.halveVowel(baseForm);
             } else {
                 realised = baseForm;
             }
 
-			String regexVCC = ".*"
-					+ "[aeiouyAEIOUY]"
-					+ "[b-df-hj-np-tv-xzB-DF-HJ-NP-TV-XZ]{2,}"; // ending in two or more consonants
-
-			if (!baseForm.matches(regexVCC)) {
-				if (baseForm.endsWith("f")) {
-					realised = realised.substring(0, realised.length() - 1) + "v";
-				} else if (baseForm.endsWith("s")) {
-					realised = realised.substring(0, realised.length() - 1) + "z";
-				}
+			// not ending in two or more consonants
+			if (!Spelling.is(tail, Spelling.CONSONANT_CLUSTER)) {
+				realised = Spelling.voice(realised);
 			}
         }
 
@@ -222,10 +212,8 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 						&& ! "geen".equals(specifier)))
                     && parent.getCategory() != PhraseCategory.VERB_PHRASE
                     && !realised.endsWith("e")) {
-            if (realised.matches(regexCVVC)) {
-                String lastConsonant = realised.substring(realised.length() - 1);
-                String front = realised.substring(0, realised.length() - 2);
-                realised = front + lastConsonant;
+            if (Spelling.is(Spelling.classify(realised), Spelling.LONG_VOWEL_CLOSED)) {
+                realised = Spelling.halveVowel(realised);
             }
 
             realised += "e";
@@ -236,11 +224,7 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 			}
 
 			// roll back f/v and s/z changes
-            if (realised.endsWith("v")) {
-                realised = realised.substring(0, realised.length() - 1) + "f";
-            } else if (realised.endsWith("z")) {
-                realised = realised.substring(0, realised.length() - 1) + "s";
-            }
+            realised = Spelling.devoice(realised);
         }
 
 		realised += getParticle(element);
@@ -260,11 +244,7 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
     protected void checkIfRegularDouble(InflectedWordElement element, WordElement baseWord) {
         if (element.getFeature(LexicalFeature.DEFAULT_INFL) == null) {
             String baseForm = baseWord.getBaseForm();
-            String regexCVC = ".*[b-df-hj-np-tv-xzB-DF-HJ-NP-TV-XZ]" // anything, followed by a consonant
-                    + "[aeiouyAEIOUY]" // a vowel
-                    + "[b-df-hj-np-tv-xzB-DF-HJ-NP-TV-XZ]";
-
-            if (baseForm.matches(regexCVC)
+            if (Spelling.is(Spelling.classify(baseForm), Spelling.SHORT_VOWEL_CLOSED)
 					&& !baseForm.endsWith("ig")
 					&& !baseForm.endsWith("ijk")) {
                 element.setFeature(LexicalFeature.DEFAULT_INFL, Inflection.REGULAR_DOUBLE);
@@ -305,26 +285,8 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
         String morphology = null;
         if (baseForm != null) {
 
-            // remove double vowel
-            int length = baseForm.length();
-            String regexCVVC = ".*" // anything
-                    + "([aeiouAEIOU])\\1" // two repeated vowels
-                    + "[b-df-hj-npqstv-xzB-DF-HJ-NPQSTV-XZ]"; // not 'r', because that is handled with a suffix
-
-            // replace trailing 'f' with 'v' and 's' with 'z'
-            if (baseForm.matches(".*([aeiouyAEIOUY]|(ij)|(ei)|(ui)|(au)|(ou))[fsFS]")) {
-                if (baseForm.endsWith("f")) {
-                    baseForm = baseForm.substring(0, length - 1) + "v";
-                } else if (baseForm.endsWith("s")) {
-                    baseForm = baseForm.substring(0, length - 1) + "z";
-                }
-            }
-
-            if (baseForm.matches(regexCVVC)) {
-                String lastConsonant = baseForm.substring(length -1);
-                String front = baseForm.substring(0, length - 2);
-                baseForm = front + lastConsonant;
-            }
+            // replace trailing 'f' with 'v' and 's' with 'z', remove double vowel
+            baseForm = Spelling.openSyllable(baseForm);
 
 
             if (baseForm.endsWith("r")) { //$NON-NLS-1$
@@ -355,12 +317,8 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
                     || baseForm.endsWith("de")) {
 
                 // replace trailing 'f' with 'v' and 's' with 'z'
-                if (baseForm.matches(".*([aeiouyAEIOUY]|(ij)|(ei)|(ui)|(au)|(ou))[fsFS]")) {
-                    if (baseForm.endsWith("f")) {
-                        baseForm = baseForm.substring(0, baseForm.length() - 1) + "v";
-                    } else if (baseForm.endsWith("s")) {
-                        baseForm = baseForm.substring(0, baseForm.length() - 1) + "z";
-                    }
+                if (Spelling.is(Spelling.classify(baseForm), Spelling.FINAL_FRICATIVE)) {
+                    baseForm = Spelling.voice(baseForm);
                 }
 
                 morphology = "meest " + baseForm;
@@ -408,34 +366,16 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 		// References: http://www.dutchgrammar.com/en/?n=NounsAndArticles.11
 		// 			   http://ans.ruhosting.nl/e-ans/03/05/03/body.html
 
-		if(form.matches("[a-zA-Z-]+[aiouyAIOUY]")) {
-			if(!form.endsWith("ee") && !form.endsWith("ie") && !form.endsWith("eau")) {
-				// ends in a vowel, except for 'ee', 'ie' or 'eau', then add an apostrophe
+		int tail = Spelling.classify(form);
+		if (Spelling.is(tail, Spelling.OPEN_VOWEL)) {
+			if (!form.endsWith("eau")) {
+				// ends in a vowel, except for 'e' or 'eau', then add an apostrophe
 				form += "'s";
 			} else {
 				form = addNounSSuffix(form);
 			}
 		}
-		else if (form.endsWith("el") ||
-				form.endsWith("em") ||
-				form.endsWith("en") ||
-				( form.endsWith("er") && !form.endsWith("oer") ) ||
-				form.endsWith("aar") ||
-				form.endsWith("aard") ||
-				form.endsWith("erd") ||
-				form.endsWith("je") ||
-				form.endsWith("ster") ||
-				form.endsWith("stel") ||
-				form.endsWith("sel") ||
-				form.endsWith("te") ||
-				form.endsWith("age") ||
-				form.endsWith("e") ||
-				form.endsWith("ette") ||
-				form.endsWith("eur") ||
-				form.endsWith("ier") ||
-				form.endsWith("trice") ||
-				form.endsWith("ine") ||
-				form.endsWith("oir")) {
+		else if (Spelling.is(tail, Spelling.S_PLURAL_ENDING)) {
 			form = addNounSSuffix(form);
 		} else if (form.length() == 1) {
 			form += "'s";
@@ -468,14 +408,7 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 	 */
 	public String addNounEnSuffix(String form) {
 		int length = form.length();
-		String regexCVVC = ".*" // anything, followed by a consonant
-						 + "([aeiouAEIOU])\\1" // two repeated vowels
-						 + "[b-df-hj-np-tv-xzB-DF-HJ-NP-TV-XZ]";
-
-		String regexCVC = ".*[b-df-hj-np-tv-xzB-DF-HJ-NP-TV-XZ]" // one consonant
-						+ "[aeiouyAEIOUY]" // a vowel or diphtong
-						+ "[b-df-hj-np-tv-xzB-DF-HJ-NP-TV-XZ]";
-
+		int tail = Spelling.classify(form);
 		String suffix = "en";
 
 
@@ -483,32 +416,19 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 
 		} else if (form.endsWith("erik")) {
 			suffix = "en";
-		} else if (form.matches(regexCVVC)) {
+		} else if (Spelling.is(tail, Spelling.LONG_VOWEL_CLOSED)) {
 
-			if (form.endsWith("f")) {
-				form = form.substring(0, length - 1) + "v";
-			} else if (form.endsWith("s")) {
-				form = form.substring(0, length - 1) + "z";
-			}
-			String lastConsonant = form.substring(length -1);
-			String front = form.substring(0, length - 2);
-			form = front + lastConsonant;
-
-		} else if (form.matches(regexCVC)) {
-
-			String lastVowel = "";
-			if (form.endsWith("ijf")) {
-				form = form.substring(0, length - 3) + "ijv";
-			} else if (form.endsWith("eis")) {
-				form = form.substring(0, length - 3) + "eiz";
-			} else if (form.endsWith("f")) {
-				form = form.substring(0, length - 1) + "v";
-			} else if (form.endsWith("s")) {
-				form = form.substring(0, length - 1) + "z";
+			form = Spelling.halveVowel(Spelling.voice(form));
+
+		} else if (Spelling.is(tail, Spelling.SHORT_VOWEL_CLOSED)) {
+
+			// a final 'f' or 's' is voiced, any other consonant is doubled
+			char last = form.charAt(length - 1);
+			if (last == 'f' || last == 's') {
+				form = Spelling.voice(form);
 			} else {
-				lastVowel = form.substring(length - 1);
+				form = Spelling.doubleConsonant(form);
 			}
-			suffix = lastVowel + "en";
 
 		} else if (form.endsWith("heid")) {
 
@@ -774,7 +694,7 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 			realised = element
 					.getFeatureAsString(LexicalFeature.PAST_PARTICIPLE);
 
-			String SCVbaseForm = baseForm.replaceAll("[|]", "");
+			String SCVbaseForm = baseForm.replace("|", "");
 			WordElement SCVbaseWord = element.getLexicon().lookupWord(SCVbaseForm, LexicalCategory.VERB);
 
 			if (realised == null && SCVbaseWord != null) {
@@ -1074,7 +994,7 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 		String radical = element.getFeatureAsString(LexicalFeature.PAST);
 
 		if (radical != null && radical.contains(" ")) {
-			radical = radical.split("\\s+", 2)[0];
+			radical = WHITESPACE.split(radical, 2)[0];
 		}
 
         if (radical == null && baseWord != null) {
@@ -1204,10 +1124,7 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 	    String radical = getBaseRadical(baseForm);
 
 		// replace 'v' with 'f' and 'z' with 's'
-		if (radical.endsWith("v"))
-			radical = radical.substring(0, radical.length() - 1) + "f";
-		if (radical.endsWith("z"))
-			radical = radical.substring(0, radical.length() - 1) + "s";
+		radical = Spelling.devoice(radical);
 
         int verbEndingCategory = 0;
 
@@ -1227,16 +1144,9 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 			radical = baseForm.substring(0, length-2);
 
 		// keep the sound consistent
-		if (radical.matches("[a-zA-Z]*"
-                                + "[b-df-hj-np-tv-zB-DF-HJ-NP-TV-Z]+"
-                                + "[aeouAEOU]{1}"
-                                + "[b-df-hj-np-tv-zB-DF-HJ-NP-TV-Z]{1}")) {
+		if (Spelling.is(Spelling.classify(radical), Spelling.SHORT_VOWEL_RADICAL)) {
 			// repeat vowel, except i's
-			String includingVowel = radical.substring(0, radical.length()-1);
-			String vowelToDuplicate = includingVowel.substring(includingVowel.length()-1);
-			String lastConsonant = radical.substring(radical.length()-1);
-
-			radical = includingVowel + vowelToDuplicate + lastConsonant;
+			radical = Spelling.doubleVowel(radical);
 		}
 
 		// transform radicals ending in dubble consonants
@@ -1287,7 +1197,7 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 	public String addSuffix(String radical, String suffix) {
 		int length = radical.length();
 		// change "c" to "ç" and "g" to "ge" before "a" and "o";
-		if (suffix.matches(a_o_regex)) {
+		if (startsWithAOrO(suffix)) {
 			if (radical.endsWith("c")) {
 				radical = radical.substring(0, length-1) + "ç";
 			} else if (radical.endsWith("g")) {
@@ -1310,6 +1220,23 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 		return radical + suffix;
 	}
 
+	/**
+	 * Same as <code>suffix.matches(a_o_regex)</code>, without the regular
+	 * expression.
+	 *
+	 * @param suffix
+	 * @return true if the suffix begins with an "a" or an "o"
+	 */
+	protected static boolean startsWithAOrO(String suffix) {
+		if (suffix.isEmpty()) return false;
+		switch (suffix.charAt(0)) {
+		case 'a': case 'ä': case 'à': case 'â': case 'o': case 'ô':
+			return true;
+		default:
+			return false;
+		}
+	}
+
 	/**
 	 * Builds the simple future form for all verbs. 
 	 * Reference : Mansouri (1996)
@@ -1395,27 +1322,8 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 					if (radical.endsWith("e"))
 						return radical + "n";
 					else {
-						// remove double vowel
-						int length = radical.length();
-						String regexCVVC = ".*" // anything
-								+ "([aeiouAEIOU])\\1" // two repeated vowels
-								+ "[b-df-hj-npqstv-xzB-DF-HJ-NPQSTV-XZ]"; // not 'r', because that is handled with a suffix
-
-						// replace trailing 'f' with 'v' and 's' with 'z'
-						if (radical.matches(".*([aeiouyAEIOUY]|(ij)|(ei)|(ui)|(au)|(ou))[fsFS]")) {
-							if (radical.endsWith("f")) {
-								radical = radical.substring(0, length - 1) + "v";
-							} else if (radical.endsWith("s")) {
-								radical = radical.substring(0, length - 1) + "z";
-							}
-						}
-
-						if (radical.matches(regexCVVC)) {
-							String lastConsonant = radical.substring(length - 1);
-							String front = radical.substring(0, length - 2);
-							radical = front + lastConsonant;
-						}
-						return radical + "en";
+						// replace trailing 'f' with 'v' and 's' with 'z', remove double vowel
+						return Spelling.openSyllable(radical) + "en";
 					}
 				default:
 					return radical;
@@ -1425,20 +1333,10 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
 		// radicals ending in an unvoiced consonant get the suffix 'te' or 'ten',
 		// radicals ending in a voiced consonant get the suffix 'de' or 'den'.
         // Reference: https://onzetaal.nl/taaladvies/t-kofschip/
-        String[] unvoicedConsonants = {"t", "k", "f", "s", "ch", "p", "x", "sj", "c"};
-        boolean hasUnvoicedConsonant = false;
-
-		for (String endSound : unvoicedConsonants) {
-		    if (radical.endsWith(endSound)) {
-                hasUnvoicedConsonant = true;
-            }
-        }
+        boolean hasUnvoicedConsonant = Spelling.is(Spelling.classify(radical), Spelling.FINAL_UNVOICED);
 
         // replace 'v' with 'f' and 'z' with 's'
-        if (radical.endsWith("v"))
-            radical = radical.substring(0, radical.length() - 1) + "f";
-        if (radical.endsWith("z"))
-            radical = radical.substring(0, radical.length() - 1) + "s";
+        radical = Spelling.devoice(radical);
 
         switch ( number ) {
             case SINGULAR: case BOTH:
@@ -1483,23 +1381,14 @@ public class MorphologyRules extends simplenlg.morphology.english.NonStaticMorph
         // radicals ending in an unvoiced consonant get the suffix 'te' or 'ten',
         // radicals ending in a voiced consonant get the suffix 'de' or 'den'.
         // Reference: https://onzetaal.nl/taaladvies/t-kofschip/
-        String[] unvoicedConsonants = {"k", "f", "s", "ch", "p", "x", "sj", "c"}; // "t" is exlcuded, no need for suffix
-        boolean hasUnvoicedConsonant = false;
-
-        for (String endSound : unvoicedConsonants) {
-            if (radical.endsWith(endSound)) {
-                hasUnvoicedConsonant = true;
-            }
-        }
+        // (a final 't' gets no suffix at all)
+        boolean hasUnvoicedConsonant = Spelling.is(Spelling.classify(radical), Spelling.FINAL_UNVOICED);
 
         String preverb = getPreverb(element);
 
 
         // replace 'v' with 'f' and 'z' with 's'
-        if (radical.endsWith("v"))
-            radical = radical.substring(0, radical.length() - 1) + "f";
-        if (radical.endsWith("z"))
-            radical = radical.substring(0, radical.length() - 1) + "s";
+        radical = Spelling.devoice(radical);
 
         String suffix;
         if (radical.endsWith("t") || radical.endsWith("d")) {
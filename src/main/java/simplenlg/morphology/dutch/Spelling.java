@@ -0,0 +1,317 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.morphology.dutch;
+
+/**
+ * <p>
+ * The spelling rules used when Dutch words are inflected: vowel doubling and
+ * halving, voicing of a final 'f' or 's' before a vowel, consonant doubling
+ * and the choice between 't' and 'd' in the past tense ('t kofschip).
+ * </p>
+ *
+ * <p>
+ * The last characters of a word are classified once by
+ * <code>classify</code>, into the structure of its last syllable (long or
+ * short vowel, closed by one or several consonants) and the class of its
+ * final sound. The result is a combination of the flags below, from which
+ * the rules are applied without regular expressions. The character classes
+ * are those of the expressions they replace: ASCII letters only, 'y' being
+ * a vowel except where noted, and the rules written for lower case letters
+ * are still only applied to lower case letters.
+ * </p>
+ */
+public final class Spelling {
+
+	/** Two identical vowels and a consonant other than 'y', as in "groot". */
+	public static final int LONG_VOWEL_CLOSED = 1;
+
+	/** A consonant, a single vowel and a consonant, as in "dik". */
+	public static final int SHORT_VOWEL_CLOSED = 1 << 1;
+
+	/** A vowel followed by two or more consonants, as in "hard". */
+	public static final int CONSONANT_CLUSTER = 1 << 2;
+
+	/**
+	 * Letters only, ending in consonants, a single 'a', 'e', 'o' or 'u' and
+	 * a consonant ('y' counting as a consonant), as in "mak": a verb radical
+	 * whose vowel must be doubled to keep its sound.
+	 */
+	public static final int SHORT_VOWEL_RADICAL = 1 << 3;
+
+	/**
+	 * Letters and hyphens only, ending in a vowel other than 'e', as in
+	 * "auto": a plural in "'s".
+	 */
+	public static final int OPEN_VOWEL = 1 << 4;
+
+	/**
+	 * An unstressed ending taking "-s" in the plural, such as "-e", "-el",
+	 * "-em", "-en", "-er" (but not "-oer"), "-aar", "-aard", "-erd", "-eur"
+	 * or "-oir".
+	 */
+	public static final int S_PLURAL_ENDING = 1 << 5;
+
+	/** A final 'r' or 'R'. */
+	public static final int FINAL_R = 1 << 6;
+
+	/**
+	 * A final 'f' or 's' after a vowel or a diphthong, as in "lief" or
+	 * "boos", which is voiced to 'v' or 'z' before a vowel.
+	 */
+	public static final int FINAL_FRICATIVE = 1 << 7;
+
+	/**
+	 * A final unvoiced consonant of 't kofschip ('t', 'k', 'f', 's', "ch",
+	 * 'p', 'x', "sj" or 'c'), followed by 't' rather than 'd' in the past
+	 * tense.
+	 */
+	public static final int FINAL_UNVOICED = 1 << 8;
+
+	/* classes of the ASCII characters */
+	private static final byte LETTER = 1;
+	private static final byte VOWEL = 2;	// a, e, i, o, u
+	private static final byte Y = 4;
+	private static final byte UNVOICED = 8;	// t, k, f, s, p, x, c (lower case)
+	private static final byte FRICATIVE = 16;	// f, s, F, S
+	private static final byte BROAD_VOWEL = 32;	// a, e, o, u
+
+	private static final byte[] CLASSES = new byte[128];
+
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			CLASSES[c] = LETTER;
+			CLASSES[Character.toUpperCase(c)] = LETTER;
+		}
+		for (char c : "aeiouAEIOU".toCharArray()) CLASSES[c] |= VOWEL; //$NON-NLS-1$
+		for (char c : "aeouAEOU".toCharArray()) CLASSES[c] |= BROAD_VOWEL; //$NON-NLS-1$
+		for (char c : "yY".toCharArray()) CLASSES[c] |= Y; //$NON-NLS-1$
+		for (char c : "tkfspxc".toCharArray()) CLASSES[c] |= UNVOICED; //$NON-NLS-1$
+		for (char c : "fsFS".toCharArray()) CLASSES[c] |= FRICATIVE; //$NON-NLS-1$
+	}
+
+	private Spelling() {
+	}
+
+	private static int classOf(char c) {
+		return c < 128 ? CLASSES[c] : 0;
+	}
+
+	/** A letter other than a vowel or 'y'. */
+	private static boolean isConsonant(int charClass) {
+		return (charClass & (LETTER | VOWEL | Y)) == LETTER;
+	}
+
+	/** A letter other than a vowel, 'y' included. */
+	private static boolean isConsonantOrY(int charClass) {
+		return (charClass & (LETTER | VOWEL)) == LETTER;
+	}
+
+	/** A vowel or 'y'. */
+	private static boolean isVowelOrY(int charClass) {
+		return (charClass & (VOWEL | Y)) != 0;
+	}
+
+	/**
+	 * Classifies the end of a word.
+	 *
+	 * @param word
+	 * @return a combination of the flags of this class
+	 */
+	public static int classify(CharSequence word) {
+		int length = word.length();
+		if (length == 0) return 0;
+
+		// the only pass over the whole word: are there only letters (and hyphens)?
+		boolean lettersOnly = true, lettersOrHyphens = true;
+		for (int index = 0; index < length && lettersOrHyphens; index++) {
+			char c = word.charAt(index);
+			if ((classOf(c) & LETTER) == 0) {
+				lettersOnly = false;
+				lettersOrHyphens = c == '-';
+			}
+		}
+
+		char last = word.charAt(length - 1);
+		char second = length > 1 ? word.charAt(length - 2) : 0;
+		char third = length > 2 ? word.charAt(length - 3) : 0;
+		int lastClass = classOf(last), secondClass = classOf(second), thirdClass = classOf(third);
+		int tail = 0;
+
+		// structure of the last syllable
+		if (isConsonant(lastClass)) {
+			if ((secondClass & VOWEL) != 0 && second == third) {
+				tail |= LONG_VOWEL_CLOSED;
+			} else if (isVowelOrY(secondClass) && isConsonant(thirdClass)) {
+				tail |= SHORT_VOWEL_CLOSED;
+			} else if (isConsonant(secondClass)) {
+				int index = length - 3;
+				while (index >= 0 && isConsonant(classOf(word.charAt(index)))) index--;
+				if (index >= 0 && isVowelOrY(classOf(word.charAt(index)))) {
+					tail |= CONSONANT_CLUSTER;
+				}
+			}
+		}
+		if (lettersOnly && isConsonantOrY(lastClass)
+				&& (secondClass & BROAD_VOWEL) != 0 && isConsonantOrY(thirdClass)) {
+			tail |= SHORT_VOWEL_RADICAL;
+		}
+		if (lettersOrHyphens && length > 1
+				&& isVowelOrY(lastClass) && last != 'e' && last != 'E') {
+			tail |= OPEN_VOWEL;
+		}
+
+		// final sound
+		if (last == 'r' || last == 'R') {
+			tail |= FINAL_R;
+		}
+		if ((lastClass & FRICATIVE) != 0
+				&& (isVowelOrY(secondClass) || (second == 'j' && third == 'i'))) {
+			tail |= FINAL_FRICATIVE;
+		}
+		if ((lastClass & UNVOICED) != 0
+				|| (last == 'h' && second == 'c') || (last == 'j' && second == 's')) {
+			tail |= FINAL_UNVOICED;
+		}
+		if (takesSPlural(word, length, last, second, third)) {
+			tail |= S_PLURAL_ENDING;
+		}
+		return tail;
+	}
+
+	private static boolean takesSPlural(CharSequence word, int length, char last, char second, char third) {
+		switch (last) {
+		case 'e':
+			return true;
+		case 'l': case 'm': case 'n':
+			return second == 'e';
+		case 'r':
+			return (second == 'e' && third != 'o')
+					|| (second == 'a' && third == 'a')
+					|| (second == 'u' && third == 'e')
+					|| (second == 'i' && third == 'o');
+		case 'd':
+			return (second == 'r' && third == 'e')
+					|| (second == 'r' && third == 'a' && length > 3 && word.charAt(length - 4) == 'a');
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * @param tail	the classification of a word
+	 * @param flag	one of the flags of this class
+	 * @return true if the word has this flag
+	 */
+	public static boolean is(int tail, int flag) {
+		return (tail & flag) != 0;
+	}
+
+	/**
+	 * Halves the doubled vowel of a word classified as
+	 * <code>LONG_VOWEL_CLOSED</code>, as in "groot" to "grot(e)".
+	 *
+	 * @param word
+	 * @return the word without the second to last character
+	 */
+	public static String halveVowel(String word) {
+		int length = word.length();
+		return word.substring(0, length - 2) + word.charAt(length - 1);
+	}
+
+	/**
+	 * Doubles the vowel of a word classified as
+	 * <code>SHORT_VOWEL_RADICAL</code>, as in "mak" to "maak".
+	 *
+	 * @param word
+	 * @return the word with its second to last character doubled
+	 */
+	public static String doubleVowel(String word) {
+		int length = word.length();
+		return word.substring(0, length - 1) + word.charAt(length - 2) + word.charAt(length - 1);
+	}
+
+	/**
+	 * Doubles the final consonant of a word, as in "dik" to "dikk(e)".
+	 *
+	 * @param word
+	 * @return the word with its last character doubled
+	 */
+	public static String doubleConsonant(String word) {
+		return word + word.charAt(word.length() - 1);
+	}
+
+	/**
+	 * Replaces a final 'f' by 'v' and a final 's' by 'z'.
+	 *
+	 * @param word
+	 * @return the voiced word, or the same word if it does not end in 'f' or 's'
+	 */
+	public static String voice(String word) {
+		int length = word.length();
+		if (length == 0) return word;
+		switch (word.charAt(length - 1)) {
+		case 'f':
+			return word.substring(0, length - 1) + 'v';
+		case 's':
+			return word.substring(0, length - 1) + 'z';
+		default:
+			return word;
+		}
+	}
+
+	/**
+	 * Replaces a final 'v' by 'f' and a final 'z' by 's', a Dutch word
+	 * never ending in 'v' or 'z'.
+	 *
+	 * @param word
+	 * @return the unvoiced word, or the same word if it does not end in 'v' or 'z'
+	 */
+	public static String devoice(String word) {
+		int length = word.length();
+		if (length == 0) return word;
+		switch (word.charAt(length - 1)) {
+		case 'v':
+			return word.substring(0, length - 1) + 'f';
+		case 'z':
+			return word.substring(0, length - 1) + 's';
+		default:
+			return word;
+		}
+	}
+
+	/**
+	 * Voices the final fricative of a word and halves its doubled vowel,
+	 * before a suffix beginning with a vowel other than after an 'r':
+	 * "braaf" becomes "brav(er)", "groot" "grot(en)" and "boos" "boz(er)".
+	 *
+	 * @param word
+	 * @return the stem to which the suffix is added
+	 */
+	public static String openSyllable(String word) {
+		int tail = classify(word);
+		if (is(tail, FINAL_FRICATIVE)) {
+			word = voice(word);
+		}
+		if (is(tail, LONG_VOWEL_CLOSED) && !is(tail, FINAL_R)) {
+			word = halveVowel(word);
+		}
+		return word;
+	}
+}
@@ -0,0 +1,298 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.morphophonology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.StringElement;
+
+/**
+ * <p>
+ * Performs the morphophonology stage on a whole realised tree in linear time.
+ * </p>
+ *
+ * <p>
+ * The recursive version in <code>NLGElement</code> looks up the rightmost and
+ * leftmost <code>StringElement</code> of every pair of adjacent children,
+ * walking the same subtrees again at every level of the tree. This engine
+ * instead flattens the tree once into an array of <code>StringElement</code>
+ * leaves, remembering for every pair of adjacent children (a "gap") which
+ * leaves it joins and how deep in the tree it was found. The rules are then
+ * applied to the gaps in a single pass.
+ * </p>
+ *
+ * <p>
+ * The rules are applied in exactly the same order as the recursive version:
+ * a pair of children is only processed once every pair inside the right
+ * child has been processed. That order matters, for instance in French
+ * where "de" + "le homme" must become "de l'homme" and not "du homme".
+ * A child that contains no <code>StringElement</code> still separates its
+ * neighbours, as it did before.
+ * </p>
+ *
+ * <p>
+ * An engine keeps its working arrays between calls, so it must not be
+ * shared by several threads at the same time.
+ * </p>
+ */
+public class MorphophonologyEngine {
+
+	/** The StringElement leaves of the tree, from left to right. */
+	private StringElement[] leaves = new StringElement[16];
+	private int leafCount = 0;
+
+	/**
+	 * For each gap : index of the leaf on its left, index of the leaf on its
+	 * right (-1 if the corresponding child has no leaves) and depth of the
+	 * parent of the two children.
+	 */
+	private int[] gapLeft = new int[16];
+	private int[] gapRight = new int[16];
+	private int[] gapDepth = new int[16];
+	private int gapCount = 0;
+
+	/** Pending gaps, used to restore the bottom-up order of the rules. */
+	private int[] pending = new int[16];
+
+	/**
+	 * Performs the morphophonology on every pair of adjacent words in
+	 * the tree.
+	 *
+	 * @param element
+	 *            the root of the tree, after the morphology stage
+	 * @return the same element, its StringElements having been modified
+	 */
+	public NLGElement realise(NLGElement element) {
+		if (element != null) {
+			try {
+				flatten(element, 0);
+				applyRules();
+			} finally {
+				Arrays.fill(this.leaves, 0, this.leafCount, null);
+				this.leafCount = 0;
+				this.gapCount = 0;
+			}
+		}
+		return element;
+	}
+
+	/**
+	 * Performs the morphology stage and then the morphophonology stage on
+	 * a tree, in a single traversal: the leaves and gaps are recorded while
+	 * the morphology builds the new tree, instead of being found by walking
+	 * the new tree again. The result is the same as
+	 * <code>element.realiseMorphology().realiseMorphophonology()</code>,
+	 * which remains the reference.
+	 *
+	 * @param element
+	 *            the root of the tree, after the syntax stage
+	 * @return the morphologically and morphophonologically realised tree
+	 */
+	public NLGElement realiseWithMorphology(NLGElement element) {
+		if (element == null) return null;
+		NLGElement realised;
+		try {
+			realised = morphology(element, 0);
+			applyRules();
+		} finally {
+			Arrays.fill(this.leaves, 0, this.leafCount, null);
+			this.leafCount = 0;
+			this.gapCount = 0;
+		}
+		return realised;
+	}
+
+	/**
+	 * Does what the realiseMorphology() method of the element does, while
+	 * adding the leaves and gaps of the result to the arrays.
+	 * Only the classes whose realiseMorphology() method is known are
+	 * traversed; the others are realised first and flattened afterwards.
+	 */
+	private NLGElement morphology(NLGElement element, int depth) {
+		Class<?> elementClass = element.getClass();
+		if (elementClass == ListElement.class) {
+			ListElement realised = new ListElement(element);
+			realised.setComponents(morphology(element.getChildren(), depth));
+			return realised;
+
+		} else if (elementClass == DocumentElement.class) {
+			DocumentElement document = (DocumentElement) element;
+			document.setComponents(morphology(document.getChildren(), depth));
+			return document;
+
+		} else if (elementClass == CoordinatedPhraseElement.class) {
+			CoordinatedPhraseElement coordination = (CoordinatedPhraseElement) element;
+			List<NLGElement> children = coordination.getChildren();
+			coordination.clearCoordinates();
+			if (children == null || children.isEmpty()) return null;
+			for (NLGElement coordinate : morphology(children, depth)) {
+				coordination.addCoordinate(coordinate);
+			}
+			return coordination;
+
+		} else {
+			NLGElement realised = element.realiseMorphology();
+			if (realised != null) {
+				flatten(realised, depth);
+			}
+			return realised;
+		}
+	}
+
+	/**
+	 * Realises the morphology of the children of an element, leaving out
+	 * those realised as null, and adds a gap between each pair of them.
+	 */
+	private List<NLGElement> morphology(List<NLGElement> children, int depth) {
+		List<NLGElement> realisedChildren = new ArrayList<NLGElement>(
+				children != null ? children.size() : 0);
+		if (children == null) return realisedChildren;
+
+		boolean previousHasLeaves = false;
+		for (NLGElement child : children) {
+			int firstLeaf = this.leafCount;
+			int firstGap = this.gapCount;
+			int gap = -1;
+			if (!realisedChildren.isEmpty()) {
+				gap = addGap(previousHasLeaves ? firstLeaf - 1 : -1, depth);
+			}
+			NLGElement realised = morphology(child, depth + 1);
+			if (realised == null) {
+				// the child is left out, so is the gap before it
+				Arrays.fill(this.leaves, firstLeaf, this.leafCount, null);
+				this.leafCount = firstLeaf;
+				this.gapCount = firstGap;
+				continue;
+			}
+			realisedChildren.add(realised);
+			previousHasLeaves = this.leafCount > firstLeaf;
+			if (gap >= 0 && previousHasLeaves) {
+				this.gapRight[gap] = firstLeaf;
+			}
+		}
+		return realisedChildren;
+	}
+
+	/**
+	 * Performs the morphophonology on two adjacent StringElements.
+	 * The rules of the languages of both words are used if they
+	 * are different. (Those of the left word first, for no
+	 * particular reason.)
+	 *
+	 * @param leftWord
+	 * @param rightWord
+	 */
+	public static void applyRules(StringElement leftWord, StringElement rightWord) {
+		MorphophonologyRulesInterface leftWordRules = leftWord.getMorphophonologyRuleSet(),
+			rightWordRules = rightWord.getMorphophonologyRuleSet();
+		leftWordRules.doMorphophonology(leftWord, rightWord);
+		if (leftWordRules != rightWordRules) {
+			rightWordRules.doMorphophonology(leftWord, rightWord);
+		}
+	}
+
+	/**
+	 * Adds the leaves and gaps of this element to the arrays.
+	 *
+	 * @param element
+	 * @param depth		depth of the element in the tree
+	 */
+	private void flatten(NLGElement element, int depth) {
+		if (element instanceof StringElement) {
+			addLeaf((StringElement) element);
+			return;
+		}
+		List<NLGElement> children = element.getChildren();
+		if (children == null) return;
+
+		int size = children.size();
+		boolean previousHasLeaves = false;
+		for (int index = 0; index < size; index++) {
+			int firstLeaf = this.leafCount;
+			int gap = -1;
+			if (index > 0) {
+				gap = addGap(previousHasLeaves ? firstLeaf - 1 : -1, depth);
+			}
+			NLGElement child = children.get(index);
+			if (child != null) {
+				flatten(child, depth + 1);
+			}
+			previousHasLeaves = this.leafCount > firstLeaf;
+			if (gap >= 0 && previousHasLeaves) {
+				this.gapRight[gap] = firstLeaf;
+			}
+		}
+	}
+
+	/**
+	 * Applies the rules to every gap joining two leaves. A gap is processed
+	 * when the next gap at the same or a shallower depth is reached, so that
+	 * every deeper gap on its right has been processed before it.
+	 */
+	private void applyRules() {
+		if (this.pending.length < this.gapCount) {
+			this.pending = new int[this.gapCount];
+		}
+		int top = 0;
+		for (int gap = 0; gap < this.gapCount; gap++) {
+			while (top > 0 && this.gapDepth[this.pending[top - 1]] >= this.gapDepth[gap]) {
+				applyRules(this.pending[--top]);
+			}
+			this.pending[top++] = gap;
+		}
+		while (top > 0) {
+			applyRules(this.pending[--top]);
+		}
+	}
+
+	private void applyRules(int gap) {
+		int left = this.gapLeft[gap];
+		int right = this.gapRight[gap];
+		if (left >= 0 && right >= 0) {
+			applyRules(this.leaves[left], this.leaves[right]);
+		}
+	}
+
+	private void addLeaf(StringElement leaf) {
+		if (this.leafCount == this.leaves.length) {
+			this.leaves = Arrays.copyOf(this.leaves, this.leafCount * 2);
+		}
+		this.leaves[this.leafCount++] = leaf;
+	}
+
+	private int addGap(int left, int depth) {
+		if (this.gapCount == this.gapLeft.length) {
+			int newLength = this.gapCount * 2;
+			this.gapLeft = Arrays.copyOf(this.gapLeft, newLength);
+			this.gapRight = Arrays.copyOf(this.gapRight, newLength);
+			this.gapDepth = Arrays.copyOf(this.gapDepth, newLength);
+		}
+		this.gapLeft[this.gapCount] = left;
+		this.gapRight[this.gapCount] = -1;
+		this.gapDepth[this.gapCount] = depth;
+		return this.gapCount++;
+	}
+}
@@ -210,6 +210,30 @@ public class OrthographyHelper implements OrthographyHelperInterface {
 		}
 	}
 
+	/**
+	 * Removes the spaces followed by a space or a comma, and the spaces at
+	 * the beginning and the end. Same as
+	 * <code>replaceAll(" (?=( |,))", "").trim()</code>, without a regular
+	 * expression.
+	 * 
+	 * @param realisation
+	 *            the realisation of a coordinated phrase
+	 * @return the realisation without the extra spaces
+	 */
+	protected static String removeExtraSpaces(CharSequence realisation) {
+		int length = realisation.length();
+		StringBuilder result = new StringBuilder(length);
+		for (int index = 0; index < length; index++) {
+			char character = realisation.charAt(index);
+			if (character == ' ' && index + 1 < length) {
+				char next = realisation.charAt(index + 1);
+				if (next == ' ' || next == ',') continue;
+			}
+			result.append(character);
+		}
+		return result.toString().trim();
+	}
+
 	/**
 	 * Realises coordinated phrases. Where there are more than two coordinates,
 	 * then a comma replaces the conjunction word between all the coordinates
@@ -223,7 +247,7 @@ public class OrthographyHelper implements OrthographyHelperInterface {
 	 */
 	@Override
 	public NLGElement realiseCoordinatedPhrase(List<NLGElement> components) {
-		StringBuffer realisation = new StringBuffer();
+		StringBuilder realisation = new StringBuilder();
 		NLGElement realisedChild = null;
 
 		int length = components.size();
@@ -242,7 +266,7 @@ public class OrthographyHelper implements OrthographyHelperInterface {
 		// modified by vaudrypl
 		// remove extra spaces
 //		realisation.setLength(realisation.length() - 1);
-		String realisationString = realisation.toString().replaceAll(" (?=( |,))", "").trim();
+		String realisationString = removeExtraSpaces(realisation);
 		return new StringElement(realisationString); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 }
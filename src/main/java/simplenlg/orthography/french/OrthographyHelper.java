@@ -57,7 +57,7 @@ public class OrthographyHelper extends simplenlg.orthography.english.Orthography
 	 */
 	@Override
 	public NLGElement realiseCoordinatedPhrase(List<NLGElement> components) {
-		StringBuffer realisation = new StringBuffer();
+		StringBuilder realisation = new StringBuilder();
 		NLGElement realisedChild = null;
 
 		int length = components.size();
@@ -93,7 +93,7 @@ public class OrthographyHelper extends simplenlg.orthography.english.Orthography
 		}
 		// remove extra spaces
 //		String realisationString = realisation.toString().replace(" ,", ",").trim();
-		String realisationString = realisation.toString().replaceAll(" (?=( |,))", "").trim();
+		String realisationString = removeExtraSpaces(realisation);
 		return new StringElement(realisationString); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
@@ -185,7 +185,7 @@ public class OrthographyHelper extends simplenlg.orthography.english.Orthography
 			}
 		}
 		
-		if (realisation.length() > 0 && realisation.toString().endsWith(" ")) {
+		if (realisation.length() > 0 && realisation.charAt(realisation.length() - 1) == ' ') {
 			realisation.setLength(realisation.length() - 1);
 		}
 	}
@@ -90,9 +90,7 @@ public class NPPhraseSpec extends PhraseElement {
 		super(PhraseCategory.NOUN_PHRASE);
 		this.setFactory(original.getFactory());
 		this.setParent(original.getParent());
-		for(String feature : original.getAllFeatureNames()) {
-			setFeature(feature, original.getFeature(feature));
-		}
+		copyAllFeatures(original);
 	}
 
 	/*
@@ -0,0 +1,328 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import simplenlg.framework.NLGElement;
+
+/**
+ * <p>
+ * Realises sentences asynchronously, returning a
+ * <code>CompletableFuture</code> instead of blocking the caller.
+ * </p>
+ * 
+ * <p>
+ * By default the realisations run on virtual threads when the JVM supports
+ * them (Java 21 and later), so that realisations waiting on a slow lexicon
+ * (for instance a <code>NIHDBLexicon</code>) do not each hold an operating
+ * system thread. On older JVMs they run on a pool of daemon platform
+ * threads, one per allowed concurrent realisation.
+ * </p>
+ * 
+ * <p>
+ * At most <code>maxConcurrency</code> realisations run at the same time and
+ * at most <code>maxPending</code> more wait for their turn. Beyond that,
+ * the returned future fails immediately with a
+ * <code>RejectedExecutionException</code>, which callers can use as a
+ * backpressure signal. Cancelling a future removes its realisation from
+ * the waiting ones, or interrupts it if it is waiting for a lexicon.
+ * </p>
+ * 
+ * <p>
+ * Each running realisation borrows a realiser from a pool, created with the
+ * factory given to the constructor. A configured <code>Realiser</code> can
+ * be shared by several threads only if its formatter, listeners and cache
+ * are thread-safe; the pool lets the factory configure them freely.
+ * </p>
+ */
+public class AsyncRealiser implements Closeable {
+
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+	private final boolean virtualThreads;
+	private final Supplier<Realiser> realiserFactory;
+	private final Queue<Realiser> idleRealisers = new ConcurrentLinkedQueue<Realiser>();
+
+	/** Permits for the running and waiting realisations. */
+	private final Semaphore admission;
+
+	/** Permits for the running realisations. */
+	private final Semaphore running;
+
+	/**
+	 * Creates an asynchronous realiser running on virtual threads if
+	 * possible, with realisers with the default settings.
+	 * 
+	 * @param maxConcurrency
+	 *            the maximum number of realisations running at the same time
+	 * @param maxPending
+	 *            the maximum number of realisations waiting to run
+	 */
+	public AsyncRealiser(int maxConcurrency, int maxPending) {
+		this(maxConcurrency, maxPending, defaultFactory());
+	}
+
+	/**
+	 * Creates an asynchronous realiser running on virtual threads if
+	 * possible.
+	 * 
+	 * @param maxConcurrency
+	 *            the maximum number of realisations running at the same time
+	 * @param maxPending
+	 *            the maximum number of realisations waiting to run
+	 * @param realiserFactory
+	 *            creates the realisers, with the formatter, cache, etc. wanted
+	 */
+	public AsyncRealiser(int maxConcurrency, int maxPending, Supplier<Realiser> realiserFactory) {
+		this(createExecutor(maxConcurrency), true, maxConcurrency, maxPending, realiserFactory);
+	}
+
+	/**
+	 * Creates an asynchronous realiser running on the given executor, which
+	 * is not shut down by <code>close()</code>.
+	 * 
+	 * @param executor
+	 *            the executor running the realisations
+	 * @param maxConcurrency
+	 *            the maximum number of realisations running at the same time
+	 * @param maxPending
+	 *            the maximum number of realisations waiting to run
+	 * @param realiserFactory
+	 *            creates the realisers, with the formatter, cache, etc. wanted
+	 */
+	public AsyncRealiser(ExecutorService executor, int maxConcurrency, int maxPending,
+			Supplier<Realiser> realiserFactory) {
+		this(executor, false, maxConcurrency, maxPending, realiserFactory);
+	}
+
+	private AsyncRealiser(ExecutorService executor, boolean ownsExecutor,
+			int maxConcurrency, int maxPending, Supplier<Realiser> realiserFactory) {
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency); //$NON-NLS-1$
+		}
+		if (maxPending < 0) {
+			throw new IllegalArgumentException("maxPending must not be negative: " + maxPending); //$NON-NLS-1$
+		}
+		if (executor == null || realiserFactory == null) {
+			throw new NullPointerException();
+		}
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.virtualThreads = ownsExecutor && !(executor instanceof PlatformPool);
+		this.realiserFactory = realiserFactory;
+		this.admission = new Semaphore(maxConcurrency + maxPending);
+		this.running = new Semaphore(maxConcurrency);
+	}
+
+	/**
+	 * @return true if the realisations run on virtual threads
+	 */
+	public boolean isUsingVirtualThreads() {
+		return this.virtualThreads;
+	}
+
+	/**
+	 * @return the number of realisations that can still be accepted
+	 */
+	public int getAvailableCapacity() {
+		return this.admission.availablePermits();
+	}
+
+	/**
+	 * Realises the element as a sentence, as
+	 * <code>Realiser.realiseSentence()</code> does, without blocking.
+	 * The element must not be modified until the future is completed.
+	 * 
+	 * @param element
+	 *            the element to realise
+	 * @return the future realisation; it fails with a
+	 *         <code>RejectedExecutionException</code> if too many
+	 *         realisations are already waiting
+	 */
+	public CompletableFuture<String> realiseSentence(NLGElement element) {
+		CompletableFuture<String> result = new CompletableFuture<String>();
+		if (!this.admission.tryAcquire()) {
+			result.completeExceptionally(new RejectedExecutionException(
+					"too many pending realisations")); //$NON-NLS-1$
+			return result;
+		}
+		final Task task = new Task(element, result);
+		final Future<?> future;
+		try {
+			future = this.executor.submit(task);
+		} catch (RejectedExecutionException ex) {
+			task.releaseUnstarted();
+			result.completeExceptionally(ex);
+			return result;
+		}
+		result.whenComplete(new BiConsumer<String, Throwable>() {
+			@Override
+			public void accept(String realisation, Throwable error) {
+				if (task.result.isCancelled()) {
+					task.releaseUnstarted();
+					future.cancel(true);
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Shuts down the threads of this realiser if it created them. The
+	 * realisations already accepted are completed.
+	 */
+	@Override
+	public void close() {
+		if (this.ownsExecutor) {
+			this.executor.shutdown();
+		}
+	}
+
+	private String realise(NLGElement element) {
+		Realiser realiser = this.idleRealisers.poll();
+		if (realiser == null) {
+			realiser = this.realiserFactory.get();
+		}
+		String realisation = realiser.realiseSentence(element);
+		// not returned to the pool if realiseSentence threw an exception,
+		// its state may be inconsistent
+		this.idleRealisers.offer(realiser);
+		return realisation;
+	}
+
+	private final class Task implements Runnable {
+		private final NLGElement element;
+		private final CompletableFuture<String> result;
+		private final AtomicBoolean started = new AtomicBoolean(false);
+
+		Task(NLGElement element, CompletableFuture<String> result) {
+			this.element = element;
+			this.result = result;
+		}
+
+		/**
+		 * Gives back the admission permit if the task never started.
+		 */
+		void releaseUnstarted() {
+			if (this.started.compareAndSet(false, true)) {
+				AsyncRealiser.this.admission.release();
+			}
+		}
+
+		@Override
+		public void run() {
+			if (!this.started.compareAndSet(false, true)) return;
+			try {
+				if (this.result.isDone()) return;
+				AsyncRealiser.this.running.acquire();
+				try {
+					if (!this.result.isDone()) {
+						this.result.complete(realise(this.element));
+					}
+				} finally {
+					AsyncRealiser.this.running.release();
+				}
+			} catch (InterruptedException ex) {
+				this.result.cancel(false);
+			} catch (Throwable ex) {
+				this.result.completeExceptionally(ex);
+			} finally {
+				AsyncRealiser.this.admission.release();
+			}
+		}
+	}
+
+	private static Supplier<Realiser> defaultFactory() {
+		return new Supplier<Realiser>() {
+			@Override
+			public Realiser get() {
+				return new Realiser();
+			}
+		};
+	}
+
+	/**
+	 * Creates a virtual thread per task executor if the JVM has one, else a
+	 * pool of platform threads. Virtual threads need Java 21 while this
+	 * library is compiled for Java 11, so the factory method is looked up
+	 * by reflection.
+	 */
+	private static ExecutorService createExecutor(int maxConcurrency) {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor"); //$NON-NLS-1$
+			return (ExecutorService) factory.invoke(null);
+		} catch (NoSuchMethodException ex) {
+			// before Java 21
+		} catch (IllegalAccessException ex) {
+			// not available
+		} catch (InvocationTargetException ex) {
+			// preview feature not enabled
+		}
+		return new PlatformPool(Math.max(1, maxConcurrency));
+	}
+
+	/**
+	 * The fallback executor: a fixed pool of daemon threads.
+	 */
+	private static final class PlatformPool extends ThreadPoolExecutor {
+		private static final AtomicInteger poolCount = new AtomicInteger();
+
+		PlatformPool(int threads) {
+			super(threads, threads, 0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new DaemonThreadFactory("simplenlg-realiser-" + poolCount.incrementAndGet() + "-")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private static final class DaemonThreadFactory implements ThreadFactory {
+		private final String prefix;
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		DaemonThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, this.prefix + this.threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,304 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.PhraseMemo;
+
+/**
+ * <p>
+ * Realises many elements as sentences in parallel, returning the
+ * realisations in the order of the elements.
+ * </p>
+ * 
+ * <p>
+ * The elements are divided into chunks, each realised by one task of the
+ * executor (the common fork-join pool by default). Each thread of the
+ * executor uses its own realiser, created by the factory given to the
+ * constructor the first time the thread realises something. A configured
+ * <code>Realiser</code> can be shared by several threads only if its
+ * formatter, listeners and cache are thread-safe; with a realiser per
+ * thread, the factory may configure them freely. If the realisers memoise
+ * phrases, a memo is shared by the elements of a chunk.
+ * </p>
+ * 
+ * <p>
+ * An exception thrown while realising an element does not stop the batch:
+ * its <code>Result</code> holds the exception instead of a realisation.
+ * The elements must not be modified while the batch is running, and an
+ * element must not be a part of another element of the same batch.
+ * </p>
+ */
+public class BatchRealiser {
+
+	/** The default number of elements realised by each task. */
+	public static final int DEFAULT_CHUNK_SIZE = 32;
+
+	/** The default number of elements of a stream realised at a time. */
+	public static final int DEFAULT_WINDOW_SIZE = 4096;
+
+	private final ExecutorService executor;
+	private final ThreadLocal<Realiser> realisers;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private int windowSize = DEFAULT_WINDOW_SIZE;
+
+	/**
+	 * Creates a batch realiser using the common fork-join pool and
+	 * realisers with the default settings.
+	 */
+	public BatchRealiser() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a batch realiser using the given executor and realisers with
+	 * the default settings.
+	 * 
+	 * @param executor
+	 */
+	public BatchRealiser(ExecutorService executor) {
+		this(executor, new Supplier<Realiser>() {
+			@Override
+			public Realiser get() {
+				return new Realiser();
+			}
+		});
+	}
+
+	/**
+	 * Creates a batch realiser using the given executor.
+	 * 
+	 * @param executor
+	 *            the executor running the tasks
+	 * @param realiserFactory
+	 *            creates the realiser of each thread, with the formatter,
+	 *            cache, etc. wanted
+	 */
+	public BatchRealiser(ExecutorService executor, Supplier<Realiser> realiserFactory) {
+		if (executor == null || realiserFactory == null) {
+			throw new NullPointerException();
+		}
+		this.executor = executor;
+		this.realisers = ThreadLocal.withInitial(realiserFactory);
+	}
+
+	/**
+	 * @param chunkSize
+	 *            the number of elements realised by each task
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize); //$NON-NLS-1$
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param windowSize
+	 *            the number of elements of a stream realised at a time
+	 */
+	public void setWindowSize(int windowSize) {
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("windowSize must be positive: " + windowSize); //$NON-NLS-1$
+		}
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Realises every element as a sentence, as
+	 * <code>Realiser.realiseSentence()</code> does.
+	 * 
+	 * @param elements
+	 *            the elements to realise
+	 * @return one result per element, in the same order
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting; the remaining
+	 *             tasks are cancelled
+	 */
+	public List<Result> realiseSentences(List<? extends NLGElement> elements)
+			throws InterruptedException {
+		return Arrays.asList(realiseSentences(elements, 0));
+	}
+
+	/**
+	 * Realises every element of a stream as a sentence, a window of
+	 * elements at a time, so that the stream can be much larger than
+	 * the memory.
+	 * 
+	 * @param elements
+	 *            the elements to realise
+	 * @param consumer
+	 *            receives the results, in the order of the elements, from
+	 *            the calling thread
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting; the remaining
+	 *             tasks are cancelled
+	 */
+	public void realiseSentences(Stream<? extends NLGElement> elements,
+			Consumer<? super Result> consumer) throws InterruptedException {
+		Iterator<? extends NLGElement> iterator = elements.iterator();
+		List<NLGElement> window = new ArrayList<NLGElement>(this.windowSize);
+		long firstIndex = 0;
+		while (iterator.hasNext()) {
+			window.add(iterator.next());
+			if (window.size() == this.windowSize || !iterator.hasNext()) {
+				for (Result result : realiseSentences(window, firstIndex)) {
+					consumer.accept(result);
+				}
+				firstIndex += window.size();
+				window.clear();
+			}
+		}
+	}
+
+	private Result[] realiseSentences(final List<? extends NLGElement> elements,
+			final long firstIndex) throws InterruptedException {
+		final int size = elements.size();
+		final Result[] results = new Result[size];
+		List<Future<?>> tasks = new ArrayList<Future<?>>(size / this.chunkSize + 1);
+		try {
+			for (int start = 0; start < size; start += this.chunkSize) {
+				final int from = start;
+				final int to = Math.min(size, start + this.chunkSize);
+				tasks.add(this.executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						realiseChunk(elements, from, to, firstIndex, results);
+					}
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		} catch (ExecutionException ex) {
+			// only errors escape realiseChunk
+			Throwable cause = ex.getCause();
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} finally {
+			for (Future<?> task : tasks) {
+				task.cancel(true);
+			}
+		}
+		return results;
+	}
+
+	private void realiseChunk(List<? extends NLGElement> elements, int from, int to,
+			long firstIndex, Result[] results) {
+		Realiser realiser = this.realisers.get();
+		PhraseMemo memo = realiser.isPhraseMemoisation() ? PhraseMemo.enter() : null;
+		try {
+			for (int index = from; index < to; index++) {
+				if (Thread.currentThread().isInterrupted()) {
+					throw new CancellationException();
+				}
+				String realisation = null;
+				Throwable error = null;
+				long start = System.nanoTime();
+				try {
+					NLGElement element = elements.get(index);
+					if (element != null) {
+						realisation = realiser.realiseSentence(element);
+					}
+				} catch (RuntimeException ex) {
+					error = ex;
+				} catch (StackOverflowError ex) {
+					error = ex;
+				}
+				results[index] = new Result(firstIndex + index, realisation, error,
+						System.nanoTime() - start);
+			}
+		} finally {
+			if (memo != null) memo.exit();
+		}
+	}
+
+	/**
+	 * The outcome of the realisation of one element of a batch.
+	 */
+	public static final class Result {
+		private final long index;
+		private final String realisation;
+		private final Throwable error;
+		private final long nanos;
+
+		Result(long index, String realisation, Throwable error, long nanos) {
+			this.index = index;
+			this.realisation = realisation;
+			this.error = error;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * @return the position of the element in the batch
+		 */
+		public long getIndex() {
+			return this.index;
+		}
+
+		/**
+		 * @return the realisation, or null if the element was null or
+		 *         its realisation failed
+		 */
+		public String getRealisation() {
+			return this.realisation;
+		}
+
+		/**
+		 * @return the exception thrown while realising the element, or null
+		 */
+		public Throwable getError() {
+			return this.error;
+		}
+
+		/**
+		 * @return the time taken to realise the element, in nanoseconds
+		 */
+		public long getNanos() {
+			return this.nanos;
+		}
+
+		/**
+		 * @return true if the element was realised without error
+		 */
+		public boolean isSuccessful() {
+			return this.error == null;
+		}
+
+		@Override
+		public String toString() {
+			return isSuccessful() ? this.realisation
+					: "Result[" + this.index + ": " + this.error + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+}
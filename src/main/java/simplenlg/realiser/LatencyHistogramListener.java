@@ -0,0 +1,166 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.NLGElement;
+
+/**
+ * <p>
+ * A <code>RealisationListener</code> recording a histogram of the duration
+ * of each realisation stage, for each language. It is thread-safe and can be
+ * shared by all the realisers of an application.
+ * </p>
+ * 
+ * <p>
+ * The durations are counted in buckets whose bounds are powers of two
+ * nanoseconds, so percentiles are approximate: a percentile is reported as
+ * the upper bound of the bucket it falls in, at most twice the exact value.
+ * Recording a duration costs a few atomic increments and allocates nothing.
+ * </p>
+ */
+public class LatencyHistogramListener implements RealisationListener {
+
+	/** Bucket i counts the durations d with 2^(i-1) <= d < 2^i nanoseconds. */
+	private static final int BUCKETS = 64;
+
+	private static final int STAGES = RealisationStage.values().length;
+
+	/**
+	 * For each language and stage: the buckets, then the count, the total
+	 * and the maximum of the durations.
+	 */
+	private static final int COUNT = BUCKETS;
+	private static final int TOTAL = BUCKETS + 1;
+	private static final int MAX = BUCKETS + 2;
+	private static final int SLOTS = BUCKETS + 3;
+
+	private final AtomicLongArray histograms =
+			new AtomicLongArray(Language.values().length * STAGES * SLOTS);
+
+	@Override
+	public void stageStarted(RealisationStage stage, Language language, NLGElement input) {
+		// only the durations are recorded
+	}
+
+	@Override
+	public void stageEnded(RealisationStage stage, Language language, NLGElement output,
+			long elapsedNanos) {
+		int base = base(language, stage);
+		long nanos = Math.max(0, elapsedNanos);
+		int bucket = BUCKETS - Long.numberOfLeadingZeros(nanos);
+		this.histograms.incrementAndGet(base + Math.min(bucket, BUCKETS - 1));
+		this.histograms.incrementAndGet(base + COUNT);
+		this.histograms.addAndGet(base + TOTAL, nanos);
+		long max;
+		do {
+			max = this.histograms.get(base + MAX);
+		} while (nanos > max && !this.histograms.compareAndSet(base + MAX, max, nanos));
+	}
+
+	private static int base(Language language, RealisationStage stage) {
+		return (language.ordinal() * STAGES + stage.ordinal()) * SLOTS;
+	}
+
+	/**
+	 * @return the number of times the stage was performed in this language
+	 */
+	public long getCount(Language language, RealisationStage stage) {
+		return this.histograms.get(base(language, stage) + COUNT);
+	}
+
+	/**
+	 * @return the mean duration of the stage in this language, in
+	 *         nanoseconds, 0 if it was never performed
+	 */
+	public double getMeanNanos(Language language, RealisationStage stage) {
+		int base = base(language, stage);
+		long count = this.histograms.get(base + COUNT);
+		return count == 0 ? 0.0 : (double) this.histograms.get(base + TOTAL) / count;
+	}
+
+	/**
+	 * @return the longest duration of the stage in this language, in
+	 *         nanoseconds
+	 */
+	public long getMaxNanos(Language language, RealisationStage stage) {
+		return this.histograms.get(base(language, stage) + MAX);
+	}
+
+	/**
+	 * Gets an approximate percentile of the durations of a stage.
+	 * 
+	 * @param language
+	 * @param stage
+	 * @param percentile
+	 *            between 0 and 100, for instance 99 for the 99th percentile
+	 * @return an upper bound of the percentile in nanoseconds, at most twice
+	 *         its exact value, or 0 if the stage was never performed
+	 */
+	public long getPercentileNanos(Language language, RealisationStage stage,
+			double percentile) {
+		int base = base(language, stage);
+		long count = this.histograms.get(base + COUNT);
+		if (count == 0) return 0;
+		long rank = (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += this.histograms.get(base + bucket);
+			if (seen >= Math.max(1, rank)) {
+				long upperBound = bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+				return Math.min(upperBound, getMaxNanos(language, stage));
+			}
+		}
+		return getMaxNanos(language, stage);
+	}
+
+	/**
+	 * Forgets all the recorded durations.
+	 */
+	public void reset() {
+		for (int index = 0; index < this.histograms.length(); index++) {
+			this.histograms.set(index, 0);
+		}
+	}
+
+	/**
+	 * @return a table of the count, mean, median, 99th percentile and maximum
+	 *         durations in microseconds of each stage performed
+	 */
+	@Override
+	public String toString() {
+		StringBuilder table = new StringBuilder();
+		for (Language language : Language.values()) {
+			for (RealisationStage stage : RealisationStage.values()) {
+				long count = getCount(language, stage);
+				if (count == 0) continue;
+				table.append(String.format("%s %-16s n=%d mean=%.1fus p50<=%.1fus p99<=%.1fus max=%.1fus%n", //$NON-NLS-1$
+						language.code, stage, count,
+						getMeanNanos(language, stage) / 1000.0,
+						getPercentileNanos(language, stage, 50) / 1000.0,
+						getPercentileNanos(language, stage, 99) / 1000.0,
+						getMaxNanos(language, stage) / 1000.0));
+			}
+		}
+		return table.toString();
+	}
+}
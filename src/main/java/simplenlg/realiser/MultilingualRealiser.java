@@ -0,0 +1,250 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.LanguageHelpers;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+
+/**
+ * <p>
+ * Realises elements of several languages in the same process, instead of
+ * juggling a lexicon, a factory and a realiser per language. Everything a
+ * language needs is loaded when the engine is created: its lexicon, its
+ * <code>LanguageHelpers</code> (syntax helpers, morphology and
+ * morphophonology rules, orthography helper) and its realiser.
+ * </p>
+ * 
+ * <p>
+ * Each element is routed to the realiser of its language, so that the
+ * languages share nothing mutable: each has its own lexicon, its own
+ * realiser (with its own cache and settings, see <code>getRealiser()</code>)
+ * and its own factories. An engine can be used by several threads at the
+ * same time. A factory is not thread-safe, so <code>getFactory()</code>
+ * returns the factory of the current thread for that language.
+ * </p>
+ * 
+ * <pre>
+ * MultilingualRealiser engine = new MultilingualRealiser(Language.ENGLISH, Language.DUTCH);
+ * NLGFactory dutch = engine.getFactory(Language.DUTCH);
+ * String text = engine.realiseSentence(dutch.createClause("de klant", "betalen"));
+ * </pre>
+ */
+public class MultilingualRealiser {
+
+	/** Everything used to realise one language. */
+	private static final class Pipeline {
+		final Lexicon lexicon;
+		final LanguageHelpers helpers;
+		final Realiser realiser;
+		final ThreadLocal<NLGFactory> factories;
+
+		Pipeline(final Lexicon lexicon, Realiser realiser) {
+			this.lexicon = lexicon;
+			this.helpers = LanguageHelpers.forLanguage(lexicon.getLanguage());
+			this.realiser = realiser;
+			this.factories = ThreadLocal.withInitial(new Supplier<NLGFactory>() {
+				@Override
+				public NLGFactory get() {
+					return new NLGFactory(lexicon);
+				}
+			});
+		}
+	}
+
+	// indexed by Language.ordinal(), null for the languages not loaded
+	private final Pipeline[] pipelines = new Pipeline[Language.values().length];
+	private final Map<Language, Lexicon> lexicons;
+
+	/**
+	 * Creates an engine for the given languages, with their built-in
+	 * lexicons and realisers with the default settings.
+	 * 
+	 * @param languages
+	 */
+	public MultilingualRealiser(Language... languages) {
+		this(defaultLexicons(languages));
+	}
+
+	/**
+	 * Creates an engine with the given lexicons and realisers with the
+	 * default settings.
+	 * 
+	 * @param lexicons
+	 *            the lexicon of each language
+	 */
+	public MultilingualRealiser(Map<Language, Lexicon> lexicons) {
+		this(lexicons, new Supplier<Realiser>() {
+			@Override
+			public Realiser get() {
+				return new Realiser();
+			}
+		});
+	}
+
+	/**
+	 * Creates an engine with the given lexicons.
+	 * 
+	 * @param lexicons
+	 *            the lexicon of each language
+	 * @param realiserFactory
+	 *            creates the realiser of each language, with the formatter,
+	 *            cache, etc. wanted
+	 */
+	public MultilingualRealiser(Map<Language, Lexicon> lexicons,
+			Supplier<Realiser> realiserFactory) {
+		if (lexicons.isEmpty()) {
+			throw new IllegalArgumentException("No language to realise"); //$NON-NLS-1$
+		}
+		for (Map.Entry<Language, Lexicon> entry : lexicons.entrySet()) {
+			Lexicon lexicon = entry.getValue();
+			if (lexicon.getLanguage() != entry.getKey()) {
+				throw new IllegalArgumentException("The lexicon of " + entry.getKey() //$NON-NLS-1$
+						+ " is a lexicon of " + lexicon.getLanguage()); //$NON-NLS-1$
+			}
+			this.pipelines[entry.getKey().ordinal()] = new Pipeline(lexicon, realiserFactory.get());
+		}
+		this.lexicons = Collections.unmodifiableMap(new EnumMap<Language, Lexicon>(lexicons));
+	}
+
+	private static Map<Language, Lexicon> defaultLexicons(Language... languages) {
+		Map<Language, Lexicon> lexicons = new LinkedHashMap<Language, Lexicon>();
+		for (Language language : languages) {
+			if (!lexicons.containsKey(language)) {
+				lexicons.put(language, Lexicon.getDefaultLexicon(language));
+			}
+		}
+		return lexicons;
+	}
+
+	private Pipeline pipeline(Language language) {
+		Pipeline pipeline = language != null ? this.pipelines[language.ordinal()] : null;
+		if (pipeline == null) {
+			throw new IllegalArgumentException("Language not loaded: " + language); //$NON-NLS-1$
+		}
+		return pipeline;
+	}
+
+	/**
+	 * @return the languages of this engine
+	 */
+	public Set<Language> getLanguages() {
+		return this.lexicons.keySet();
+	}
+
+	/**
+	 * @param language
+	 * @return true if this engine realises the language
+	 */
+	public boolean supports(Language language) {
+		return language != null && this.pipelines[language.ordinal()] != null;
+	}
+
+	/**
+	 * @param language
+	 * @return the lexicon of the language
+	 * @throws IllegalArgumentException
+	 *             if the language is not loaded
+	 */
+	public Lexicon getLexicon(Language language) {
+		return pipeline(language).lexicon;
+	}
+
+	/**
+	 * @param language
+	 * @return the helpers of the language, loaded with the engine
+	 * @throws IllegalArgumentException
+	 *             if the language is not loaded
+	 */
+	public LanguageHelpers getHelpers(Language language) {
+		return pipeline(language).helpers;
+	}
+
+	/**
+	 * @param language
+	 * @return the factory of the current thread for the language
+	 * @throws IllegalArgumentException
+	 *             if the language is not loaded
+	 */
+	public NLGFactory getFactory(Language language) {
+		return pipeline(language).factories.get();
+	}
+
+	/**
+	 * Gets the realiser of a language, for instance to give it a cache or a
+	 * formatter. As with any realiser, its setters must not be called while
+	 * the engine is in use.
+	 * 
+	 * @param language
+	 * @return the realiser of the language
+	 * @throws IllegalArgumentException
+	 *             if the language is not loaded
+	 */
+	public Realiser getRealiser(Language language) {
+		return pipeline(language).realiser;
+	}
+
+	/**
+	 * Realises an element with the realiser of its language.
+	 * 
+	 * @param element
+	 * @return the realised element
+	 * @throws IllegalArgumentException
+	 *             if the language of the element is not loaded
+	 */
+	public NLGElement realise(NLGElement element) {
+		if (element == null) return null;
+		return pipeline(element.getLanguage()).realiser.realise(element);
+	}
+
+	/**
+	 * Realises an element as a sentence with the realiser of its language.
+	 * 
+	 * @param element
+	 * @return the realisation
+	 * @throws IllegalArgumentException
+	 *             if the language of the element is not loaded
+	 */
+	public String realiseSentence(NLGElement element) {
+		if (element == null) return null;
+		return pipeline(element.getLanguage()).realiser.realiseSentence(element);
+	}
+
+	/**
+	 * Warms up every language of the engine with its lexicon (see
+	 * <code>WarmUp</code>).
+	 * 
+	 * @param maxMillis
+	 *            the maximum duration of the warm-up
+	 * @return what was done
+	 */
+	public WarmUp warmUp(long maxMillis) {
+		return WarmUp.warmUp(this.lexicons, maxMillis);
+	}
+}
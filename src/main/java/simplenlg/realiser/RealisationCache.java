@@ -0,0 +1,282 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGModule;
+import simplenlg.lexicon.Lexicon;
+
+/**
+ * <p>
+ * A bounded cache of sentence realisations, to be given to
+ * <code>Realiser.setCache()</code>. Realising the same clause many times
+ * (status messages, templates with the same fillers) then costs one
+ * fingerprint computation instead of the five realisation stages.
+ * </p>
+ * 
+ * <p>
+ * Entries are keyed by the fingerprint of the input element
+ * (see <code>NLGElement.getFingerprint()</code>), the lexicon of its factory
+ * and the version of that lexicon, and the class of the formatter of the
+ * realiser. When
+ * the lexicon is reloaded its version changes, so the entries realised
+ * with the old lexicon are never returned again; they are evicted as new
+ * entries are added. Elements built with several lexicons are keyed by the
+ * lexicon of the root element only.
+ * </p>
+ * 
+ * <p>
+ * When the cache is full the least recently used entry is evicted. Entries
+ * older than the time to live, if there is one, are evicted when they are
+ * next looked up. A cache can be shared by several realisers and threads.
+ * </p>
+ */
+public class RealisationCache {
+
+	private final int maximumSize;
+	private final long timeToLiveNanos;
+
+	private final LinkedHashMap<Key, CachedRealisation> entries;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * Creates a cache whose entries never expire.
+	 * 
+	 * @param maximumSize
+	 *            the maximum number of realisations kept
+	 */
+	public RealisationCache(int maximumSize) {
+		this(maximumSize, 0, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Creates a cache whose entries expire after the given time.
+	 * 
+	 * @param maximumSize
+	 *            the maximum number of realisations kept
+	 * @param timeToLive
+	 *            how long an entry is kept after being added, 0 for ever
+	 * @param unit
+	 *            the unit of timeToLive
+	 */
+	public RealisationCache(int maximumSize, long timeToLive, TimeUnit unit) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize); //$NON-NLS-1$
+		}
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("timeToLive must not be negative: " + timeToLive); //$NON-NLS-1$
+		}
+		this.maximumSize = maximumSize;
+		this.timeToLiveNanos = unit.toNanos(timeToLive);
+		this.entries = new LinkedHashMap<Key, CachedRealisation>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, CachedRealisation> eldest) {
+				if (size() > RealisationCache.this.maximumSize) {
+					RealisationCache.this.evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Creates the key of an element. It must be created before the element
+	 * is realised, since realisation can add features to the element.
+	 * 
+	 * @param element
+	 *            the element to be realised
+	 * @param formatter
+	 *            the formatter of the realiser, or null
+	 * @return the key
+	 */
+	Object createKey(NLGElement element, NLGModule formatter) {
+		Lexicon lexicon = element.getFactory() != null ? element.getFactory().getLexicon() : null;
+		return new Key(element.getFingerprint(), lexicon,
+				lexicon != null ? lexicon.getVersion() : 0,
+				formatter != null ? formatter.getClass() : null);
+	}
+
+	/**
+	 * Gets the realisation cached under this key, counting a hit or a miss.
+	 * 
+	 * @param key
+	 *            a key created by <code>createKey()</code>
+	 * @return the realisation, or null if there is none
+	 */
+	synchronized String get(Object key) {
+		CachedRealisation entry = this.entries.get(key);
+		if (entry != null && isExpired(entry, System.nanoTime())) {
+			this.entries.remove(key);
+			this.evictionCount.incrementAndGet();
+			entry = null;
+		}
+		if (entry == null) {
+			this.missCount.incrementAndGet();
+			return null;
+		}
+		this.hitCount.incrementAndGet();
+		return entry.realisation;
+	}
+
+	/**
+	 * Caches a realisation under this key.
+	 * 
+	 * @param key
+	 *            a key created by <code>createKey()</code>
+	 * @param realisation
+	 *            the realisation, not null
+	 */
+	synchronized void put(Object key, String realisation) {
+		this.entries.put((Key) key, new CachedRealisation(realisation, System.nanoTime()));
+	}
+
+	private boolean isExpired(CachedRealisation entry, long now) {
+		return this.timeToLiveNanos > 0 && now - entry.created >= this.timeToLiveNanos;
+	}
+
+	/**
+	 * Removes the expired entries and the entries realised with an older
+	 * version of their lexicon. This is never needed for correctness, but
+	 * frees their memory immediately.
+	 */
+	public synchronized void cleanUp() {
+		long now = System.nanoTime();
+		Iterator<Map.Entry<Key, CachedRealisation>> iterator = this.entries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Key, CachedRealisation> each = iterator.next();
+			Key key = each.getKey();
+			if (isExpired(each.getValue(), now)
+					|| (key.lexicon != null && key.lexicon.getVersion() != key.lexiconVersion)) {
+				iterator.remove();
+				this.evictionCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Removes all the entries. The hit, miss and eviction counts are kept.
+	 */
+	public synchronized void invalidateAll() {
+		this.entries.clear();
+	}
+
+	/**
+	 * @return the number of entries in the cache
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * @return the maximum number of entries in the cache
+	 */
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * @return the number of realisations found in the cache
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * @return the number of realisations not found in the cache
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * @return the number of entries removed because the cache was full
+	 *         or because they expired
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	/**
+	 * @return the proportion of lookups that were hits, 0 if there were none
+	 */
+	public double getHitRate() {
+		long hits = getHitCount();
+		long lookups = hits + getMissCount();
+		return lookups == 0 ? 0.0 : (double) hits / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return "RealisationCache[size=" + size() + ", hits=" + getHitCount() //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	private static final class Key {
+		private final long fingerprint;
+		private final Lexicon lexicon;
+		private final long lexiconVersion;
+		private final Class<?> formatter;
+
+		Key(long fingerprint, Lexicon lexicon, long lexiconVersion, Class<?> formatter) {
+			this.fingerprint = fingerprint;
+			this.lexicon = lexicon;
+			this.lexiconVersion = lexiconVersion;
+			this.formatter = formatter;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (this.fingerprint ^ (this.fingerprint >>> 32)) * 31
+					+ (int) this.lexiconVersion;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			return this.fingerprint == other.fingerprint
+					&& this.lexicon == other.lexicon
+					&& this.lexiconVersion == other.lexiconVersion
+					&& this.formatter == other.formatter;
+		}
+	}
+
+	private static final class CachedRealisation {
+		private final String realisation;
+		private final long created;
+
+		CachedRealisation(String realisation, long created) {
+			this.realisation = realisation;
+			this.created = created;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.NLGElement;
+
+/**
+ * <p>
+ * Receives a callback at the start and at the end of each stage of the
+ * realisations of a <code>Realiser</code>, for instance to measure their
+ * duration. Register it with <code>Realiser.addListener()</code>.
+ * </p>
+ * 
+ * <p>
+ * In the fused pipeline (see <code>Realiser.setFusedPipeline()</code>) the
+ * morphophonology is done during the <code>MORPHOLOGY</code> stage and there
+ * are no <code>MORPHOPHONOLOGY</code> callbacks. There are no
+ * <code>FORMATTING</code> callbacks when the realiser has no formatter.
+ * </p>
+ * 
+ * <p>
+ * A listener registered with several realisers is called from all the
+ * threads using them, and must be thread-safe.
+ * </p>
+ */
+public interface RealisationListener {
+
+	/**
+	 * Called before a stage.
+	 * 
+	 * @param stage
+	 *            the stage
+	 * @param language
+	 *            the language of the element being realised
+	 * @param input
+	 *            the input of the stage, which must not be modified
+	 */
+	void stageStarted(RealisationStage stage, Language language, NLGElement input);
+
+	/**
+	 * Called after a stage.
+	 * 
+	 * @param stage
+	 *            the stage
+	 * @param language
+	 *            the language of the element being realised
+	 * @param output
+	 *            the output of the stage (may be null), which must not be
+	 *            modified
+	 * @param elapsedNanos
+	 *            the duration of the stage in nanoseconds
+	 */
+	void stageEnded(RealisationStage stage, Language language, NLGElement output,
+			long elapsedNanos);
+}
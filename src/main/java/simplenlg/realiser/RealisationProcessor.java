@@ -0,0 +1,434 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import simplenlg.framework.NLGElement;
+
+/**
+ * <p>
+ * A <code>Flow.Processor</code> realising each element it receives as a
+ * sentence and publishing the realisations, for reactive pipelines.
+ * </p>
+ * 
+ * <p>
+ * The elements are realised on an executor (the common fork-join pool by
+ * default), at most <code>maxParallelism</code> at a time. The processor
+ * never holds more than <code>maxParallelism</code> elements, whether
+ * requested, being realised or realised and waiting for the subscriber to
+ * ask for them, so a slow subscriber slows the publisher down instead of
+ * filling the memory. If the processor is ordered (the default), the
+ * realisations are published in the order of the elements; otherwise each
+ * one is published as soon as it is ready.
+ * </p>
+ * 
+ * <p>
+ * A failed realisation does not end the stream: the failure handler is
+ * called with the element and the exception, and the string it returns is
+ * published in place of the realisation, unless it is null. The default
+ * handler, <code>ERROR_TEXT</code>, publishes the exception as text. With
+ * <code>setCancelOnFailure(true)</code>, the first failure ends the stream
+ * instead: once the realisations before it have been published, the
+ * upstream subscription is cancelled and the exception is passed on to the
+ * subscriber. An error from the publisher is passed on to the subscriber
+ * once the elements received before it have been published.
+ * </p>
+ * 
+ * <p>
+ * A processor has a single subscriber, and a single publisher. As with
+ * <code>BatchRealiser</code>, each thread of the executor uses its own
+ * realiser, and the elements must not be modified once published.
+ * </p>
+ */
+public class RealisationProcessor implements Flow.Processor<NLGElement, String> {
+
+	/**
+	 * The default failure handler, publishing the exception as text, for
+	 * instance <code>java.lang.IllegalStateException: message</code>.
+	 */
+	public static final BiFunction<NLGElement, Throwable, String> ERROR_TEXT =
+			new BiFunction<NLGElement, Throwable, String>() {
+				@Override
+				public String apply(NLGElement element, Throwable error) {
+					return error.toString();
+				}
+			};
+
+	private final Executor executor;
+	private final int maxParallelism;
+	private final boolean ordered;
+	private final ThreadLocal<Realiser> realisers;
+	private volatile BiFunction<? super NLGElement, ? super Throwable, String> failureHandler = ERROR_TEXT;
+	private volatile boolean cancelOnFailure = false;
+
+	private final Object lock = new Object();
+
+	// guarded by lock
+	private Flow.Subscription upstream;
+	private Flow.Subscriber<? super String> downstream;
+	/** The elements being realised or waiting to be published, in order. */
+	private final ArrayDeque<Slot> slots = new ArrayDeque<Slot>();
+	/** The realised elements of an unordered processor. */
+	private final ArrayDeque<Slot> ready = new ArrayDeque<Slot>();
+	private int inFlight = 0;
+	private long demand = 0;
+	private int requested = 0;
+	private boolean upstreamDone = false;
+	private Throwable upstreamError = null;
+	private boolean cancelled = false;
+	private boolean terminated = false;
+	private boolean draining = false;
+	private boolean missed = false;
+
+	/** An element being realised, then its realisation. */
+	private static class Slot {
+		String realisation;
+		Throwable error;
+		boolean done = false;
+	}
+
+	/**
+	 * Creates an ordered processor realising on the common fork-join pool
+	 * with realisers with the default settings.
+	 * 
+	 * @param maxParallelism
+	 *            the maximum number of elements held by the processor
+	 */
+	public RealisationProcessor(int maxParallelism) {
+		this(ForkJoinPool.commonPool(), maxParallelism, true, new Supplier<Realiser>() {
+			@Override
+			public Realiser get() {
+				return new Realiser();
+			}
+		});
+	}
+
+	/**
+	 * Creates a processor.
+	 * 
+	 * @param executor
+	 *            the executor realising the elements
+	 * @param maxParallelism
+	 *            the maximum number of elements held by the processor
+	 * @param ordered
+	 *            true to publish the realisations in the order of the
+	 *            elements
+	 * @param realiserFactory
+	 *            creates the realiser of each thread, with the formatter,
+	 *            cache, etc. wanted
+	 */
+	public RealisationProcessor(Executor executor, int maxParallelism, boolean ordered,
+			Supplier<Realiser> realiserFactory) {
+		if (executor == null || realiserFactory == null) {
+			throw new NullPointerException();
+		}
+		if (maxParallelism <= 0) {
+			throw new IllegalArgumentException("maxParallelism must be positive: " + maxParallelism); //$NON-NLS-1$
+		}
+		this.executor = executor;
+		this.maxParallelism = maxParallelism;
+		this.ordered = ordered;
+		this.realisers = ThreadLocal.withInitial(realiserFactory);
+	}
+
+	/**
+	 * @param failureHandler
+	 *            called with an element and the exception thrown by its
+	 *            realisation; returns the string published instead, or null
+	 *            to publish nothing; <code>ERROR_TEXT</code> by default. If
+	 *            null, nothing is published for a failed element.
+	 */
+	public void setFailureHandler(
+			BiFunction<? super NLGElement, ? super Throwable, String> failureHandler) {
+		this.failureHandler = failureHandler;
+	}
+
+	/**
+	 * @param cancelOnFailure
+	 *            true for the first failed realisation to cancel the upstream
+	 *            subscription and end the stream with its exception, instead
+	 *            of being passed to the failure handler; false by default
+	 */
+	public void setCancelOnFailure(boolean cancelOnFailure) {
+		this.cancelOnFailure = cancelOnFailure;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super String> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException();
+		}
+		synchronized (this.lock) {
+			if (this.downstream == null) {
+				this.downstream = subscriber;
+				subscriber = null;
+			}
+		}
+		if (subscriber != null) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+					// never used
+				}
+
+				@Override
+				public void cancel() {
+					// never used
+				}
+			});
+			subscriber.onError(new IllegalStateException("Processor already subscribed")); //$NON-NLS-1$
+			return;
+		}
+		this.downstream.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+				if (n <= 0) {
+					cancelWith(new IllegalArgumentException("non-positive request: " + n)); //$NON-NLS-1$
+					return;
+				}
+				synchronized (RealisationProcessor.this.lock) {
+					long total = RealisationProcessor.this.demand + n;
+					RealisationProcessor.this.demand = total < 0 ? Long.MAX_VALUE : total;
+				}
+				drain();
+			}
+
+			@Override
+			public void cancel() {
+				cancelWith(null);
+			}
+		});
+		drain();
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		if (subscription == null) {
+			throw new NullPointerException();
+		}
+		boolean accepted;
+		synchronized (this.lock) {
+			accepted = this.upstream == null && !this.cancelled;
+			if (accepted) this.upstream = subscription;
+		}
+		if (!accepted) {
+			subscription.cancel();
+			return;
+		}
+		drain();
+	}
+
+	@Override
+	public void onNext(final NLGElement element) {
+		if (element == null) {
+			throw new NullPointerException();
+		}
+		final Slot slot = new Slot();
+		synchronized (this.lock) {
+			if (this.cancelled || this.upstreamDone) return;
+			this.requested--;
+			this.inFlight++;
+			if (this.ordered) this.slots.add(slot);
+		}
+		try {
+			this.executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					realise(element, slot);
+				}
+			});
+		} catch (RuntimeException ex) {
+			// rejected by the executor: handled as a failure of this element
+			complete(element, slot, null, ex);
+		}
+	}
+
+	private void realise(NLGElement element, Slot slot) {
+		String realisation = null;
+		Throwable error = null;
+		try {
+			realisation = this.realisers.get().realiseSentence(element);
+		} catch (RuntimeException ex) {
+			error = ex;
+		} catch (StackOverflowError ex) {
+			error = ex;
+		}
+		complete(element, slot, realisation, error);
+	}
+
+	private void complete(NLGElement element, Slot slot, String realisation, Throwable error) {
+		if (error != null && !this.cancelOnFailure) {
+			BiFunction<? super NLGElement, ? super Throwable, String> handler = this.failureHandler;
+			realisation = null;
+			if (handler != null) {
+				try {
+					realisation = handler.apply(element, error);
+				} catch (RuntimeException ex) {
+					cancelWith(ex);
+					return;
+				}
+			}
+			error = null;
+		}
+		synchronized (this.lock) {
+			slot.realisation = realisation;
+			slot.error = error;
+			slot.done = true;
+			this.inFlight--;
+			if (!this.ordered) this.ready.add(slot);
+		}
+		drain();
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		if (throwable == null) {
+			throw new NullPointerException();
+		}
+		synchronized (this.lock) {
+			if (this.upstreamDone) return;
+			this.upstreamDone = true;
+			this.upstreamError = throwable;
+		}
+		drain();
+	}
+
+	@Override
+	public void onComplete() {
+		synchronized (this.lock) {
+			if (this.upstreamDone) return;
+			this.upstreamDone = true;
+		}
+		drain();
+	}
+
+	/**
+	 * Cancels the upstream subscription and, if there is an error, passes it
+	 * on to the subscriber.
+	 */
+	private void cancelWith(Throwable error) {
+		Flow.Subscription subscription;
+		Flow.Subscriber<? super String> subscriber;
+		synchronized (this.lock) {
+			if (this.cancelled) return;
+			this.cancelled = true;
+			subscription = this.upstream;
+			subscriber = this.terminated ? null : this.downstream;
+			this.terminated = true;
+			this.slots.clear();
+			this.ready.clear();
+		}
+		if (subscription != null) subscription.cancel();
+		if (error != null && subscriber != null) subscriber.onError(error);
+	}
+
+	/**
+	 * Publishes what can be published, asks the publisher for more elements
+	 * when there is room, and ends the stream when everything is published.
+	 * Only one thread drains at a time; a call made while another thread is
+	 * draining makes that thread go round once more.
+	 */
+	private void drain() {
+		synchronized (this.lock) {
+			if (this.draining) {
+				this.missed = true;
+				return;
+			}
+			this.draining = true;
+		}
+		while (true) {
+			Flow.Subscriber<? super String> subscriber;
+			Flow.Subscription subscription = null;
+			int toRequest = 0;
+			String next = null;
+			boolean complete = false;
+			Throwable error = null;
+			Throwable failure = null;
+			synchronized (this.lock) {
+				this.missed = false;
+				subscriber = this.downstream;
+				if (this.cancelled || this.terminated) {
+					this.draining = false;
+					return;
+				}
+				ArrayDeque<Slot> published = this.ordered ? this.slots : this.ready;
+				Slot head = published.peek();
+				if (subscriber != null && head != null && head.done && head.error != null) {
+					// with cancelOnFailure, the first failure ends the stream
+					failure = head.error;
+					subscription = this.upstream;
+					this.cancelled = true;
+					this.terminated = true;
+					this.draining = false;
+					this.slots.clear();
+					this.ready.clear();
+				} else {
+					boolean progress = false;
+					if (subscriber != null && head != null && head.done
+							&& (head.realisation == null || this.demand > 0)) {
+						published.poll();
+						if (head.realisation != null) {
+							next = head.realisation;
+							this.demand--;
+						}
+						progress = true;
+					}
+					int held = this.ordered ? this.slots.size() : this.inFlight + this.ready.size();
+					if (!progress && subscriber != null && this.upstreamDone && held == 0) {
+						complete = true;
+						error = this.upstreamError;
+						this.terminated = true;
+						progress = true;
+					}
+					if (!this.upstreamDone && this.upstream != null) {
+						int room = this.maxParallelism - held - this.requested;
+						if (room > 0) {
+							this.requested += room;
+							toRequest = room;
+							subscription = this.upstream;
+							progress = true;
+						}
+					}
+					if (!progress && !this.missed) {
+						this.draining = false;
+						return;
+					}
+				}
+			}
+			if (failure != null) {
+				if (subscription != null) subscription.cancel();
+				subscriber.onError(failure);
+				return;
+			}
+			if (toRequest > 0) subscription.request(toRequest);
+			if (next != null) subscriber.onNext(next);
+			if (complete) {
+				if (error != null) subscriber.onError(error);
+				else subscriber.onComplete();
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+/**
+ * The stages of the realisation of an element by a <code>Realiser</code>,
+ * in the order in which they are performed.
+ */
+public enum RealisationStage {
+
+	/** Builds the tree of words from the phrase specifications. */
+	SYNTAX,
+
+	/** Inflects the words. */
+	MORPHOLOGY,
+
+	/** Applies the rules between adjacent words (elision, contraction...). */
+	MORPHOPHONOLOGY,
+
+	/** Adds punctuation and capitalisation. */
+	ORTHOGRAPHY,
+
+	/** Formats the text with the formatter of the realiser. */
+	FORMATTING;
+}
@@ -19,10 +19,28 @@
 
 package simplenlg.realiser;
 
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import simplenlg.features.Feature;
+import simplenlg.format.english.StreamingFormatter;
 import simplenlg.framework.DocumentCategory;
 import simplenlg.framework.DocumentElement;
+import simplenlg.framework.Language;
 import simplenlg.framework.NLGElement;
 import simplenlg.framework.NLGModule;
+import simplenlg.framework.PhraseMemo;
+import simplenlg.framework.RealisationBudget;
+import simplenlg.framework.RealisationBudgetExceededException;
+import simplenlg.framework.SentenceTemplate;
+import simplenlg.framework.StringElement;
+import simplenlg.jfr.FlightRecording;
+import simplenlg.morphophonology.MorphophonologyEngine;
 import simplenlg.format.english.TextFormatter;
 
 /**
@@ -33,6 +51,11 @@ import simplenlg.format.english.TextFormatter;
  * thus being language independant and needing no lexicon.
  * It uses the same text formatter.
  * 
+ * Once configured, a Realiser can be used by several threads at the same
+ * time, provided its formatter, listeners and cache are thread-safe (the
+ * formatters of simplenlg.format.english are). The setters must not be
+ * called while it is in use.
+ * 
  * @author vaudrypl
  *
  */
@@ -40,6 +63,15 @@ public class Realiser {
 
 	private NLGModule formatter = null;
 	private boolean debug = false;
+	private TreePrintingListener debugListener = null;
+	private RealisationListener[] listeners = new RealisationListener[0];
+	private RealisationCache cache = null;
+	private boolean phraseMemoisation = false;
+	private boolean fusedPipeline = false;
+	private RealisationBudget budget = null;
+	private Function<? super NLGElement, String> budgetFallback = null;
+	// an engine keeps working arrays, so each thread needs its own
+	private final ThreadLocal<MorphophonologyEngine> engine = new ThreadLocal<MorphophonologyEngine>();
 	
 	/**
 	 * create a realiser (no lexicon)
@@ -55,69 +87,446 @@ public class Realiser {
 	}
 
 	public NLGElement realise(NLGElement element) {
-		if (this.debug) {
-			System.out.println("INITIAL TREE\n"); //$NON-NLS-1$
-			System.out.println(element.printTree(null));
+		RealisationBudget.Tracker tracker = this.budget != null ? this.budget.enter() : null;
+		try {
+			return realiseWithMemo(element);
+		} catch (RealisationBudgetExceededException ex) {
+			return new StringElement(fallback(element, ex));
+		} finally {
+			if (tracker != null)
+				tracker.exit();
 		}
-		NLGElement postSyntax = element.realiseSyntax();
-		if (this.debug) {
-			System.out.println("\nPOST-SYNTAX TREE\n"); //$NON-NLS-1$
-			System.out.println(postSyntax.printTree(null));
+	}
+
+	private NLGElement realiseWithMemo(NLGElement element) {
+		PhraseMemo memo = this.phraseMemoisation ? PhraseMemo.enter() : null;
+		try {
+			return realiseStages(element, true);
+		} finally {
+			if (memo != null)
+				memo.exit();
 		}
-		NLGElement postMorphology = postSyntax!=null ? postSyntax.realiseMorphology() : null;
-		if (this.debug) {
-			System.out.println("\nPOST-MORPHOLOGY TREE\n"); //$NON-NLS-1$
-			System.out.println(postMorphology.printTree(null));
+	}
+
+	/**
+	 * @return the fallback realisation of an element whose budget was spent
+	 * @throws RealisationBudgetExceededException
+	 *             the exception given, if there is no fallback
+	 */
+	private String fallback(NLGElement element, RealisationBudgetExceededException ex) {
+		if (this.budgetFallback == null)
+			throw ex;
+		return this.budgetFallback.apply(element);
+	}
+
+	/**
+	 * Performs all the stages, the formatting only if format is true.
+	 */
+	private NLGElement realiseStages(NLGElement element, boolean format) {
+		Object event = FlightRecording.isRecording() ? FlightRecording.beginRealisation(element) : null;
+		if (event != null) {
+			long[] stageNanos = new long[RealisationStage.values().length];
+			NLGElement realised = realiseStagesWithListeners(element, format, stageNanos);
+			FlightRecording.endRealisation(event, realised, stageNanos);
+			return realised;
 		}
-		NLGElement postMorphophonology = postMorphology!=null ? postMorphology.realiseMorphophonology() : null;
-		if (this.debug) {
-			System.out.println("\nPOST-MORPHOPHONOLOGY TREE\n"); //$NON-NLS-1$
-			System.out.println(postMorphophonology.printTree(null));
+		if (this.listeners.length != 0) {
+			return realiseStagesWithListeners(element, format, null);
 		}
+		NLGElement postSyntax = element.realiseSyntax();
+		RealisationBudget.checkpoint();
+		NLGElement postMorphophonology;
+		if (this.fusedPipeline) {
+			postMorphophonology = postSyntax!=null ? getEngine().realiseWithMorphology(postSyntax) : null;
+		} else {
+			NLGElement postMorphology = postSyntax!=null ? postSyntax.realiseMorphology() : null;
+			RealisationBudget.checkpoint();
+			postMorphophonology = postMorphology!=null ? postMorphology.realiseMorphophonology() : null;
+		}
+		RealisationBudget.checkpoint();
 		NLGElement postOrthography = postMorphophonology!=null ? postMorphophonology.realiseOrthography() : null;
-		if (this.debug) {
-			System.out.println("\nPOST-ORTHOGRAPHY TREE\n"); //$NON-NLS-1$
-			System.out.println(postOrthography.printTree(null));
-		}
-		NLGElement postFormatter = null;
-		if (this.formatter != null) {
-			postFormatter = this.formatter.realise(postOrthography);
-			if (this.debug) {
-				System.out.println("\nPOST-FORMATTER TREE\n"); //$NON-NLS-1$
-				System.out.println(postFormatter.printTree(null));
-			}
+		if (format && this.formatter != null) {
+			RealisationBudget.checkpoint();
+			return this.formatter.realise(postOrthography);
+		}
+		return postOrthography;
+	}
+
+	/**
+	 * Same as realiseStages(), calling the listeners around each stage.
+	 * The duration of each stage is also stored in stageNanos, if not null.
+	 */
+	private NLGElement realiseStagesWithListeners(NLGElement element, boolean format,
+			long[] stageNanos) {
+		Language language = element.getLanguage();
+		long start = stageStarted(RealisationStage.SYNTAX, language, element);
+		NLGElement postSyntax = element.realiseSyntax();
+		stageEnded(RealisationStage.SYNTAX, language, postSyntax, start, stageNanos);
+		RealisationBudget.checkpoint();
+
+		NLGElement postMorphophonology;
+		if (this.fusedPipeline) {
+			start = stageStarted(RealisationStage.MORPHOLOGY, language, postSyntax);
+			postMorphophonology = postSyntax!=null ? getEngine().realiseWithMorphology(postSyntax) : null;
+			stageEnded(RealisationStage.MORPHOLOGY, language, postMorphophonology, start, stageNanos);
 		} else {
-			postFormatter = postOrthography;
+			start = stageStarted(RealisationStage.MORPHOLOGY, language, postSyntax);
+			NLGElement postMorphology = postSyntax!=null ? postSyntax.realiseMorphology() : null;
+			stageEnded(RealisationStage.MORPHOLOGY, language, postMorphology, start, stageNanos);
+			RealisationBudget.checkpoint();
+
+			start = stageStarted(RealisationStage.MORPHOPHONOLOGY, language, postMorphology);
+			postMorphophonology = postMorphology!=null ? postMorphology.realiseMorphophonology() : null;
+			stageEnded(RealisationStage.MORPHOPHONOLOGY, language, postMorphophonology, start, stageNanos);
+		}
+
+		RealisationBudget.checkpoint();
+		start = stageStarted(RealisationStage.ORTHOGRAPHY, language, postMorphophonology);
+		NLGElement postOrthography = postMorphophonology!=null ? postMorphophonology.realiseOrthography() : null;
+		stageEnded(RealisationStage.ORTHOGRAPHY, language, postOrthography, start, stageNanos);
+
+		if (!format || this.formatter == null) {
+			return postOrthography;
 		}
+		RealisationBudget.checkpoint();
+		start = stageStarted(RealisationStage.FORMATTING, language, postOrthography);
+		NLGElement postFormatter = this.formatter.realise(postOrthography);
+		stageEnded(RealisationStage.FORMATTING, language, postFormatter, start, stageNanos);
 		return postFormatter;
 	}
+
+	private long stageStarted(RealisationStage stage, Language language, NLGElement input) {
+		for (RealisationListener listener : this.listeners) {
+			listener.stageStarted(stage, language, input);
+		}
+		return System.nanoTime();
+	}
+
+	private void stageEnded(RealisationStage stage, Language language, NLGElement output,
+			long start, long[] stageNanos) {
+		long elapsed = System.nanoTime() - start;
+		if (stageNanos != null) {
+			stageNanos[stage.ordinal()] = elapsed;
+		}
+		for (RealisationListener listener : this.listeners) {
+			listener.stageEnded(stage, language, output, elapsed);
+		}
+	}
+
+	private MorphophonologyEngine getEngine() {
+		MorphophonologyEngine threadEngine = this.engine.get();
+		if (threadEngine == null) {
+			threadEngine = new MorphophonologyEngine();
+			this.engine.set(threadEngine);
+		}
+		return threadEngine;
+	}
 	
+	/**
+	 * <p>
+	 * Realises the element and writes its realisation to <code>out</code>.
+	 * If the formatter is a <code>StreamingFormatter</code> and the element
+	 * is a document, section or list, its components are realised, formatted
+	 * and written one at a time, so that the beginning of a long document is
+	 * written before the rest is realised and the realised document is never
+	 * held in memory as a whole. <code>out</code> is flushed after each
+	 * component if it is <code>Flushable</code>.
+	 * </p>
+	 * 
+	 * <p>
+	 * A <code>StreamingFormatter</code> also writes the formatted text of
+	 * each component straight to <code>out</code>, instead of building a
+	 * string at each level of the document and copying it into the string of
+	 * the level above. <code>out</code> can be a reusable
+	 * <code>CharBuffer</code>, which throws a
+	 * <code>BufferOverflowException</code> if it is too small, or a
+	 * <code>ByteBufferSink</code>, which encodes the text in UTF-8 straight
+	 * into <code>ByteBuffer</code>s.
+	 * </p>
+	 * 
+	 * <p>
+	 * The text written is the same as the realisation of the whole element,
+	 * except that morphophonology rules are not applied between the last word
+	 * of a component and the first word of the next one, and spaces at the
+	 * beginning or the end of the whole text are not removed.
+	 * </p>
+	 * 
+	 * @param element
+	 *            the element to realise
+	 * @param out
+	 *            where the realisation is written
+	 * @throws IOException
+	 *             if <code>out</code> throws one
+	 */
+	public void realise(NLGElement element, Appendable out) throws IOException {
+		PhraseMemo memo = this.phraseMemoisation ? PhraseMemo.enter() : null;
+		RealisationBudget.Tracker tracker = this.budget != null ? this.budget.enter() : null;
+		try {
+			write(element, out);
+		} catch (RealisationBudgetExceededException ex) {
+			out.append(fallback(element, ex));
+		} finally {
+			if (tracker != null)
+				tracker.exit();
+			if (memo != null)
+				memo.exit();
+		}
+	}
+
+	private void write(NLGElement element, Appendable out) throws IOException {
+		if (element == null)
+			return;
+		if (this.formatter instanceof StreamingFormatter
+				&& ((StreamingFormatter) this.formatter).isStreamable(element)
+				&& !element.getFeatureAsBoolean(Feature.ELIDED).booleanValue()) {
+			StreamingFormatter streamingFormatter = (StreamingFormatter) this.formatter;
+			streamingFormatter.startContainer(element, out);
+			List<NLGElement> components = element.getChildren();
+			if (components != null) {
+				// copied, the components are replaced as they are realised
+				for (NLGElement component : new ArrayList<NLGElement>(components)) {
+					write(component, out);
+				}
+			}
+			streamingFormatter.endContainer(element, out);
+		} else if (this.formatter instanceof StreamingFormatter) {
+			// formatted straight into out, without intermediate strings
+			NLGElement postOrthography = realiseStages(element, false);
+			if (postOrthography != null) {
+				Language language = element.getLanguage();
+				long start = this.listeners.length != 0
+						? stageStarted(RealisationStage.FORMATTING, language, postOrthography) : 0;
+				((StreamingFormatter) this.formatter).write(postOrthography, out);
+				if (this.listeners.length != 0) {
+					stageEnded(RealisationStage.FORMATTING, language, null, start, null);
+				}
+				if (out instanceof Flushable) {
+					((Flushable) out).flush();
+				}
+			}
+		} else {
+			NLGElement realised = realiseStages(element, true);
+			if (realised != null) {
+				out.append(realised.getRealisation());
+				if (out instanceof Flushable) {
+					((Flushable) out).flush();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Realises each element of the list in turn. Use a
+	 * <code>BatchRealiser</code> to realise them in parallel.
+	 * 
+	 * @param elements
+	 * @return the realised elements, in the same order (null where the
+	 *         element was null)
+	 */
+	public List<NLGElement> realise(List<NLGElement> elements) {
+		if (elements == null)
+			return null;
+		PhraseMemo memo = this.phraseMemoisation ? PhraseMemo.enter() : null;
+		try {
+			List<NLGElement> realisedList = new ArrayList<NLGElement>(elements.size());
+			for (NLGElement eachElement : elements) {
+				// each element has its own budget
+				realisedList.add(eachElement != null ? realise(eachElement) : null);
+			}
+			return realisedList;
+		} finally {
+			if (memo != null)
+				memo.exit();
+		}
+	}
+
 	/** Convenience class to realise any NLGElement as a sentence
 	 * @param element
 	 * @return String realisation of the NLGElement
 	 */
 	public String realiseSentence(NLGElement element) {
+		Object cacheKey = null;
+		if (this.cache != null && !this.debug) {
+			cacheKey = this.cache.createKey(element, this.formatter);
+			String cached = this.cache.get(cacheKey);
+			if (cached != null)
+				return cached;
+		}
+
 		NLGElement realised = null;
-		if (element instanceof DocumentElement)
-			realised = realise(element);
-		else {
-			DocumentElement sentence
-				= new DocumentElement(DocumentCategory.SENTENCE, null, element.getFactory());
-			sentence.addComponent(element);
-			realised = realise(sentence);
+		RealisationBudget.Tracker tracker = this.budget != null ? this.budget.enter() : null;
+		try {
+			if (element instanceof DocumentElement)
+				realised = realiseWithMemo(element);
+			else {
+				DocumentElement sentence
+					= new DocumentElement(DocumentCategory.SENTENCE, null, element.getFactory());
+				sentence.addComponent(element);
+				realised = realiseWithMemo(sentence);
+			}
+		} catch (RealisationBudgetExceededException ex) {
+			// the fallback is not cached
+			return fallback(element, ex);
+		} finally {
+			if (tracker != null)
+				tracker.exit();
 		}
 		
 		if (realised == null)
 			return null;
-		else
-			return realised.getRealisation();
+		String realisation = realised.getRealisation();
+		if (cacheKey != null)
+			this.cache.put(cacheKey, realisation);
+		return realisation;
+	}
+
+	/**
+	 * Realises a compiled sentence template with the given fillers, and
+	 * formats it with the formatter of this realiser. The listeners and the
+	 * cache are not used.
+	 * 
+	 * @param template
+	 *            the template
+	 * @param fillers
+	 *            a filler for every slot of the template, by slot name
+	 * @return String realisation of the filled template
+	 * @see SentenceTemplate#fill(Map)
+	 */
+	public String realiseSentence(SentenceTemplate template, Map<String, ?> fillers) {
+		NLGElement realised = template.fill(fillers);
+		if (realised != null && this.formatter != null) {
+			realised = this.formatter.realise(realised);
+		}
+		return realised != null ? realised.getRealisation() : null;
 	}
 
 	public void setFormatter(NLGModule formatter) {
 		this.formatter = formatter;
 	}
 	
+	/**
+	 * Sets the cache used by <code>realiseSentence()</code>, or removes it
+	 * if null. There is no cache by default. The cache is not used in
+	 * debug mode.
+	 * 
+	 * @param cache
+	 */
+	public void setCache(RealisationCache cache) {
+		this.cache = cache;
+	}
+
+	public RealisationCache getCache() {
+		return this.cache;
+	}
+
+	/**
+	 * Turns on or off the memoisation of noun phrases and prepositional
+	 * phrases (see <code>PhraseMemo</code>). When on, a phrase that appears
+	 * several times in the element given to <code>realise()</code> is
+	 * realised only once. To share the memo between several calls, wrap
+	 * them between <code>PhraseMemo.enter()</code> and <code>exit()</code>.
+	 * It is off by default.
+	 * 
+	 * @param memoisationOn
+	 */
+	public void setPhraseMemoisation(boolean memoisationOn) {
+		this.phraseMemoisation = memoisationOn;
+	}
+
+	public boolean isPhraseMemoisation() {
+		return this.phraseMemoisation;
+	}
+
+	/**
+	 * Chooses between the staged pipeline, where the morphology and the
+	 * morphophonology each traverse the whole tree, and the fused pipeline,
+	 * where a <code>MorphophonologyEngine</code> does both in one traversal.
+	 * Both give the same realisation; the staged pipeline is the default
+	 * and the reference.
+	 * 
+	 * @param fused
+	 */
+	public void setFusedPipeline(boolean fused) {
+		this.fusedPipeline = fused;
+	}
+
+	public boolean isFusedPipeline() {
+		return this.fusedPipeline;
+	}
+
+	/**
+	 * Limits the time and the number of nodes spent on each call to
+	 * <code>realise()</code> or <code>realiseSentence()</code> (each element
+	 * for a list), or removes the limits if null. There are no limits by
+	 * default. When the budget runs out, the realisation stops with a
+	 * <code>RealisationBudgetExceededException</code>, or returns the
+	 * fallback realisation if there is one (see
+	 * <code>setBudgetFallback()</code>).
+	 * 
+	 * @param budget
+	 * @see RealisationBudget
+	 */
+	public void setBudget(RealisationBudget budget) {
+		this.budget = budget;
+	}
+
+	public RealisationBudget getBudget() {
+		return this.budget;
+	}
+
+	/**
+	 * Sets the function giving the realisation of an element whose budget
+	 * ran out (for instance a canned "Details are not available."), instead
+	 * of throwing a <code>RealisationBudgetExceededException</code>. It is
+	 * not cached. When streaming, it is written after the text already
+	 * written.
+	 * 
+	 * @param fallback
+	 *            the fallback realisation of an element, or null to throw
+	 */
+	public void setBudgetFallback(Function<? super NLGElement, String> fallback) {
+		this.budgetFallback = fallback;
+	}
+
+	/**
+	 * Registers a listener called at the start and end of each stage of
+	 * each realisation. Without listeners the stages are not timed at all.
+	 * 
+	 * @param listener
+	 */
+	public void addListener(RealisationListener listener) {
+		if (listener == null) return;
+		RealisationListener[] newListeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+		newListeners[this.listeners.length] = listener;
+		this.listeners = newListeners;
+	}
+
+	/**
+	 * Unregisters a listener, if it was registered.
+	 * 
+	 * @param listener
+	 */
+	public void removeListener(RealisationListener listener) {
+		List<RealisationListener> newListeners = new ArrayList<RealisationListener>(Arrays.asList(this.listeners));
+		if (newListeners.remove(listener)) {
+			this.listeners = newListeners.toArray(new RealisationListener[newListeners.size()]);
+		}
+	}
+
+	/**
+	 * In debug mode, the tree is printed to the standard output before and
+	 * after each stage by a <code>TreePrintingListener</code>.
+	 * 
+	 * @param debugOn
+	 */
 	public void setDebugMode(boolean debugOn) {
+		if (debugOn && this.debugListener == null) {
+			this.debugListener = new TreePrintingListener();
+			addListener(this.debugListener);
+		} else if (!debugOn && this.debugListener != null) {
+			removeListener(this.debugListener);
+			this.debugListener = null;
+		}
 		this.debug = debugOn;
 	}
 }
@@ -0,0 +1,70 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+import java.io.PrintStream;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.NLGElement;
+
+/**
+ * A <code>RealisationListener</code> printing the tree of the element
+ * before the first stage and after each stage. This is what
+ * <code>Realiser.setDebugMode(true)</code> registers.
+ */
+public class TreePrintingListener implements RealisationListener {
+
+	private final PrintStream out;
+
+	/**
+	 * Creates a listener printing to the standard output.
+	 */
+	public TreePrintingListener() {
+		this(System.out);
+	}
+
+	/**
+	 * @param out
+	 *            where the trees are printed
+	 */
+	public TreePrintingListener(PrintStream out) {
+		this.out = out;
+	}
+
+	@Override
+	public void stageStarted(RealisationStage stage, Language language, NLGElement input) {
+		if (stage == RealisationStage.SYNTAX) {
+			this.out.println("INITIAL TREE\n"); //$NON-NLS-1$
+			printTree(input);
+		}
+	}
+
+	@Override
+	public void stageEnded(RealisationStage stage, Language language, NLGElement output,
+			long elapsedNanos) {
+		String name = stage == RealisationStage.FORMATTING ? "FORMATTER" : stage.name(); //$NON-NLS-1$
+		this.out.println("\nPOST-" + name + " TREE\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		printTree(output);
+	}
+
+	private void printTree(NLGElement element) {
+		this.out.println(element != null ? element.printTree(null) : "null"); //$NON-NLS-1$
+	}
+}
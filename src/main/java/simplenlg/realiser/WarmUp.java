@@ -0,0 +1,310 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.realiser;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.Tense;
+import simplenlg.format.english.HTMLFormatter;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.Language;
+import simplenlg.framework.LanguageHelpers;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * <p>
+ * Warms up the realisation of some languages, so that the first requests
+ * of an application are not slower than the others. The first realisations
+ * after startup wait for the lexicon to be parsed, for the helper and rule
+ * classes to be loaded and initialised, and for the just-in-time compiler
+ * to compile the methods used all the time.
+ * </p>
+ * 
+ * <p>
+ * <code>warmUp()</code> loads the lexicons (or uses those given), loads the
+ * helpers of each language, then realises a small built-in corpus of
+ * sentences and documents (tenses, negation, passive, questions,
+ * coordination, modifiers, text and HTML formatting, with and without the
+ * fused pipeline) round after round. It stops when the JIT has compiled
+ * nothing new for a while, or after <code>maxMillis</code>. If the JVM does
+ * not report its compilation time, a fixed number of rounds is run.
+ * </p>
+ * 
+ * <pre>
+ * WarmUp warmUp = WarmUp.warmUp(Language.DUTCH, Language.ENGLISH);
+ * Lexicon dutch = warmUp.getLexicon(Language.DUTCH);
+ * ...
+ * boolean ready = WarmUp.isWarm(Language.DUTCH); // readiness probe
+ * </pre>
+ */
+public final class WarmUp {
+
+	/** The default maximum duration of a warm-up, in milliseconds. */
+	public static final long DEFAULT_MAX_MILLIS = 10000;
+
+	/** Rounds run before the compilation time is looked at. */
+	private static final int MIN_ROUNDS = 20;
+
+	/** Rounds between two looks at the compilation time. */
+	private static final int ROUNDS_PER_CHECK = 10;
+
+	/** Rounds run if the compilation time is not available. */
+	private static final int FIXED_ROUNDS = 300;
+
+	/**
+	 * Compilation time below which a check counts as quiet, in
+	 * milliseconds, and number of quiet checks in a row needed to stop.
+	 */
+	private static final long QUIET_COMPILATION_MILLIS = 5;
+	private static final int QUIET_CHECKS = 3;
+
+	// bit i is set once Language.values()[i] has been warmed up
+	private static volatile int warmLanguages = 0;
+
+	private final Map<Language, Lexicon> lexicons;
+	private final int rounds;
+	private final long nanos;
+	private final boolean compiled;
+
+	private WarmUp(Map<Language, Lexicon> lexicons, int rounds, long nanos, boolean compiled) {
+		this.lexicons = Collections.unmodifiableMap(lexicons);
+		this.rounds = rounds;
+		this.nanos = nanos;
+		this.compiled = compiled;
+	}
+
+	/**
+	 * Warms up the given languages with their built-in lexicons, for at most
+	 * <code>DEFAULT_MAX_MILLIS</code>.
+	 * 
+	 * @param languages
+	 * @return the lexicons loaded and what was done
+	 */
+	public static WarmUp warmUp(Language... languages) {
+		Map<Language, Lexicon> lexicons = new EnumMap<Language, Lexicon>(Language.class);
+		for (Language language : languages) {
+			if (!lexicons.containsKey(language)) {
+				lexicons.put(language, Lexicon.getDefaultLexicon(language));
+			}
+		}
+		return warmUp(lexicons, DEFAULT_MAX_MILLIS);
+	}
+
+	/**
+	 * Warms up the languages of the given lexicons, with these lexicons.
+	 * 
+	 * @param lexicons
+	 *            the lexicon of each language to warm up
+	 * @param maxMillis
+	 *            the maximum duration of the rounds of realisations
+	 * @return what was done
+	 */
+	public static WarmUp warmUp(Map<Language, Lexicon> lexicons, long maxMillis) {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxMillis);
+		Map<Language, Lexicon> warmed = new EnumMap<Language, Lexicon>(lexicons);
+		Map<Language, NLGFactory> factories = new EnumMap<Language, NLGFactory>(Language.class);
+		for (Map.Entry<Language, Lexicon> entry : warmed.entrySet()) {
+			LanguageHelpers.forLanguage(entry.getKey());
+			factories.put(entry.getKey(), new NLGFactory(entry.getValue()));
+		}
+
+		Realiser textRealiser = new Realiser();
+		Realiser fusedRealiser = new Realiser();
+		fusedRealiser.setFusedPipeline(true);
+		fusedRealiser.setFormatter(new HTMLFormatter());
+
+		CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+		boolean monitored = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+		long lastCompilationMillis = monitored ? compiler.getTotalCompilationTime() : 0;
+		int quietChecks = 0;
+		boolean compiled = false;
+		int rounds = 0;
+		while (System.nanoTime() < deadline) {
+			for (NLGFactory factory : factories.values()) {
+				realiseCorpus(factory, rounds % 2 == 0 ? textRealiser : fusedRealiser);
+			}
+			rounds++;
+			if (!monitored) {
+				if (rounds >= FIXED_ROUNDS) {
+					compiled = true;
+					break;
+				}
+			} else if (rounds >= MIN_ROUNDS && rounds % ROUNDS_PER_CHECK == 0) {
+				long compilationMillis = compiler.getTotalCompilationTime();
+				quietChecks = compilationMillis - lastCompilationMillis < QUIET_COMPILATION_MILLIS
+						? quietChecks + 1 : 0;
+				lastCompilationMillis = compilationMillis;
+				if (quietChecks >= QUIET_CHECKS) {
+					compiled = true;
+					break;
+				}
+			}
+		}
+
+		synchronized (WarmUp.class) {
+			int warm = warmLanguages;
+			for (Language language : warmed.keySet()) {
+				warm |= 1 << language.ordinal();
+			}
+			warmLanguages = warm;
+		}
+		return new WarmUp(warmed, rounds, System.nanoTime() - start, compiled);
+	}
+
+	/**
+	 * Realises the built-in corpus of a language once.
+	 */
+	private static void realiseCorpus(NLGFactory factory, Realiser realiser) {
+		String[] words = words(factory.getLanguage());
+		List<NLGElement> sentences = new ArrayList<NLGElement>();
+		for (int variant = 0; variant < 8; variant++) {
+			SPhraseSpec clause = factory.createClause();
+			clause.setSubject(factory.createNounPhrase(words[0], words[1]));
+			clause.setVerb(words[2]);
+			NPPhraseSpec object = factory.createNounPhrase(words[0], words[3]);
+			object.addPreModifier(words[4]);
+			clause.setObject(object);
+			clause.addComplement(factory.createPrepositionPhrase(words[9],
+					factory.createNounPhrase(words[0], words[10])));
+			clause.setFeature(Feature.TENSE, Tense.values()[variant % Tense.values().length]);
+			clause.setFeature(Feature.PASSIVE, variant % 4 == 1);
+			clause.setFeature(Feature.PERFECT, variant % 3 == 1);
+			sentences.add(clause);
+
+			SPhraseSpec coordinated = factory.createClause();
+			coordinated.setSubject(factory.createCoordinatedPhrase(
+					factory.createNounPhrase(words[0], words[5]),
+					factory.createNounPhrase(words[11], words[6])));
+			coordinated.setVerb(words[7]);
+			coordinated.setObject(factory.createNounPhrase(words[11], words[8]));
+			coordinated.addModifier(words[12]);
+			coordinated.setFeature(Feature.NEGATED, variant % 2 == 0);
+			coordinated.setPlural(variant % 3 == 0);
+			if (variant % 2 == 1) {
+				coordinated.setFeature(Feature.INTERROGATIVE_TYPE,
+						InterrogativeType.values()[variant % InterrogativeType.values().length]);
+			}
+			sentences.add(coordinated);
+		}
+		for (NLGElement sentence : sentences) {
+			realiser.realiseSentence(sentence);
+		}
+
+		DocumentElement paragraph = factory.createParagraph();
+		paragraph.addComponent(factory.createSentence(sentences.get(0)));
+		paragraph.addComponent(factory.createSentence(sentences.get(2)));
+		DocumentElement list = factory.createList();
+		list.addComponent(factory.createListItem(sentences.get(4)));
+		list.addComponent(factory.createListItem(sentences.get(6)));
+		DocumentElement section = factory.createSection(words[1]);
+		section.addComponent(paragraph);
+		section.addComponent(list);
+		DocumentElement document = factory.createDocument(words[3]);
+		document.addComponent(section);
+		realiser.realise(document);
+	}
+
+	/**
+	 * @return the determiner, nouns, verbs, adjective, preposition, other
+	 *         determiner and adverb of the corpus of a language
+	 */
+	private static String[] words(Language language) {
+		switch (language) {
+		case DUTCH:
+			return new String[] { "de", "klant", "betalen", "rekening", "oud", "man", "vrouw", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+					"kopen", "fiets", "in", "stad", "een", "snel" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		case FRENCH:
+			return new String[] { "le", "client", "payer", "facture", "vieux", "homme", "femme", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+					"acheter", "vélo", "dans", "ville", "un", "vite" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		default:
+			return new String[] { "the", "customer", "pay", "invoice", "old", "man", "woman", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+					"buy", "bike", "in", "city", "a", "quickly" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		}
+	}
+
+	/**
+	 * @param language
+	 * @return true once a warm-up of this language has finished, for
+	 *         readiness probes
+	 */
+	public static boolean isWarm(Language language) {
+		return (warmLanguages & (1 << language.ordinal())) != 0;
+	}
+
+	/**
+	 * @param language
+	 * @return the lexicon used to warm up the language, null if it was not
+	 *         warmed up
+	 */
+	public Lexicon getLexicon(Language language) {
+		return this.lexicons.get(language);
+	}
+
+	/**
+	 * @return the lexicon of each language warmed up
+	 */
+	public Map<Language, Lexicon> getLexicons() {
+		return this.lexicons;
+	}
+
+	/**
+	 * @return the number of times the corpus was realised
+	 */
+	public int getRounds() {
+		return this.rounds;
+	}
+
+	/**
+	 * @return the duration of the warm-up, lexicons loading included, in
+	 *         nanoseconds
+	 */
+	public long getNanos() {
+		return this.nanos;
+	}
+
+	/**
+	 * @return true if the warm-up stopped because the JIT had nothing left
+	 *         to compile, false if it ran out of time
+	 */
+	public boolean isCompiled() {
+		return this.compiled;
+	}
+
+	@Override
+	public String toString() {
+		return "WarmUp" + this.lexicons.keySet() + ": " + this.rounds + " rounds in " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ TimeUnit.NANOSECONDS.toMillis(this.nanos) + "ms" //$NON-NLS-1$
+				+ (this.compiled ? "" : " (time out)"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
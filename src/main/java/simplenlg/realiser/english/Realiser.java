@@ -19,6 +19,7 @@
 
 package simplenlg.realiser.english;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import simplenlg.format.english.TextFormatter;
@@ -126,9 +127,22 @@ public class Realiser extends NLGModule {
 			return realised.getRealisation();
 	}
 
+	/**
+	 * Realises each element of the list in turn.
+	 * 
+	 * @param elements
+	 * @return the realised elements, in the same order (null where the
+	 *         element was null)
+	 */
 	@Override
 	public List<NLGElement> realise(List<NLGElement> elements) {
-		return null;
+		if (elements == null)
+			return null;
+		List<NLGElement> realisedList = new ArrayList<NLGElement>(elements.size());
+		for (NLGElement eachElement : elements) {
+			realisedList.add(eachElement != null ? realise(eachElement) : null);
+		}
+		return realisedList;
 	}
 
 	@Override
@@ -0,0 +1,82 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.serialisation;
+
+/**
+ * Constants of the binary format written by <code>BinarySpecWriter</code>
+ * and read by <code>BinarySpecReader</code>.
+ * 
+ * <p>
+ * A stream starts with the four bytes <code>SNLG</code> and a version byte.
+ * It is followed by any number of records, each holding one tree. A record
+ * is self-contained: its string table and element numbering start afresh,
+ * so records can be cached or replayed one by one.
+ * </p>
+ * 
+ * <p>
+ * Integers are written as unsigned variable-length quantities (7 bits per
+ * byte, least significant first); signed values are zigzag encoded first.
+ * Strings go through a per-record table: 0 is followed by a new string in
+ * UTF-8, any other number n refers to the (n-1)th string of the table.
+ * </p>
+ */
+final class BinarySpecFormat {
+
+	static final byte[] MAGIC = { 'S', 'N', 'L', 'G' };
+
+	/** Version written by this release. Readers accept versions up to it. */
+	static final int VERSION = 1;
+
+	/** Starts a record. Anything else at a record boundary is an error. */
+	static final int RECORD = 0x52; // 'R'
+
+	// value tags
+	static final int NULL = 0;
+	static final int FALSE = 1;
+	static final int TRUE = 2;
+	static final int INTEGER = 3;
+	static final int LONG = 4;
+	static final int FLOAT = 5;
+	static final int DOUBLE = 6;
+	static final int STRING = 7;
+	static final int ENUM = 8;
+	static final int LIST = 9;
+	static final int ELEMENT = 10;
+	static final int ELEMENT_REFERENCE = 11;
+
+	// element kinds, following the ELEMENT tag
+	static final int WORD_ELEMENT = 1;
+	static final int INFLECTED_WORD_ELEMENT = 2;
+	static final int STRING_ELEMENT = 3;
+	static final int LIST_ELEMENT = 4;
+	static final int COORDINATED_PHRASE_ELEMENT = 5;
+	static final int DOCUMENT_ELEMENT = 6;
+	static final int PHRASE_ELEMENT = 7;
+	static final int S_PHRASE_SPEC = 8;
+	static final int NP_PHRASE_SPEC = 9;
+	static final int VP_PHRASE_SPEC = 10;
+	static final int PP_PHRASE_SPEC = 11;
+	static final int ADJ_PHRASE_SPEC = 12;
+	static final int ADV_PHRASE_SPEC = 13;
+
+	private BinarySpecFormat() {
+		// constants only
+	}
+}
@@ -0,0 +1,441 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.serialisation;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.ElementCategory;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.PhraseCategory;
+import simplenlg.framework.PhraseElement;
+import simplenlg.framework.StringElement;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.AdjPhraseSpec;
+import simplenlg.phrasespec.AdvPhraseSpec;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.PPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.phrasespec.VPPhraseSpec;
+
+import static simplenlg.serialisation.BinarySpecFormat.*;
+
+/**
+ * <p>
+ * Reads the trees written by <code>BinarySpecWriter</code>, one record at a
+ * time. The elements read are attached to the factory given to the reader,
+ * and their <code>WordElement</code>s are looked up in its lexicon: first
+ * by lexicon ID, then by base form and category.
+ * </p>
+ * 
+ * <p>
+ * The lengths and counts read from the stream are not trusted: a string
+ * longer than <code>getMaxStringLength()</code> bytes, or values nested
+ * deeper than <code>getMaxDepth()</code>, make the record fail with a
+ * <code>StreamCorruptedException</code> before anything is allocated for
+ * them.
+ * </p>
+ * 
+ * <p>
+ * A reader is not thread-safe.
+ * </p>
+ */
+public class BinarySpecReader implements Closeable {
+
+	/** Default maximum length of a string, in bytes. */
+	public static final int DEFAULT_MAX_STRING_LENGTH = 1 << 20;
+
+	/** Default maximum nesting of the values of a record. */
+	public static final int DEFAULT_MAX_DEPTH = 512;
+
+	private final InputStream in;
+	private final NLGFactory factory;
+	private final Lexicon lexicon;
+
+	// per record state
+	private final List<String> strings = new ArrayList<String>();
+	private final List<NLGElement> elements = new ArrayList<NLGElement>();
+	private int depth = 0;
+
+	private int maxStringLength = DEFAULT_MAX_STRING_LENGTH;
+	private int maxDepth = DEFAULT_MAX_DEPTH;
+
+	/**
+	 * Creates a reader and checks the header of the stream.
+	 * 
+	 * @param in
+	 *            the stream to read from. It is buffered by the reader.
+	 * @param factory
+	 *            the factory (and therefore lexicon and language) of the
+	 *            elements read
+	 * @throws IOException
+	 *             if the stream does not start with a supported header
+	 */
+	public BinarySpecReader(InputStream in, NLGFactory factory) throws IOException {
+		this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+		this.factory = factory;
+		this.lexicon = factory.getLexicon();
+		for (byte expected : MAGIC) {
+			if (this.in.read() != expected) {
+				throw new StreamCorruptedException("Not a SimpleNLG binary spec stream"); //$NON-NLS-1$
+			}
+		}
+		int version = this.in.read();
+		if (version < 1 || version > VERSION) {
+			throw new StreamCorruptedException("Unsupported binary spec version " + version); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * @return the maximum length of a string, in bytes
+	 */
+	public int getMaxStringLength() {
+		return this.maxStringLength;
+	}
+
+	/**
+	 * @param maxStringLength
+	 *            the maximum length of a string, in bytes
+	 */
+	public void setMaxStringLength(int maxStringLength) {
+		if (maxStringLength <= 0) {
+			throw new IllegalArgumentException("maxStringLength must be positive: " + maxStringLength); //$NON-NLS-1$
+		}
+		this.maxStringLength = maxStringLength;
+	}
+
+	/**
+	 * @return the maximum nesting of the values of a record
+	 */
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	/**
+	 * @param maxDepth
+	 *            the maximum nesting of the values of a record (an element
+	 *            and each of its lists and child elements count as a level)
+	 */
+	public void setMaxDepth(int maxDepth) {
+		if (maxDepth <= 0) {
+			throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth); //$NON-NLS-1$
+		}
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Reads the next tree.
+	 * 
+	 * @return the root of the tree, or null at the end of the stream
+	 * @throws IOException
+	 *             if the stream is truncated or corrupted
+	 */
+	public NLGElement read() throws IOException {
+		int tag = this.in.read();
+		if (tag < 0) return null;
+		if (tag != RECORD) {
+			throw new StreamCorruptedException("Expected a record, found tag " + tag); //$NON-NLS-1$
+		}
+		try {
+			Object root = readValue();
+			if (root != null && !(root instanceof NLGElement)) {
+				throw new StreamCorruptedException("Record does not hold an element"); //$NON-NLS-1$
+			}
+			int fixups = readInt();
+			if (fixups > this.elements.size()) {
+				throw new StreamCorruptedException("More parent fixups than elements: " + fixups); //$NON-NLS-1$
+			}
+			for (int index = 0; index < fixups; index++) {
+				NLGElement child = getElement(readInt());
+				child.setParent(getElement(readInt()));
+			}
+			return (NLGElement) root;
+		} finally {
+			this.strings.clear();
+			this.elements.clear();
+			this.depth = 0;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.in.close();
+	}
+
+	private Object readValue() throws IOException {
+		if (this.depth == this.maxDepth) {
+			throw new StreamCorruptedException("Values nested deeper than " + this.maxDepth); //$NON-NLS-1$
+		}
+		this.depth++;
+		try {
+			return readTaggedValue();
+		} finally {
+			this.depth--;
+		}
+	}
+
+	private Object readTaggedValue() throws IOException {
+		int tag = readByte();
+		switch (tag) {
+		case NULL:
+			return null;
+		case FALSE:
+			return Boolean.FALSE;
+		case TRUE:
+			return Boolean.TRUE;
+		case INTEGER:
+			return Integer.valueOf((int) readSigned());
+		case LONG:
+			return Long.valueOf(readSigned());
+		case FLOAT:
+			return Float.valueOf(Float.intBitsToFloat((int) readFixed(4)));
+		case DOUBLE:
+			return Double.valueOf(Double.longBitsToDouble(readFixed(8)));
+		case STRING:
+			return readString();
+		case ENUM:
+			return readEnum(readString(), readString());
+		case LIST:
+			int size = readInt();
+			List<Object> list = new ArrayList<Object>(Math.min(size, 1024));
+			for (int index = 0; index < size; index++) {
+				list.add(readValue());
+			}
+			return list;
+		case ELEMENT:
+			return readElement();
+		case ELEMENT_REFERENCE:
+			return getElement(readInt());
+		default:
+			throw new StreamCorruptedException("Unknown value tag " + tag); //$NON-NLS-1$
+		}
+	}
+
+	private NLGElement readElement() throws IOException {
+		int kind = readByte();
+		if (kind == WORD_ELEMENT) {
+			int number = this.elements.size();
+			this.elements.add(null);
+			String id = readNullableString();
+			String baseForm = readNullableString();
+			ElementCategory category = readCategory();
+			WordElement word = lookupWord(id, baseForm, category);
+			this.elements.set(number, word);
+			return word;
+		}
+
+		NLGElement element = createElement(kind);
+		this.elements.add(element);
+		element.setCategory(readCategory());
+		element.setRealisation(readNullableString());
+
+		// bypass overridden setFeature methods (SPhraseSpec copies some
+		// features to its verb phrase, which has its own record)
+		Map<String, Object> features = element.getAllFeatures();
+		int count = readInt();
+		for (int index = 0; index < count; index++) {
+			String name = readString();
+			features.put(name, readValue());
+		}
+
+		int parent = readInt();
+		element.setParent(parent == 0 ? null : getElement(parent - 1));
+		return element;
+	}
+
+	/**
+	 * Creates an empty element of the given kind, attached to the factory.
+	 */
+	private NLGElement createElement(int kind) throws IOException {
+		NLGElement element;
+		switch (kind) {
+		case INFLECTED_WORD_ELEMENT:
+			element = new InflectedWordElement((WordElement) null);
+			break;
+		case STRING_ELEMENT:
+			element = new StringElement(null);
+			break;
+		case LIST_ELEMENT:
+			element = new ListElement();
+			break;
+		case COORDINATED_PHRASE_ELEMENT:
+			element = new CoordinatedPhraseElement(this.factory);
+			break;
+		case DOCUMENT_ELEMENT:
+			element = new DocumentElement(this.factory);
+			break;
+		case PHRASE_ELEMENT:
+			element = new PhraseElement(PhraseCategory.CANNED_TEXT);
+			break;
+		case S_PHRASE_SPEC:
+			element = new SPhraseSpec(this.factory);
+			break;
+		case NP_PHRASE_SPEC:
+			element = new NPPhraseSpec(this.factory);
+			break;
+		case VP_PHRASE_SPEC:
+			element = new VPPhraseSpec(this.factory);
+			break;
+		case PP_PHRASE_SPEC:
+			element = new PPPhraseSpec(this.factory);
+			break;
+		case ADJ_PHRASE_SPEC:
+			element = new AdjPhraseSpec(this.factory);
+			break;
+		case ADV_PHRASE_SPEC:
+			element = new AdvPhraseSpec(this.factory);
+			break;
+		default:
+			throw new StreamCorruptedException("Unknown element kind " + kind); //$NON-NLS-1$
+		}
+		// the constructors set default features, which are replaced
+		// by those of the record
+		element.clearAllFeatures();
+		element.setFactory(this.factory);
+		return element;
+	}
+
+	private WordElement lookupWord(String id, String baseForm, ElementCategory category) {
+		if (id != null) {
+			List<WordElement> words = this.lexicon.getWordsByID(id);
+			if (!words.isEmpty()) return words.get(0);
+		}
+		LexicalCategory lexicalCategory = category instanceof LexicalCategory
+				? (LexicalCategory) category : LexicalCategory.ANY;
+		return this.lexicon.getWord(baseForm, lexicalCategory);
+	}
+
+	private ElementCategory readCategory() throws IOException {
+		Object category = readValue();
+		if (category != null && !(category instanceof ElementCategory)) {
+			throw new StreamCorruptedException("Invalid element category " + category); //$NON-NLS-1$
+		}
+		return (ElementCategory) category;
+	}
+
+	private NLGElement getElement(int number) throws IOException {
+		if (number < 0 || number >= this.elements.size()) {
+			throw new StreamCorruptedException("Unknown element reference " + number); //$NON-NLS-1$
+		}
+		return this.elements.get(number);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object readEnum(String className, String name) throws IOException {
+		try {
+			Class<?> enumClass = Class.forName(className, false,
+					BinarySpecReader.class.getClassLoader());
+			if (!enumClass.isEnum()) {
+				throw new StreamCorruptedException(className + " is not an enum"); //$NON-NLS-1$
+			}
+			return Enum.valueOf((Class<? extends Enum>) enumClass, name);
+		} catch (ClassNotFoundException exception) {
+			throw new StreamCorruptedException("Unknown enum " + className); //$NON-NLS-1$
+		} catch (IllegalArgumentException exception) {
+			throw new StreamCorruptedException("Unknown constant " + className + '.' + name); //$NON-NLS-1$
+		}
+	}
+
+	private String readNullableString() throws IOException {
+		int tag = readByte();
+		if (tag == NULL) return null;
+		if (tag != STRING) {
+			throw new StreamCorruptedException("Expected a string, found tag " + tag); //$NON-NLS-1$
+		}
+		return readString();
+	}
+
+	private String readString() throws IOException {
+		int index = readInt();
+		if (index > 0) {
+			if (index > this.strings.size()) {
+				throw new StreamCorruptedException("Unknown string reference " + index); //$NON-NLS-1$
+			}
+			return this.strings.get(index - 1);
+		}
+		int length = readInt();
+		if (length > this.maxStringLength) {
+			throw new StreamCorruptedException("String of " + length //$NON-NLS-1$
+					+ " bytes, longer than " + this.maxStringLength); //$NON-NLS-1$
+		}
+		byte[] bytes = new byte[length];
+		int offset = 0;
+		while (offset < length) {
+			int read = this.in.read(bytes, offset, length - offset);
+			if (read < 0) throw new EOFException();
+			offset += read;
+		}
+		String string = new String(bytes, StandardCharsets.UTF_8);
+		this.strings.add(string);
+		return string;
+	}
+
+	private int readByte() throws IOException {
+		int value = this.in.read();
+		if (value < 0) throw new EOFException();
+		return value;
+	}
+
+	private int readInt() throws IOException {
+		long value = readUnsigned();
+		if (value > Integer.MAX_VALUE) {
+			throw new StreamCorruptedException("Count out of range " + value); //$NON-NLS-1$
+		}
+		return (int) value;
+	}
+
+	private long readSigned() throws IOException {
+		long value = readUnsigned();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private long readUnsigned() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new StreamCorruptedException("Malformed variable-length integer"); //$NON-NLS-1$
+	}
+
+	private long readFixed(int length) throws IOException {
+		long bits = 0;
+		for (int index = 0; index < length; index++) {
+			bits |= (long) readByte() << (8 * index);
+		}
+		return bits;
+	}
+}
@@ -0,0 +1,301 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.serialisation;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.PhraseElement;
+import simplenlg.framework.StringElement;
+import simplenlg.framework.WordElement;
+import simplenlg.phrasespec.AdjPhraseSpec;
+import simplenlg.phrasespec.AdvPhraseSpec;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.PPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.phrasespec.VPPhraseSpec;
+
+import static simplenlg.serialisation.BinarySpecFormat.*;
+
+/**
+ * <p>
+ * Writes trees of <code>NLGElement</code>s (typically <code>SPhraseSpec</code>
+ * or <code>DocumentElement</code> trees, before realisation) in a compact
+ * binary format that <code>BinarySpecReader</code> reads back. Each call to
+ * <code>write</code> appends one tree to the stream, so a stream can hold any
+ * number of specs.
+ * </p>
+ * 
+ * <p>
+ * The category, features, realisation and parent of every element are
+ * written. An element reached several times (for instance a noun phrase
+ * that is both the subject and a feature of another element) is written
+ * once and then referenced, so identity is kept. <code>WordElement</code>s
+ * are not copied: only their lexicon ID, base form and category are written,
+ * and the reader looks them up again in its own lexicon. Features set by hand
+ * on a lexicon word are therefore lost.
+ * </p>
+ * 
+ * <p>
+ * Feature values can be <code>null</code>, booleans, numbers, strings,
+ * enum constants, <code>NLGElement</code>s or collections of these.
+ * Collections are read back as <code>ArrayList</code>s. Elements from
+ * classes the format does not know cause an
+ * <code>IllegalArgumentException</code>.
+ * </p>
+ * 
+ * <p>
+ * A writer is not thread-safe.
+ * </p>
+ */
+public class BinarySpecWriter implements Closeable, Flushable {
+
+	private final OutputStream out;
+
+	// per record state
+	private final Map<String, Integer> strings = new HashMap<String, Integer>();
+	private final Map<NLGElement, Integer> elements = new IdentityHashMap<NLGElement, Integer>();
+	private final List<NLGElement> pendingChildren = new ArrayList<NLGElement>();
+
+	/**
+	 * Creates a writer and writes the header of the stream.
+	 * 
+	 * @param out
+	 *            the stream to write to. It is buffered by the writer.
+	 * @throws IOException
+	 */
+	public BinarySpecWriter(OutputStream out) throws IOException {
+		this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out);
+		this.out.write(MAGIC);
+		this.out.write(VERSION);
+	}
+
+	/**
+	 * Writes one tree as a new record.
+	 * 
+	 * @param element
+	 *            the root of the tree
+	 * @throws IOException
+	 * @throws IllegalArgumentException
+	 *             if the tree contains a value that cannot be written
+	 */
+	public void write(NLGElement element) throws IOException {
+		try {
+			this.out.write(RECORD);
+			writeValue(element);
+			writeParentFixups();
+		} finally {
+			this.strings.clear();
+			this.elements.clear();
+			this.pendingChildren.clear();
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.out.close();
+	}
+
+	/**
+	 * Writes the parents that had not been written yet when their child
+	 * was, as pairs of element numbers. Parents outside the tree are dropped.
+	 */
+	private void writeParentFixups() throws IOException {
+		int count = 0;
+		for (NLGElement child : this.pendingChildren) {
+			if (this.elements.containsKey(child.getParent())) count++;
+		}
+		writeUnsigned(count);
+		for (NLGElement child : this.pendingChildren) {
+			Integer parent = this.elements.get(child.getParent());
+			if (parent != null) {
+				writeUnsigned(this.elements.get(child));
+				writeUnsigned(parent);
+			}
+		}
+	}
+
+	private void writeValue(Object value) throws IOException {
+		if (value == null) {
+			this.out.write(NULL);
+		} else if (value instanceof Boolean) {
+			this.out.write(((Boolean) value).booleanValue() ? TRUE : FALSE);
+		} else if (value instanceof String) {
+			this.out.write(STRING);
+			writeString((String) value);
+		} else if (value instanceof Enum<?>) {
+			this.out.write(ENUM);
+			Enum<?> constant = (Enum<?>) value;
+			writeString(constant.getDeclaringClass().getName());
+			writeString(constant.name());
+		} else if (value instanceof NLGElement) {
+			writeElement((NLGElement) value);
+		} else if (value instanceof Collection<?>) {
+			Collection<?> collection = (Collection<?>) value;
+			this.out.write(LIST);
+			writeUnsigned(collection.size());
+			for (Object item : collection) {
+				writeValue(item);
+			}
+		} else if (value instanceof Integer) {
+			this.out.write(INTEGER);
+			writeSigned(((Integer) value).intValue());
+		} else if (value instanceof Long) {
+			this.out.write(LONG);
+			writeSigned(((Long) value).longValue());
+		} else if (value instanceof Float) {
+			this.out.write(FLOAT);
+			writeFixed(Float.floatToIntBits(((Float) value).floatValue()), 4);
+		} else if (value instanceof Double) {
+			this.out.write(DOUBLE);
+			writeFixed(Double.doubleToLongBits(((Double) value).doubleValue()), 8);
+		} else {
+			throw new IllegalArgumentException("Cannot serialise feature value of type " //$NON-NLS-1$
+					+ value.getClass().getName());
+		}
+	}
+
+	private void writeElement(NLGElement element) throws IOException {
+		Integer number = this.elements.get(element);
+		if (number != null) {
+			this.out.write(ELEMENT_REFERENCE);
+			writeUnsigned(number);
+			return;
+		}
+		int kind = getKind(element);
+		this.elements.put(element, this.elements.size());
+		this.out.write(ELEMENT);
+		this.out.write(kind);
+
+		if (kind == WORD_ELEMENT) {
+			WordElement word = (WordElement) element;
+			writeNullableString(word.getId());
+			writeNullableString(word.getBaseForm());
+			writeValue(word.getCategory());
+			return;
+		}
+
+		writeValue(element.getCategory());
+		writeNullableString(getRawRealisation(element));
+		Map<String, Object> features = element.getAllFeatures();
+		writeUnsigned(features.size());
+		for (Map.Entry<String, Object> feature : features.entrySet()) {
+			writeString(feature.getKey());
+			writeValue(feature.getValue());
+		}
+
+		NLGElement parent = element.getParent();
+		Integer parentNumber = parent == null ? null : this.elements.get(parent);
+		if (parentNumber != null) {
+			writeUnsigned(parentNumber + 1);
+		} else {
+			if (parent != null) this.pendingChildren.add(element);
+			writeUnsigned(0);
+		}
+	}
+
+	/**
+	 * @return the realisation of the element, without the trimming
+	 *         done by getRealisation()
+	 */
+	private static String getRawRealisation(NLGElement element) {
+		return element.equals((String) null) ? null : element.getRealisation();
+	}
+
+	private static int getKind(NLGElement element) {
+		// most specific classes first
+		Class<?> elementClass = element.getClass();
+		if (elementClass == SPhraseSpec.class) return S_PHRASE_SPEC;
+		if (elementClass == NPPhraseSpec.class) return NP_PHRASE_SPEC;
+		if (elementClass == VPPhraseSpec.class) return VP_PHRASE_SPEC;
+		if (elementClass == PPPhraseSpec.class) return PP_PHRASE_SPEC;
+		if (elementClass == AdjPhraseSpec.class) return ADJ_PHRASE_SPEC;
+		if (elementClass == AdvPhraseSpec.class) return ADV_PHRASE_SPEC;
+		if (elementClass == PhraseElement.class) return PHRASE_ELEMENT;
+		if (elementClass == WordElement.class) return WORD_ELEMENT;
+		if (elementClass == InflectedWordElement.class) return INFLECTED_WORD_ELEMENT;
+		if (elementClass == StringElement.class) return STRING_ELEMENT;
+		if (elementClass == ListElement.class) return LIST_ELEMENT;
+		if (elementClass == CoordinatedPhraseElement.class) return COORDINATED_PHRASE_ELEMENT;
+		if (elementClass == DocumentElement.class) return DOCUMENT_ELEMENT;
+		throw new IllegalArgumentException("Cannot serialise element of class " //$NON-NLS-1$
+				+ elementClass.getName());
+	}
+
+	private void writeNullableString(String string) throws IOException {
+		if (string == null) {
+			this.out.write(NULL);
+		} else {
+			this.out.write(STRING);
+			writeString(string);
+		}
+	}
+
+	private void writeString(String string) throws IOException {
+		Integer index = this.strings.get(string);
+		if (index != null) {
+			writeUnsigned(index + 1);
+		} else {
+			this.strings.put(string, this.strings.size());
+			writeUnsigned(0);
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			writeUnsigned(bytes.length);
+			this.out.write(bytes);
+		}
+	}
+
+	private void writeSigned(long value) throws IOException {
+		writeUnsigned((value << 1) ^ (value >> 63));
+	}
+
+	private void writeUnsigned(long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			this.out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		this.out.write((int) value);
+	}
+
+	private void writeFixed(long bits, int length) throws IOException {
+		for (int index = 0; index < length; index++) {
+			this.out.write((int) (bits >>> (8 * index)));
+		}
+	}
+}
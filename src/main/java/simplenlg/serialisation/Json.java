@@ -0,0 +1,357 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.serialisation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * A small JSON parser and writer, enough for the line-delimited specs read
+ * by <code>JsonSpecReader</code>, so that SimpleNLG does not depend on a
+ * JSON library.
+ * </p>
+ * 
+ * <p>
+ * <code>parse()</code> returns a <code>Map&lt;String, Object&gt;</code> for
+ * an object (keeping the order of its members), a <code>List</code> for an
+ * array, a <code>String</code>, a <code>Boolean</code>, null, and a
+ * <code>Long</code> or a <code>Double</code> for a number. Objects and
+ * arrays nested deeper than <code>MAX_DEPTH</code> are rejected, so that
+ * a hostile line cannot exhaust the stack of the parser or of the code
+ * walking the result.
+ * </p>
+ */
+public final class Json {
+
+	/** Maximum nesting of the objects and arrays of a parsed value. */
+	public static final int MAX_DEPTH = 256;
+
+	private final String text;
+	private int position = 0;
+	private int depth = 0;
+
+	private Json(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * @param text
+	 *            one JSON value
+	 * @return the value, as described in the class comment
+	 * @throws IllegalArgumentException
+	 *             if the text is not valid JSON, or is nested deeper than
+	 *             <code>MAX_DEPTH</code>
+	 */
+	public static Object parse(String text) {
+		Json parser = new Json(text);
+		Object value = parser.value();
+		parser.skipWhitespace();
+		if (parser.position < text.length()) {
+			throw parser.error("Unexpected text after the value"); //$NON-NLS-1$
+		}
+		return value;
+	}
+
+	/**
+	 * Writes a string as a JSON string literal, with its quotes.
+	 * 
+	 * @param out
+	 * @param string
+	 * @throws IOException
+	 *             if <code>out</code> throws one
+	 */
+	public static void appendString(Appendable out, CharSequence string) throws IOException {
+		out.append('"');
+		int length = string.length();
+		for (int index = 0; index < length; index++) {
+			char c = string.charAt(index);
+			switch (c) {
+			case '"':
+				out.append("\\\""); //$NON-NLS-1$
+				break;
+			case '\\':
+				out.append("\\\\"); //$NON-NLS-1$
+				break;
+			case '\n':
+				out.append("\\n"); //$NON-NLS-1$
+				break;
+			case '\r':
+				out.append("\\r"); //$NON-NLS-1$
+				break;
+			case '\t':
+				out.append("\\t"); //$NON-NLS-1$
+				break;
+			default:
+				if (c < 0x20) {
+					out.append(String.format("\\u%04x", (int) c)); //$NON-NLS-1$
+				} else {
+					out.append(c);
+				}
+			}
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Writes a value made of the types returned by <code>parse()</code>
+	 * (any <code>Map</code>, <code>Collection</code>, <code>Number</code>
+	 * or <code>Boolean</code>; anything else is written as a string).
+	 * 
+	 * @param out
+	 * @param value
+	 * @throws IOException
+	 *             if <code>out</code> throws one
+	 */
+	public static void append(Appendable out, Object value) throws IOException {
+		if (value == null) {
+			out.append("null"); //$NON-NLS-1$
+		} else if (value instanceof Map) {
+			out.append('{');
+			boolean first = true;
+			for (Map.Entry<?, ?> member : ((Map<?, ?>) value).entrySet()) {
+				if (!first) out.append(',');
+				first = false;
+				appendString(out, String.valueOf(member.getKey()));
+				out.append(':');
+				append(out, member.getValue());
+			}
+			out.append('}');
+		} else if (value instanceof Iterable) {
+			out.append('[');
+			boolean first = true;
+			for (Object item : (Iterable<?>) value) {
+				if (!first) out.append(',');
+				first = false;
+				append(out, item);
+			}
+			out.append(']');
+		} else if (value instanceof Number || value instanceof Boolean) {
+			out.append(value.toString());
+		} else {
+			appendString(out, value.toString());
+		}
+	}
+
+	/**
+	 * @param value
+	 * @return the value written as JSON
+	 */
+	public static String toString(Object value) {
+		StringBuilder builder = new StringBuilder();
+		try {
+			append(builder, value);
+		} catch (IOException ex) {
+			// a StringBuilder does not throw IOExceptions
+			throw new IllegalStateException(ex);
+		}
+		return builder.toString();
+	}
+
+	private Object value() {
+		skipWhitespace();
+		if (this.position >= this.text.length()) {
+			throw error("Unexpected end of text"); //$NON-NLS-1$
+		}
+		char c = this.text.charAt(this.position);
+		switch (c) {
+		case '{':
+		case '[':
+			if (this.depth == MAX_DEPTH) {
+				throw error("Objects and arrays nested deeper than " + MAX_DEPTH); //$NON-NLS-1$
+			}
+			this.depth++;
+			Object container = c == '{' ? object() : array();
+			this.depth--;
+			return container;
+		case '"':
+			return string();
+		case 't':
+			return literal("true", Boolean.TRUE); //$NON-NLS-1$
+		case 'f':
+			return literal("false", Boolean.FALSE); //$NON-NLS-1$
+		case 'n':
+			return literal("null", null); //$NON-NLS-1$
+		default:
+			if (c == '-' || (c >= '0' && c <= '9')) {
+				return number();
+			}
+			throw error("Unexpected character '" + c + "'"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private Map<String, Object> object() {
+		Map<String, Object> members = new LinkedHashMap<String, Object>();
+		this.position++;
+		skipWhitespace();
+		if (peek() == '}') {
+			this.position++;
+			return members;
+		}
+		while (true) {
+			skipWhitespace();
+			if (peek() != '"') {
+				throw error("Expected a member name"); //$NON-NLS-1$
+			}
+			String name = string();
+			skipWhitespace();
+			expect(':');
+			members.put(name, value());
+			skipWhitespace();
+			if (peek() == ',') {
+				this.position++;
+			} else {
+				expect('}');
+				return members;
+			}
+		}
+	}
+
+	private List<Object> array() {
+		List<Object> items = new ArrayList<Object>();
+		this.position++;
+		skipWhitespace();
+		if (peek() == ']') {
+			this.position++;
+			return items;
+		}
+		while (true) {
+			items.add(value());
+			skipWhitespace();
+			if (peek() == ',') {
+				this.position++;
+			} else {
+				expect(']');
+				return items;
+			}
+		}
+	}
+
+	private String string() {
+		StringBuilder builder = new StringBuilder();
+		this.position++;
+		while (true) {
+			if (this.position >= this.text.length()) {
+				throw error("Unterminated string"); //$NON-NLS-1$
+			}
+			char c = this.text.charAt(this.position++);
+			if (c == '"') {
+				return builder.toString();
+			} else if (c != '\\') {
+				builder.append(c);
+				continue;
+			}
+			if (this.position >= this.text.length()) {
+				throw error("Unterminated string"); //$NON-NLS-1$
+			}
+			char escaped = this.text.charAt(this.position++);
+			switch (escaped) {
+			case '"':
+			case '\\':
+			case '/':
+				builder.append(escaped);
+				break;
+			case 'b':
+				builder.append('\b');
+				break;
+			case 'f':
+				builder.append('\f');
+				break;
+			case 'n':
+				builder.append('\n');
+				break;
+			case 'r':
+				builder.append('\r');
+				break;
+			case 't':
+				builder.append('\t');
+				break;
+			case 'u':
+				if (this.position + 4 > this.text.length()) {
+					throw error("Invalid unicode escape"); //$NON-NLS-1$
+				}
+				try {
+					builder.append((char) Integer.parseInt(
+							this.text.substring(this.position, this.position + 4), 16));
+				} catch (NumberFormatException ex) {
+					throw error("Invalid unicode escape"); //$NON-NLS-1$
+				}
+				this.position += 4;
+				break;
+			default:
+				throw error("Invalid escape '\\" + escaped + "'"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	private Object number() {
+		int start = this.position;
+		boolean decimal = false;
+		while (this.position < this.text.length()) {
+			char c = this.text.charAt(this.position);
+			if (c == '.' || c == 'e' || c == 'E') {
+				decimal = true;
+			} else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+				break;
+			}
+			this.position++;
+		}
+		String number = this.text.substring(start, this.position);
+		try {
+			return decimal ? (Object) Double.valueOf(number) : (Object) Long.valueOf(number);
+		} catch (NumberFormatException ex) {
+			this.position = start;
+			throw error("Invalid number " + number); //$NON-NLS-1$
+		}
+	}
+
+	private Object literal(String literal, Object value) {
+		if (!this.text.startsWith(literal, this.position)) {
+			throw error("Unexpected character '" + this.text.charAt(this.position) + "'"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		this.position += literal.length();
+		return value;
+	}
+
+	private void expect(char c) {
+		if (peek() != c) {
+			throw error("Expected '" + c + "'"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		this.position++;
+	}
+
+	private char peek() {
+		return this.position < this.text.length() ? this.text.charAt(this.position) : 0;
+	}
+
+	private void skipWhitespace() {
+		while (this.position < this.text.length()
+				&& Character.isWhitespace(this.text.charAt(this.position))) {
+			this.position++;
+		}
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at position " + this.position); //$NON-NLS-1$
+	}
+}
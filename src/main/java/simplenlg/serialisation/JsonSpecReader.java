@@ -0,0 +1,415 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.serialisation;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import simplenlg.features.ClauseStatus;
+import simplenlg.features.DiscourseFunction;
+import simplenlg.features.Feature;
+import simplenlg.features.Form;
+import simplenlg.features.Gender;
+import simplenlg.features.Inflection;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Person;
+import simplenlg.features.Tense;
+import simplenlg.features.dutch.DutchFeature;
+import simplenlg.features.dutch.DutchLexicalFeature;
+import simplenlg.features.french.FrenchFeature;
+import simplenlg.features.french.FrenchLexicalFeature;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.Language;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.PhraseElement;
+import simplenlg.phrasespec.AdjPhraseSpec;
+import simplenlg.phrasespec.AdvPhraseSpec;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.PPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.phrasespec.VPPhraseSpec;
+
+/**
+ * <p>
+ * Builds elements from specs written in JSON, one spec per line in the
+ * files read by the batch driver. A spec is either a string, used as it
+ * would be by the methods of <code>NLGFactory</code> (a word or canned
+ * text), or an object whose <code>"type"</code> member is one of:
+ * </p>
+ * <ul>
+ * <li><code>"clause"</code>: <code>subject</code>, <code>verb</code>,
+ * <code>object</code>, <code>indirectObject</code>;</li>
+ * <li><code>"np"</code>: <code>specifier</code>, <code>noun</code>,
+ * <code>pronoun</code>;</li>
+ * <li><code>"vp"</code>: <code>verb</code>, <code>object</code>,
+ * <code>indirectObject</code>;</li>
+ * <li><code>"pp"</code>: <code>preposition</code>, <code>object</code>;</li>
+ * <li><code>"adjp"</code>: <code>adjective</code>; <code>"advp"</code>:
+ * <code>adverb</code>;</li>
+ * <li><code>"coordination"</code>: <code>coordinates</code> (an array),
+ * <code>conjunction</code>;</li>
+ * <li><code>"canned"</code>: <code>text</code>; <code>"word"</code>:
+ * <code>base</code>, <code>category</code> (a <code>LexicalCategory</code>
+ * name);</li>
+ * <li><code>"sentence"</code>: <code>components</code> (an array).</li>
+ * </ul>
+ * <p>
+ * Phrases and coordinations also accept the arrays
+ * <code>complements</code>, <code>preModifiers</code>,
+ * <code>postModifiers</code>, <code>frontModifiers</code> and
+ * <code>modifiers</code> (placed by <code>addModifier()</code>). Every
+ * element accepts a <code>features</code> object, set after the other
+ * members. A feature is named by the name of its constant in
+ * <code>Feature</code>, <code>LexicalFeature</code> or the features of the
+ * language of the factory (<code>"TENSE"</code>,
+ * <code>"NEGATION_AUXILIARY"</code>...), or by its value
+ * (<code>"tense"</code>). A string value naming a constant of one of the
+ * feature enums (<code>"PAST"</code>, <code>"PLURAL"</code>, or
+ * <code>"Tense.PAST"</code> to be explicit) is replaced by that constant;
+ * objects are read as elements.
+ * </p>
+ * 
+ * <pre>
+ * {"type":"clause","subject":{"type":"np","specifier":"de","noun":"klant"},
+ *  "verb":"betalen","object":"rekening","features":{"TENSE":"PAST"}}
+ * </pre>
+ * 
+ * <p>
+ * A reader is not thread-safe, as its factory is not.
+ * </p>
+ */
+public class JsonSpecReader {
+
+	private final NLGFactory factory;
+	private final Map<String, String> featureNames;
+	private final Map<String, Object> featureValues;
+
+	/**
+	 * @param factory
+	 *            the factory creating the elements, with the lexicon of
+	 *            their language
+	 */
+	public JsonSpecReader(NLGFactory factory) {
+		this.factory = factory;
+		Language language = factory.getLanguage();
+		this.featureNames = new HashMap<String, String>();
+		addFeatureNames(Feature.class);
+		addFeatureNames(LexicalFeature.class);
+		this.featureValues = new HashMap<String, Object>();
+		addFeatureValues(Tense.class, Form.class, NumberAgreement.class, Person.class,
+				Gender.class, InterrogativeType.class, ClauseStatus.class,
+				DiscourseFunction.class, Inflection.class);
+		if (language == Language.DUTCH) {
+			addFeatureNames(DutchFeature.class);
+			addFeatureNames(DutchLexicalFeature.class);
+			addFeatureValues(simplenlg.features.dutch.PronounType.class);
+		} else if (language == Language.FRENCH) {
+			addFeatureNames(FrenchFeature.class);
+			addFeatureNames(FrenchLexicalFeature.class);
+			addFeatureValues(simplenlg.features.french.PronounType.class);
+		}
+	}
+
+	private void addFeatureNames(Class<?> constants) {
+		for (Field field : constants.getFields()) {
+			if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+				try {
+					String name = (String) field.get(null);
+					this.featureNames.put(field.getName(), name);
+				} catch (IllegalAccessException ex) {
+					// public fields only
+				}
+			}
+		}
+	}
+
+	private void addFeatureValues(Class<?>... enums) {
+		for (Class<?> enumClass : enums) {
+			for (Object constant : enumClass.getEnumConstants()) {
+				String name = ((Enum<?>) constant).name();
+				if (!this.featureValues.containsKey(name)) {
+					this.featureValues.put(name, constant);
+				}
+				this.featureValues.put(enumClass.getSimpleName() + '.' + name, constant);
+			}
+		}
+	}
+
+	/**
+	 * @param line
+	 *            a spec written in JSON
+	 * @return the element
+	 * @throws IllegalArgumentException
+	 *             if the line is not valid JSON or not a valid spec
+	 */
+	public NLGElement read(String line) {
+		return read(Json.parse(line));
+	}
+
+	/**
+	 * @param spec
+	 *            a spec as returned by <code>Json.parse()</code>
+	 * @return the element
+	 * @throws IllegalArgumentException
+	 *             if it is not a valid spec
+	 */
+	public NLGElement read(Object spec) {
+		if (spec instanceof String) {
+			return this.factory.createStringElement((String) spec);
+		}
+		return element(spec);
+	}
+
+	/**
+	 * @return a string, left for the factory to interpret, or an element
+	 */
+	private Object value(Object spec) {
+		if (spec == null || spec instanceof String) {
+			return spec;
+		}
+		return element(spec);
+	}
+
+	private NLGElement element(Object spec) {
+		if (!(spec instanceof Map)) {
+			throw new IllegalArgumentException("Expected a string or an object: " + spec); //$NON-NLS-1$
+		}
+		@SuppressWarnings("unchecked")
+		Map<String, Object> members = (Map<String, Object>) spec;
+		String type = string(members, "type"); //$NON-NLS-1$
+		NLGElement element;
+		switch (type) {
+		case "clause": //$NON-NLS-1$
+			element = this.factory.createClause();
+			break;
+		case "np": //$NON-NLS-1$
+			element = this.factory.createNounPhrase();
+			break;
+		case "vp": //$NON-NLS-1$
+			element = this.factory.createVerbPhrase();
+			break;
+		case "pp": //$NON-NLS-1$
+			element = this.factory.createPrepositionPhrase();
+			break;
+		case "adjp": //$NON-NLS-1$
+			element = this.factory.createAdjectivePhrase();
+			break;
+		case "advp": //$NON-NLS-1$
+			element = this.factory.createAdverbPhrase();
+			break;
+		case "coordination": //$NON-NLS-1$
+			element = this.factory.createCoordinatedPhrase();
+			break;
+		case "sentence": //$NON-NLS-1$
+			element = this.factory.createSentence();
+			break;
+		case "canned": //$NON-NLS-1$
+			element = this.factory.createStringElement(string(members, "text")); //$NON-NLS-1$
+			break;
+		case "word": //$NON-NLS-1$
+			try {
+				element = this.factory.createWord(string(members, "base"), //$NON-NLS-1$
+						LexicalCategory.valueOf(string(members, "category"))); //$NON-NLS-1$
+			} catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException("Invalid word: " + spec, ex); //$NON-NLS-1$
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown spec type '" + type + "'"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		Object features = null;
+		for (Map.Entry<String, Object> member : members.entrySet()) {
+			String name = member.getKey();
+			if ("features".equals(name)) { //$NON-NLS-1$
+				features = member.getValue();
+			} else if (!"type".equals(name) && !"text".equals(name) //$NON-NLS-1$ //$NON-NLS-2$
+					&& !"base".equals(name) && !"category".equals(name)) { //$NON-NLS-1$ //$NON-NLS-2$
+				set(element, type, name, member.getValue());
+			}
+		}
+		if (features != null) {
+			setFeatures(element, features);
+		}
+		return element;
+	}
+
+	private void set(NLGElement element, String type, String name, Object spec) {
+		switch (name) {
+		case "subject": //$NON-NLS-1$
+			as(SPhraseSpec.class, element, type, name).setSubject(value(spec));
+			return;
+		case "verb": //$NON-NLS-1$
+			if (element instanceof VPPhraseSpec) {
+				((VPPhraseSpec) element).setVerb(value(spec));
+			} else {
+				as(SPhraseSpec.class, element, type, name).setVerb(value(spec));
+			}
+			return;
+		case "object": //$NON-NLS-1$
+			if (element instanceof VPPhraseSpec) {
+				((VPPhraseSpec) element).setObject(value(spec));
+			} else if (element instanceof PPPhraseSpec) {
+				((PPPhraseSpec) element).setObject(value(spec));
+			} else {
+				as(SPhraseSpec.class, element, type, name).setObject(value(spec));
+			}
+			return;
+		case "indirectObject": //$NON-NLS-1$
+			if (element instanceof VPPhraseSpec) {
+				((VPPhraseSpec) element).setIndirectObject(value(spec));
+			} else {
+				as(SPhraseSpec.class, element, type, name).setIndirectObject(value(spec));
+			}
+			return;
+		case "specifier": //$NON-NLS-1$
+			as(NPPhraseSpec.class, element, type, name).setSpecifier(value(spec));
+			return;
+		case "noun": //$NON-NLS-1$
+			as(NPPhraseSpec.class, element, type, name).setNoun(value(spec));
+			return;
+		case "pronoun": //$NON-NLS-1$
+			as(NPPhraseSpec.class, element, type, name).setPronoun(value(spec));
+			return;
+		case "preposition": //$NON-NLS-1$
+			as(PPPhraseSpec.class, element, type, name).setPreposition(value(spec));
+			return;
+		case "adjective": //$NON-NLS-1$
+			as(AdjPhraseSpec.class, element, type, name).setAdjective(value(spec));
+			return;
+		case "adverb": //$NON-NLS-1$
+			as(AdvPhraseSpec.class, element, type, name).setAdverb(value(spec));
+			return;
+		case "conjunction": //$NON-NLS-1$
+			as(CoordinatedPhraseElement.class, element, type, name).setConjunction(
+					string(spec, name));
+			return;
+		case "coordinates": //$NON-NLS-1$
+			CoordinatedPhraseElement coordination = as(CoordinatedPhraseElement.class, element,
+					type, name);
+			for (Object coordinate : list(spec, name)) {
+				coordination.addCoordinate(value(coordinate));
+			}
+			return;
+		case "components": //$NON-NLS-1$
+			DocumentElement sentence = as(DocumentElement.class, element, type, name);
+			for (Object component : list(spec, name)) {
+				sentence.addComponent(read(component));
+			}
+			return;
+		case "complements": //$NON-NLS-1$
+		case "preModifiers": //$NON-NLS-1$
+		case "postModifiers": //$NON-NLS-1$
+		case "frontModifiers": //$NON-NLS-1$
+		case "modifiers": //$NON-NLS-1$
+			for (Object modifier : list(spec, name)) {
+				addModifier(element, type, name, value(modifier));
+			}
+			return;
+		default:
+			throw new IllegalArgumentException("Unknown member '" + name + "' in " + type); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private void addModifier(NLGElement element, String type, String name, Object modifier) {
+		if (element instanceof CoordinatedPhraseElement && !"frontModifiers".equals(name) //$NON-NLS-1$
+				&& !"modifiers".equals(name)) { //$NON-NLS-1$
+			CoordinatedPhraseElement coordination = (CoordinatedPhraseElement) element;
+			if (modifier instanceof String) {
+				String string = (String) modifier;
+				if ("complements".equals(name)) coordination.addComplement(string); //$NON-NLS-1$
+				else if ("preModifiers".equals(name)) coordination.addPreModifier(string); //$NON-NLS-1$
+				else coordination.addPostModifier(string);
+			} else {
+				NLGElement child = (NLGElement) modifier;
+				if ("complements".equals(name)) coordination.addComplement(child); //$NON-NLS-1$
+				else if ("preModifiers".equals(name)) coordination.addPreModifier(child); //$NON-NLS-1$
+				else coordination.addPostModifier(child);
+			}
+			return;
+		}
+		PhraseElement phrase = as(PhraseElement.class, element, type, name);
+		if ("modifiers".equals(name)) { //$NON-NLS-1$
+			phrase.addModifier(modifier);
+		} else if (modifier instanceof String) {
+			String string = (String) modifier;
+			if ("complements".equals(name)) phrase.addComplement(string); //$NON-NLS-1$
+			else if ("preModifiers".equals(name)) phrase.addPreModifier(string); //$NON-NLS-1$
+			else if ("postModifiers".equals(name)) phrase.addPostModifier(string); //$NON-NLS-1$
+			else phrase.addFrontModifier(string);
+		} else {
+			NLGElement child = (NLGElement) modifier;
+			if ("complements".equals(name)) phrase.addComplement(child); //$NON-NLS-1$
+			else if ("preModifiers".equals(name)) phrase.addPreModifier(child); //$NON-NLS-1$
+			else if ("postModifiers".equals(name)) phrase.addPostModifier(child); //$NON-NLS-1$
+			else phrase.addFrontModifier(child);
+		}
+	}
+
+	private void setFeatures(NLGElement element, Object spec) {
+		if (!(spec instanceof Map)) {
+			throw new IllegalArgumentException("features must be an object: " + spec); //$NON-NLS-1$
+		}
+		for (Map.Entry<?, ?> feature : ((Map<?, ?>) spec).entrySet()) {
+			String name = (String) feature.getKey();
+			String featureName = this.featureNames.get(name);
+			Object value = feature.getValue();
+			if (value instanceof String && this.featureValues.containsKey(value)) {
+				value = this.featureValues.get(value);
+			} else if (value instanceof Map) {
+				value = element(value);
+			}
+			element.setFeature(featureName != null ? featureName : name, value);
+		}
+	}
+
+	private static <T> T as(Class<T> expected, NLGElement element, String type, String name) {
+		if (!expected.isInstance(element)) {
+			throw new IllegalArgumentException("Unknown member '" + name + "' in " + type); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return expected.cast(element);
+	}
+
+	private static String string(Map<String, Object> members, String name) {
+		return string(members.get(name), name);
+	}
+
+	private static String string(Object value, String name) {
+		if (!(value instanceof String)) {
+			throw new IllegalArgumentException(name + " must be a string: " + value); //$NON-NLS-1$
+		}
+		return (String) value;
+	}
+
+	private static List<?> list(Object value, String name) {
+		if (!(value instanceof List)) {
+			throw new IllegalArgumentException(name + " must be an array: " + value); //$NON-NLS-1$
+		}
+		return (List<?>) value;
+	}
+}
@@ -0,0 +1,247 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.server;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import simplenlg.framework.NLGElement;
+import simplenlg.realiser.BatchRealiser;
+
+/**
+ * <p>
+ * Groups the elements submitted within a short time window into batches
+ * for a <code>BatchRealiser</code>, so that concurrent requests share the
+ * parallel realisation path instead of each being realised on its own.
+ * </p>
+ * 
+ * <p>
+ * A single dispatcher thread waits for an element, then for at most
+ * <code>windowMillis</code> for more, up to <code>maxBatchSize</code>, and
+ * hands the batch to a thread of its own which waits for the
+ * <code>BatchRealiser</code> and completes the futures, so that the next
+ * batch can be collected meanwhile. At most <code>maxConcurrentBatches</code>
+ * batches are realised at once; the dispatcher waits for one of them to
+ * finish before handing over another. At most <code>maxPending</code>
+ * elements are waiting or being realised; beyond that <code>submit()</code>
+ * fails at once with a <code>RejectedExecutionException</code>.
+ * </p>
+ */
+class MicroBatcher implements Closeable {
+
+	private final BatchRealiser batchRealiser;
+	private final long windowNanos;
+	private final int maxBatchSize;
+	private final Semaphore admission;
+	private final Semaphore batchSlots;
+	private final ExecutorService batchExecutor;
+	private final Set<List<Pending>> running = ConcurrentHashMap.newKeySet();
+	private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<Pending>();
+	private final Thread dispatcher;
+	private volatile boolean closed = false;
+
+	private static class Pending {
+		final NLGElement element;
+		final CompletableFuture<BatchRealiser.Result> future =
+				new CompletableFuture<BatchRealiser.Result>();
+
+		Pending(NLGElement element) {
+			this.element = element;
+		}
+	}
+
+	MicroBatcher(BatchRealiser batchRealiser, long windowMillis, int maxBatchSize, int maxPending,
+			int maxConcurrentBatches) {
+		this.batchRealiser = batchRealiser;
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		this.maxBatchSize = maxBatchSize;
+		this.admission = new Semaphore(maxPending);
+		this.batchSlots = new Semaphore(maxConcurrentBatches);
+		this.batchExecutor = Executors.newFixedThreadPool(maxConcurrentBatches, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "simplenlg-server-batch-" + this.count.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.dispatcher = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				dispatch();
+			}
+		}, "simplenlg-server-batcher"); //$NON-NLS-1$
+		this.dispatcher.setDaemon(true);
+		this.dispatcher.start();
+	}
+
+	/**
+	 * Submits elements to be realised together, or none of them if there
+	 * is not room enough for all.
+	 * 
+	 * @param elements
+	 * @return one future per element, in the same order
+	 * @throws RejectedExecutionException
+	 *             if too many elements are waiting, or the batcher is closed
+	 */
+	List<CompletableFuture<BatchRealiser.Result>> submit(List<NLGElement> elements) {
+		if (this.closed || !this.admission.tryAcquire(elements.size())) {
+			throw new RejectedExecutionException("Too many pending realisations"); //$NON-NLS-1$
+		}
+		List<CompletableFuture<BatchRealiser.Result>> futures =
+				new ArrayList<CompletableFuture<BatchRealiser.Result>>(elements.size());
+		for (NLGElement element : elements) {
+			Pending pending = new Pending(element);
+			pending.future.whenComplete(new BiConsumer<BatchRealiser.Result, Throwable>() {
+				@Override
+				public void accept(BatchRealiser.Result result, Throwable error) {
+					MicroBatcher.this.admission.release();
+				}
+			});
+			futures.add(pending.future);
+			this.queue.add(pending);
+		}
+		return futures;
+	}
+
+	private void dispatch() {
+		List<Pending> batch = null;
+		try {
+			while (!this.closed) {
+				batch = new ArrayList<Pending>(this.maxBatchSize);
+				batch.add(this.queue.take());
+				long deadline = System.nanoTime() + this.windowNanos;
+				while (batch.size() < this.maxBatchSize) {
+					long remaining = deadline - System.nanoTime();
+					Pending next = remaining > 0
+							? this.queue.poll(remaining, TimeUnit.NANOSECONDS) : this.queue.poll();
+					if (next == null) break;
+					batch.add(next);
+				}
+				this.batchSlots.acquire();
+				realise(batch);
+				batch = null;
+			}
+		} catch (InterruptedException ex) {
+			// closed
+		} finally {
+			if (batch != null) {
+				fail(batch);
+			}
+			failPending();
+		}
+	}
+
+	private void realise(final List<Pending> batch) {
+		final List<NLGElement> elements = new ArrayList<NLGElement>(batch.size());
+		for (Pending pending : batch) {
+			elements.add(pending.element);
+		}
+		this.running.add(batch);
+		try {
+			CompletableFuture.supplyAsync(new Supplier<List<BatchRealiser.Result>>() {
+				@Override
+				public List<BatchRealiser.Result> get() {
+					try {
+						return MicroBatcher.this.batchRealiser.realiseSentences(elements);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new CompletionException(
+								new RejectedExecutionException("Server stopped")); //$NON-NLS-1$
+					}
+				}
+			}, this.batchExecutor).whenComplete(new BiConsumer<List<BatchRealiser.Result>, Throwable>() {
+				@Override
+				public void accept(List<BatchRealiser.Result> results, Throwable error) {
+					complete(batch, results, error);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			complete(batch, null, ex);
+		}
+	}
+
+	private void complete(List<Pending> batch, List<BatchRealiser.Result> results, Throwable error) {
+		this.running.remove(batch);
+		this.batchSlots.release();
+		if (error instanceof CompletionException && error.getCause() != null) {
+			error = error.getCause();
+		}
+		for (int index = 0; index < batch.size(); index++) {
+			if (error == null) {
+				batch.get(index).future.complete(results.get(index));
+			} else {
+				batch.get(index).future.completeExceptionally(error);
+			}
+		}
+	}
+
+	private static void fail(List<Pending> batch) {
+		for (Pending pending : batch) {
+			pending.future.completeExceptionally(new RejectedExecutionException("Server stopped")); //$NON-NLS-1$
+		}
+	}
+
+	private void failPending() {
+		Pending pending;
+		while ((pending = this.queue.poll()) != null) {
+			pending.future.completeExceptionally(new RejectedExecutionException("Server stopped")); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Stops the dispatcher and interrupts the batches being realised; their
+	 * elements, and those still waiting, fail with a
+	 * <code>RejectedExecutionException</code>.
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		this.dispatcher.interrupt();
+		try {
+			this.dispatcher.join();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		this.batchExecutor.shutdownNow();
+		for (List<Pending> batch : this.running) {
+			fail(batch);
+		}
+		failPending();
+	}
+}
@@ -0,0 +1,660 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Pierre-Luc Vaudry.
+ */
+
+package simplenlg.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import simplenlg.framework.Language;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.XMLLexicon;
+import simplenlg.realiser.BatchRealiser;
+import simplenlg.realiser.Realiser;
+import simplenlg.serialisation.Json;
+import simplenlg.serialisation.JsonSpecReader;
+
+/**
+ * <p>
+ * A small HTTP server realising specs written in the JSON format read by
+ * <code>JsonSpecReader</code>, built on the <code>com.sun.net.httpserver</code>
+ * package of the JDK so that it needs no other library. It has three
+ * endpoints:
+ * </p>
+ * <ul>
+ * <li><code>POST /realise?lang=nl</code>: the body is one spec; the answer
+ * is <code>{"realisation":"..."}</code>, or <code>{"error":"..."}</code>
+ * with the status 400 if the spec is invalid, 500 if its realisation
+ * failed;</li>
+ * <li><code>POST /realise/batch?lang=nl</code>: the body is a JSON array of
+ * specs; the answer is <code>{"results":[...]}</code>, one
+ * <code>{"realisation":"..."}</code> or <code>{"error":"..."}</code> per
+ * spec, in order;</li>
+ * <li><code>GET /health</code>: answers <code>{"status":"ok"}</code>.</li>
+ * </ul>
+ * <p>
+ * Without <code>lang</code>, the first language given to the constructor is
+ * used.
+ * </p>
+ * 
+ * <p>
+ * The lexicons are loaded once, when the server is created, and shared by
+ * all the requests. An XML lexicon keeps at most <code>maxCreatedWords</code>
+ * of the words created for the unknown base forms of the requests. The specs are read on the threads handling the requests
+ * (each with its own factory per language), then the elements of all the
+ * requests received within <code>batchWindowMillis</code> are realised
+ * together by a <code>BatchRealiser</code>, whose threads each keep their
+ * own realiser. A batch is split into as many chunks as there are
+ * realisation threads, and up to that many batches are realised at once.
+ * When more than <code>maxPending</code> elements are waiting
+ * or being realised, new requests are answered at once with the status 429
+ * (Too Many Requests) and a <code>Retry-After</code> header; so are the
+ * requests arriving while all the handler threads are busy and
+ * <code>handlerQueueSize</code> requests are already waiting for one. A
+ * body longer than <code>maxBodyBytes</code>, or a batch of more than
+ * <code>maxPending</code> specs, is answered with the status 413 (Payload
+ * Too Large).
+ * </p>
+ * 
+ * <pre>
+ * RealisationServer server = new RealisationServer(new InetSocketAddress(8080),
+ * 		Language.DUTCH, Language.ENGLISH);
+ * server.start();
+ * </pre>
+ */
+public class RealisationServer {
+
+	/** The default time during which requests are grouped, in milliseconds. */
+	public static final long DEFAULT_BATCH_WINDOW_MILLIS = 2;
+
+	/** The default maximum number of elements realised together. */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+	/** The default maximum number of elements waiting or being realised. */
+	public static final int DEFAULT_MAX_PENDING = 4096;
+
+	/** The default maximum time a request waits for its realisation. */
+	public static final long DEFAULT_TIMEOUT_MILLIS = 30000;
+
+	/** The default maximum length of a request body, in bytes. */
+	public static final int DEFAULT_MAX_BODY_BYTES = 1 << 20;
+
+	/** The default number of requests waiting for a handler thread. */
+	public static final int DEFAULT_HANDLER_QUEUE_SIZE = 256;
+
+	/** The default number of words created for unknown base forms kept by each lexicon. */
+	public static final int DEFAULT_MAX_CREATED_WORDS = 10000;
+
+	private final InetSocketAddress requestedAddress;
+	private final Map<Language, Lexicon> lexicons;
+	private final Language defaultLanguage;
+	private final Map<Language, ThreadLocal<JsonSpecReader>> readers;
+
+	private long batchWindowMillis = DEFAULT_BATCH_WINDOW_MILLIS;
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+	private int maxPending = DEFAULT_MAX_PENDING;
+	private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+	private int maxBodyBytes = DEFAULT_MAX_BODY_BYTES;
+	private int handlerQueueSize = DEFAULT_HANDLER_QUEUE_SIZE;
+	private int maxCreatedWords = DEFAULT_MAX_CREATED_WORDS;
+	private int handlerThreads = 4 * Runtime.getRuntime().availableProcessors();
+	private int realisationThreads = Runtime.getRuntime().availableProcessors();
+
+	private HttpServer server;
+	private ExecutorService handlerExecutor;
+	private ExecutorService realisationExecutor;
+	private MicroBatcher batcher;
+
+	// set while a request refused by the handler executor is answered
+	private final ThreadLocal<Boolean> overloaded = new ThreadLocal<Boolean>();
+
+	/**
+	 * Creates a server with the built-in lexicon of each language, loaded
+	 * now.
+	 * 
+	 * @param address
+	 *            the address to listen to; port 0 for any free port
+	 * @param languages
+	 *            the languages served, the first one by default
+	 */
+	public RealisationServer(InetSocketAddress address, Language... languages) {
+		this(address, defaultLexicons(languages));
+	}
+
+	/**
+	 * Creates a server with the given lexicons.
+	 * 
+	 * @param address
+	 *            the address to listen to; port 0 for any free port
+	 * @param lexicons
+	 *            the lexicon of each language served, the first one by
+	 *            default (in the iteration order of the map)
+	 */
+	public RealisationServer(InetSocketAddress address, Map<Language, Lexicon> lexicons) {
+		if (lexicons.isEmpty()) {
+			throw new IllegalArgumentException("No language to serve"); //$NON-NLS-1$
+		}
+		this.requestedAddress = address;
+		this.lexicons = Collections.unmodifiableMap(new EnumMap<Language, Lexicon>(lexicons));
+		this.defaultLanguage = lexicons.keySet().iterator().next();
+		this.readers = new EnumMap<Language, ThreadLocal<JsonSpecReader>>(Language.class);
+		for (final Map.Entry<Language, Lexicon> entry : this.lexicons.entrySet()) {
+			this.readers.put(entry.getKey(), ThreadLocal.withInitial(new Supplier<JsonSpecReader>() {
+				@Override
+				public JsonSpecReader get() {
+					return new JsonSpecReader(new NLGFactory(entry.getValue()));
+				}
+			}));
+		}
+	}
+
+	private static Map<Language, Lexicon> defaultLexicons(Language... languages) {
+		Map<Language, Lexicon> lexicons = new LinkedHashMap<Language, Lexicon>();
+		for (Language language : languages) {
+			if (!lexicons.containsKey(language)) {
+				lexicons.put(language, Lexicon.getDefaultLexicon(language));
+			}
+		}
+		return lexicons;
+	}
+
+	/**
+	 * @param batchWindowMillis
+	 *            the time during which the requests are grouped into a batch
+	 */
+	public void setBatchWindowMillis(long batchWindowMillis) {
+		if (batchWindowMillis < 0) {
+			throw new IllegalArgumentException("batchWindowMillis must not be negative: " //$NON-NLS-1$
+					+ batchWindowMillis);
+		}
+		this.batchWindowMillis = batchWindowMillis;
+	}
+
+	/**
+	 * @param maxBatchSize
+	 *            the maximum number of elements realised together
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		if (maxBatchSize <= 0) {
+			throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize); //$NON-NLS-1$
+		}
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * @param maxPending
+	 *            the number of elements waiting or being realised beyond
+	 *            which requests are answered with the status 429; a batch
+	 *            of more specs is answered with the status 413
+	 */
+	public void setMaxPending(int maxPending) {
+		if (maxPending <= 0) {
+			throw new IllegalArgumentException("maxPending must be positive: " + maxPending); //$NON-NLS-1$
+		}
+		this.maxPending = maxPending;
+	}
+
+	/**
+	 * @param timeoutMillis
+	 *            the maximum time a request waits for its realisations
+	 *            before being answered with the status 503
+	 */
+	public void setTimeoutMillis(long timeoutMillis) {
+		if (timeoutMillis <= 0) {
+			throw new IllegalArgumentException("timeoutMillis must be positive: " + timeoutMillis); //$NON-NLS-1$
+		}
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * @param maxBodyBytes
+	 *            the length of a request body, in bytes, beyond which the
+	 *            request is answered with the status 413
+	 */
+	public void setMaxBodyBytes(int maxBodyBytes) {
+		if (maxBodyBytes <= 0) {
+			throw new IllegalArgumentException("maxBodyBytes must be positive: " + maxBodyBytes); //$NON-NLS-1$
+		}
+		this.maxBodyBytes = maxBodyBytes;
+	}
+
+	/**
+	 * @param handlerQueueSize
+	 *            the number of requests waiting for a handler thread beyond
+	 *            which requests are answered with the status 429
+	 */
+	public void setHandlerQueueSize(int handlerQueueSize) {
+		if (handlerQueueSize <= 0) {
+			throw new IllegalArgumentException("handlerQueueSize must be positive: " //$NON-NLS-1$
+					+ handlerQueueSize);
+		}
+		this.handlerQueueSize = handlerQueueSize;
+	}
+
+	/**
+	 * @param maxCreatedWords
+	 *            the number of words created for the unknown base forms of
+	 *            the requests that each XML lexicon keeps (see
+	 *            <code>XMLLexicon.setMaxCreatedWords</code>); set on the
+	 *            lexicons when the server starts
+	 */
+	public void setMaxCreatedWords(int maxCreatedWords) {
+		if (maxCreatedWords < 0) {
+			throw new IllegalArgumentException("maxCreatedWords must not be negative: " //$NON-NLS-1$
+					+ maxCreatedWords);
+		}
+		this.maxCreatedWords = maxCreatedWords;
+	}
+
+	/**
+	 * @param handlerThreads
+	 *            the number of threads reading the requests and waiting for
+	 *            their realisations
+	 */
+	public void setHandlerThreads(int handlerThreads) {
+		if (handlerThreads <= 0) {
+			throw new IllegalArgumentException("handlerThreads must be positive: " + handlerThreads); //$NON-NLS-1$
+		}
+		this.handlerThreads = handlerThreads;
+	}
+
+	/**
+	 * @param realisationThreads
+	 *            the number of threads realising the batches
+	 */
+	public void setRealisationThreads(int realisationThreads) {
+		if (realisationThreads <= 0) {
+			throw new IllegalArgumentException("realisationThreads must be positive: " //$NON-NLS-1$
+					+ realisationThreads);
+		}
+		this.realisationThreads = realisationThreads;
+	}
+
+	/**
+	 * Starts listening. The settings must be changed before.
+	 * 
+	 * @throws IOException
+	 *             if the server cannot listen to its address
+	 */
+	public synchronized void start() throws IOException {
+		if (this.server != null) {
+			throw new IllegalStateException("Server already started"); //$NON-NLS-1$
+		}
+		// unknown words in the requests must not grow the shared lexicons forever
+		for (Lexicon lexicon : this.lexicons.values()) {
+			if (lexicon instanceof XMLLexicon) {
+				((XMLLexicon) lexicon).setMaxCreatedWords(this.maxCreatedWords);
+			}
+		}
+		this.realisationExecutor = Executors.newFixedThreadPool(this.realisationThreads,
+				daemonThreads("simplenlg-server-realiser-")); //$NON-NLS-1$
+		BatchRealiser batchRealiser = new BatchRealiser(this.realisationExecutor,
+				new Supplier<Realiser>() {
+					@Override
+					public Realiser get() {
+						return new Realiser();
+					}
+				});
+		// a full batch is spread over all the threads, and smaller ones run side by side
+		batchRealiser.setChunkSize((this.maxBatchSize + this.realisationThreads - 1) / this.realisationThreads);
+		this.batcher = new MicroBatcher(batchRealiser, this.batchWindowMillis, this.maxBatchSize,
+				this.maxPending, this.realisationThreads);
+		// a request refused for want of a handler thread is answered at once by
+		// the thread accepting it, without its body being read
+		this.handlerExecutor = new ThreadPoolExecutor(this.handlerThreads, this.handlerThreads, 0,
+				TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(this.handlerQueueSize),
+				daemonThreads("simplenlg-server-handler-"), new RejectedExecutionHandler() { //$NON-NLS-1$
+					@Override
+					public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+						if (executor.isShutdown()) {
+							throw new RejectedExecutionException("Server stopped"); //$NON-NLS-1$
+						}
+						RealisationServer.this.overloaded.set(Boolean.TRUE);
+						try {
+							task.run();
+						} finally {
+							RealisationServer.this.overloaded.remove();
+						}
+					}
+				});
+
+		this.server = HttpServer.create(this.requestedAddress, 0);
+		this.server.setExecutor(this.handlerExecutor);
+		this.server.createContext("/realise", new HttpHandler() { //$NON-NLS-1$
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleRealise(exchange, false);
+			}
+		});
+		this.server.createContext("/realise/batch", new HttpHandler() { //$NON-NLS-1$
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				handleRealise(exchange, true);
+			}
+		});
+		this.server.createContext("/health", new HttpHandler() { //$NON-NLS-1$
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				respond(exchange, 200, "{\"status\":\"ok\"}"); //$NON-NLS-1$
+			}
+		});
+		this.server.start();
+	}
+
+	/**
+	 * Stops the server, waiting at most <code>delaySeconds</code> for the
+	 * requests being handled. The realisations still waiting fail.
+	 * 
+	 * @param delaySeconds
+	 */
+	public synchronized void stop(int delaySeconds) {
+		if (this.server == null) return;
+		this.server.stop(delaySeconds);
+		this.batcher.close();
+		this.handlerExecutor.shutdownNow();
+		this.realisationExecutor.shutdownNow();
+		this.server = null;
+	}
+
+	/**
+	 * @return the address the server listens to, with the actual port if
+	 *         it was started on port 0
+	 */
+	public synchronized InetSocketAddress getAddress() {
+		return this.server != null ? this.server.getAddress() : this.requestedAddress;
+	}
+
+	/**
+	 * @return the languages served
+	 */
+	public Map<Language, Lexicon> getLexicons() {
+		return this.lexicons;
+	}
+
+	private void handleRealise(HttpExchange exchange, boolean batch) throws IOException {
+		try {
+			if (this.overloaded.get() != null) {
+				exchange.getResponseHeaders().set("Retry-After", "1"); //$NON-NLS-1$ //$NON-NLS-2$
+				respondError(exchange, 429, "Too many pending requests"); //$NON-NLS-1$
+				return;
+			}
+			if (!"POST".equals(exchange.getRequestMethod())) { //$NON-NLS-1$
+				exchange.getResponseHeaders().set("Allow", "POST"); //$NON-NLS-1$ //$NON-NLS-2$
+				respondError(exchange, 405, "Use POST"); //$NON-NLS-1$
+				return;
+			}
+			String path = exchange.getRequestURI().getPath();
+			if (!path.equals(batch ? "/realise/batch" : "/realise")) { //$NON-NLS-1$ //$NON-NLS-2$
+				respondError(exchange, 404, "Unknown endpoint " + path); //$NON-NLS-1$
+				return;
+			}
+			Language language = this.defaultLanguage;
+			String lang = queryParameter(exchange, "lang"); //$NON-NLS-1$
+			if (lang != null) {
+				language = Language.convertCodeToLanguage(lang);
+				if (language == null || !this.readers.containsKey(language)) {
+					respondError(exchange, 400, "Language not served: " + lang); //$NON-NLS-1$
+					return;
+				}
+			}
+			JsonSpecReader reader = this.readers.get(language).get();
+
+			String length = exchange.getRequestHeaders().getFirst("Content-Length"); //$NON-NLS-1$
+			String body = null;
+			try {
+				if (length == null || Long.parseLong(length.trim()) <= this.maxBodyBytes) {
+					body = readBody(exchange.getRequestBody(), this.maxBodyBytes);
+				}
+			} catch (NumberFormatException ex) {
+				respondError(exchange, 400, "Invalid Content-Length: " + length); //$NON-NLS-1$
+				return;
+			}
+			if (body == null) {
+				respondError(exchange, 413, "Request body longer than " + this.maxBodyBytes + " bytes"); //$NON-NLS-1$ //$NON-NLS-2$
+				return;
+			}
+			List<Object> specs;
+			try {
+				Object json = Json.parse(body);
+				if (batch) {
+					if (!(json instanceof List)) {
+						respondError(exchange, 400, "Expected an array of specs"); //$NON-NLS-1$
+						return;
+					}
+					@SuppressWarnings("unchecked")
+					List<Object> list = (List<Object>) json;
+					specs = list;
+				} else {
+					specs = Collections.singletonList(json);
+				}
+			} catch (IllegalArgumentException ex) {
+				respondError(exchange, 400, ex.getMessage());
+				return;
+			} catch (StackOverflowError ex) {
+				respondError(exchange, 400, "Spec nested too deeply"); //$NON-NLS-1$
+				return;
+			}
+			if (specs.size() > this.maxPending) {
+				// could never be admitted, however long the client waits
+				respondError(exchange, 413, "Batch of " + specs.size() //$NON-NLS-1$
+						+ " specs larger than maxPending " + this.maxPending); //$NON-NLS-1$
+				return;
+			}
+
+			// invalid specs are left out of the batch and reported in place
+			List<NLGElement> elements = new ArrayList<NLGElement>(specs.size());
+			String[] specErrors = new String[specs.size()];
+			for (int index = 0; index < specs.size(); index++) {
+				try {
+					elements.add(reader.read(specs.get(index)));
+				} catch (RuntimeException ex) {
+					specErrors[index] = ex.toString();
+				} catch (StackOverflowError ex) {
+					specErrors[index] = "Spec nested too deeply"; //$NON-NLS-1$
+				}
+			}
+			if (!batch && specErrors[0] != null) {
+				respondError(exchange, 400, specErrors[0]);
+				return;
+			}
+
+			List<CompletableFuture<BatchRealiser.Result>> futures;
+			try {
+				futures = this.batcher.submit(elements);
+			} catch (RejectedExecutionException ex) {
+				exchange.getResponseHeaders().set("Retry-After", "1"); //$NON-NLS-1$ //$NON-NLS-2$
+				respondError(exchange, 429, ex.getMessage());
+				return;
+			}
+
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeoutMillis);
+			List<BatchRealiser.Result> results = new ArrayList<BatchRealiser.Result>(futures.size());
+			try {
+				for (CompletableFuture<BatchRealiser.Result> future : futures) {
+					results.add(future.get(Math.max(0, deadline - System.nanoTime()),
+							TimeUnit.NANOSECONDS));
+				}
+			} catch (TimeoutException ex) {
+				respondError(exchange, 503, "Realisation timed out"); //$NON-NLS-1$
+				return;
+			} catch (ExecutionException ex) {
+				respondError(exchange, 503, String.valueOf(ex.getCause()));
+				return;
+			}
+
+			StringBuilder response = new StringBuilder();
+			if (!batch) {
+				BatchRealiser.Result result = results.get(0);
+				if (!result.isSuccessful()) {
+					respondError(exchange, 500, result.getError().toString());
+					return;
+				}
+				appendResult(response, result.getRealisation(), null);
+			} else {
+				response.append("{\"results\":["); //$NON-NLS-1$
+				int realised = 0;
+				for (int index = 0; index < specErrors.length; index++) {
+					if (index > 0) response.append(',');
+					if (specErrors[index] != null) {
+						appendResult(response, null, specErrors[index]);
+					} else {
+						BatchRealiser.Result result = results.get(realised++);
+						appendResult(response, result.getRealisation(),
+								result.isSuccessful() ? null : result.getError().toString());
+					}
+				}
+				response.append("]}"); //$NON-NLS-1$
+			}
+			respond(exchange, 200, response.toString());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			respondError(exchange, 503, "Server stopping"); //$NON-NLS-1$
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static void appendResult(StringBuilder out, String realisation, String error)
+			throws IOException {
+		if (error != null) {
+			out.append("{\"error\":"); //$NON-NLS-1$
+			Json.appendString(out, error);
+		} else {
+			out.append("{\"realisation\":"); //$NON-NLS-1$
+			Json.append(out, realisation);
+		}
+		out.append('}');
+	}
+
+	private static void respondError(HttpExchange exchange, int status, String message)
+			throws IOException {
+		StringBuilder body = new StringBuilder();
+		appendResult(body, null, String.valueOf(message));
+		respond(exchange, status, body.toString());
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8"); //$NON-NLS-1$ //$NON-NLS-2$
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.close();
+	}
+
+	/**
+	 * @return the body, or <code>null</code> if it is longer than
+	 *         <code>maxBytes</code>
+	 */
+	private static String readBody(InputStream in, int maxBytes) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int length;
+		while ((length = in.read(buffer)) > 0) {
+			if (body.size() + length > maxBytes) return null;
+			body.write(buffer, 0, length);
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static String queryParameter(HttpExchange exchange, String name) throws IOException {
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query == null) return null;
+		for (String parameter : query.split("&")) { //$NON-NLS-1$
+			int equals = parameter.indexOf('=');
+			if (equals > 0 && parameter.substring(0, equals).equals(name)) {
+				return URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"); //$NON-NLS-1$
+			}
+		}
+		return null;
+	}
+
+	private static ThreadFactory daemonThreads(final String prefix) {
+		return new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, prefix + this.count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	/**
+	 * Runs a server on localhost until the process is stopped.
+	 * 
+	 * @param args
+	 *            the port (8080 by default), then the codes of the languages
+	 *            served (nl by default)
+	 * @throws IOException
+	 *             if the server cannot start
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+		List<Language> languages = new ArrayList<Language>();
+		for (int index = 1; index < args.length; index++) {
+			Language language = Language.convertCodeToLanguage(args[index]);
+			if (language == null) {
+				throw new IllegalArgumentException("Unknown language " + args[index]); //$NON-NLS-1$
+			}
+			languages.add(language);
+		}
+		if (languages.isEmpty()) {
+			languages.add(Language.DUTCH);
+		}
+		RealisationServer server = new RealisationServer(
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+				languages.toArray(new Language[languages.size()]));
+		server.start();
+		System.err.println("Listening on " + server.getAddress()); //$NON-NLS-1$
+	}
+}
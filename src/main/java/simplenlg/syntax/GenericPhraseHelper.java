@@ -155,8 +155,9 @@ public abstract class GenericPhraseHelper {
 		
 		// vaudrypl added realisedElement as argument to the constructor
 		// and setComponents(null)
-		ListElement realisedList = new ListElement(realisedElement);
-		realisedList.setComponents(null);
+		// The list is only created once there is something to put in it,
+		// as most modifier lists are empty.
+		ListElement realisedList = null;
 		
 		NLGElement currentElement = null;
 		for (NLGElement eachElement : elementList) {
@@ -165,12 +166,16 @@ public abstract class GenericPhraseHelper {
 			if (currentElement != null) {
 				currentElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
 						function);
+				if (realisedList == null) {
+					realisedList = new ListElement(realisedElement);
+					realisedList.setComponents(null);
+				}
 				// realisedElement.addComponent(currentElement);
 				realisedList.addComponent(currentElement);
 			}
 		}
 
-		if (!realisedList.getChildren().isEmpty()) {
+		if (realisedList != null) {
 			realisedElement.addComponent(realisedList);
 		}
 	}
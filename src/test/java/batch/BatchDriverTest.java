@@ -0,0 +1,80 @@
+package batch;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.batch.BatchDriver;
+import simplenlg.batch.BatchReport;
+import simplenlg.framework.Language;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class BatchDriverTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    @Test
+    public void realisesEachLineInOrder() throws Exception {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        int line = 0;
+        for (int i = 0; i < 50; i++) {
+            input.append("{\"id\":").append(i).append(",\"type\":\"clause\",")
+                    .append("\"subject\":{\"type\":\"np\",\"specifier\":\"de\",\"noun\":\"klant\"},")
+                    .append("\"verb\":\"betalen\",")
+                    .append("\"object\":{\"type\":\"np\",\"specifier\":\"de\",\"noun\":\"rekening\",\"preModifiers\":[\"oud\"]},")
+                    .append("\"features\":{\"TENSE\":\"PAST\"}}\n");
+            expected.append("{\"line\":").append(++line).append(",\"id\":").append(i)
+                    .append(",\"realisation\":\"De klant betaalde de oude rekening.\"}\n");
+            if (i % 10 == 0) {
+                input.append("\n");
+                line++;
+                input.append("{\"type\":\"coordination\",\"coordinates\":[\"de man\",\"de vrouw\"]}\n");
+                expected.append("{\"line\":").append(++line)
+                        .append(",\"realisation\":\"De man en de vrouw.\"}\n");
+            }
+        }
+        input.append("{\"type\":\"np\",\"colour\":\"red\"}\n");
+        expected.append("{\"line\":").append(++line)
+                .append(",\"error\":\"java.lang.IllegalArgumentException: Unknown member 'colour' in np\"}\n");
+
+        BatchDriver driver = new BatchDriver();
+        driver.setLanguage(Language.DUTCH);
+        driver.setThreads(3);
+        driver.setChunkSize(4);
+        StringWriter out = new StringWriter();
+        BatchReport report = driver.run(new BufferedReader(new StringReader(input.toString())), out);
+
+        collector.checkThat(out.toString(), equalTo(expected.toString()));
+        collector.checkThat(report.getSentences(), equalTo(55L));
+        collector.checkThat(report.getParseErrors(), equalTo(1L));
+        collector.checkThat(report.getRealisationErrors(), equalTo(0L));
+        collector.checkThat(report.getPercentileNanos(50) <= report.getPercentileNanos(99), equalTo(true));
+        collector.checkThat(report.getPercentileNanos(100), equalTo(report.getMaxNanos()));
+    }
+
+    @Test
+    public void deeplyNestedLineIsReportedOnItsLine() throws Exception {
+        StringBuilder input = new StringBuilder("{\"type\":\"canned\",\"text\":\"eerst\"}\n");
+        for (int i = 0; i < 100000; i++) {
+            input.append('[');
+        }
+        input.append("\n{\"type\":\"canned\",\"text\":\"daarna\"}\n");
+
+        BatchDriver driver = new BatchDriver();
+        driver.setLanguage(Language.DUTCH);
+        StringWriter out = new StringWriter();
+        BatchReport report = driver.run(new BufferedReader(new StringReader(input.toString())), out);
+
+        collector.checkThat(out.toString(), equalTo("{\"line\":1,\"realisation\":\"Eerst.\"}\n"
+                + "{\"line\":2,\"error\":\"java.lang.IllegalArgumentException: "
+                + "Objects and arrays nested deeper than 256 at position 256\"}\n"
+                + "{\"line\":3,\"realisation\":\"Daarna.\"}\n"));
+        collector.checkThat(report.getParseErrors(), equalTo(1L));
+    }
+}
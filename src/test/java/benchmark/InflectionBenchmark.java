@@ -0,0 +1,109 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import simplenlg.features.Feature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Tense;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+
+/**
+ * Measures the cost of inflecting one Dutch word with
+ * <code>simplenlg.morphology.dutch.MorphologyRules</code>: the plural of
+ * nouns, the comparative of adjectives and the past tense of verbs, each
+ * benchmark cycling through a handful of regular words that exercise the
+ * vowel, consonant and f/s spelling rules. Run it on two commits to compare
+ * the cost per word before and after a change to the rules:
+ *
+ * <pre>
+ *     mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *     java -cp target/test-classes:target/classes:$(cat cp.txt) benchmark.InflectionBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InflectionBenchmark {
+
+    final private static Lexicon lexicon = new simplenlg.lexicon.dutch.XMLLexicon();
+
+    final private static String[] NOUNS = {"boom", "kat", "brief", "huis", "man", "tafel", "auto", "heid"};
+    final private static String[] ADJECTIVES = {"groot", "dik", "lief", "boos", "mooi", "klein", "raar", "snel"};
+    final private static String[] VERBS = {"maken", "werken", "leven", "reizen", "bellen", "stoppen", "horen", "praten"};
+
+    private WordElement[] nouns;
+    private WordElement[] adjectives;
+    private WordElement[] verbs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        nouns = lookUp(NOUNS, LexicalCategory.NOUN);
+        adjectives = lookUp(ADJECTIVES, LexicalCategory.ADJECTIVE);
+        verbs = lookUp(VERBS, LexicalCategory.VERB);
+    }
+
+    private static WordElement[] lookUp(String[] baseForms, LexicalCategory category) {
+        WordElement[] words = new WordElement[baseForms.length];
+        for (int i = 0; i < baseForms.length; i++) {
+            words[i] = lexicon.lookupWord(baseForms[i], category);
+        }
+        return words;
+    }
+
+    private WordElement nextWord(WordElement[] words) {
+        next = (next + 1) & 7;
+        return words[next];
+    }
+
+    @Benchmark
+    public NLGElement pluralNoun() {
+        InflectedWordElement element = new InflectedWordElement(nextWord(nouns));
+        element.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+        return element.realiseMorphology();
+    }
+
+    @Benchmark
+    public NLGElement comparativeAdjective() {
+        InflectedWordElement element = new InflectedWordElement(nextWord(adjectives));
+        element.setFeature(Feature.IS_COMPARATIVE, true);
+        return element.realiseMorphology();
+    }
+
+    @Benchmark
+    public NLGElement pastPluralVerb() {
+        InflectedWordElement element = new InflectedWordElement(nextWord(verbs));
+        element.setFeature(Feature.TENSE, Tense.PAST);
+        element.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+        return element.realiseMorphology();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InflectionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,138 @@
+package benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.PhraseCategory;
+import simplenlg.framework.SentenceTemplate;
+import simplenlg.framework.TemplateSlot;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+/**
+ * Measures the time and the memory allocated by one call to
+ * <code>Realiser.realiseSentence</code>. Run it with the GC profiler
+ * to see the allocation rate per sentence (gc.alloc.rate.norm):
+ *
+ * <pre>
+ *     mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *     java -cp target/test-classes:target/classes:$(cat cp.txt) benchmark.RealisationBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RealisationBenchmark {
+
+    final private static Lexicon lexicon_en = new simplenlg.lexicon.english.XMLLexicon();
+    final private static Lexicon lexicon_nl = new simplenlg.lexicon.dutch.XMLLexicon();
+
+    private Realiser realiser;
+    private Realiser fusedRealiser;
+    private SPhraseSpec englishClause;
+    private SPhraseSpec dutchClause;
+    private NLGFactory factory_nl;
+    private SentenceTemplate dutchTemplate;
+
+    @Setup
+    public void setUp() {
+        realiser = new Realiser();
+        fusedRealiser = new Realiser();
+        fusedRealiser.setFusedPipeline(true);
+
+        NLGFactory factory_en = new NLGFactory(lexicon_en);
+        englishClause = factory_en.createClause();
+        CoordinatedPhraseElement subject = factory_en.createCoordinatedPhrase(
+                factory_en.createNounPhrase("the", "customer"),
+                factory_en.createNounPhrase("a", "manager"));
+        englishClause.setSubject(subject);
+        englishClause.setVerb("sign");
+        NPPhraseSpec object = factory_en.createNounPhrase("the", "invoice");
+        object.addPreModifier("old");
+        englishClause.setObject(object);
+        englishClause.addComplement(factory_en.createPrepositionPhrase("in",
+                factory_en.createNounPhrase("Amsterdam")));
+        englishClause.setFeature(Feature.TENSE, Tense.PAST);
+
+        factory_nl = new NLGFactory(lexicon_nl);
+        dutchClause = factory_nl.createClause();
+        dutchClause.setSubject(factory_nl.createNounPhrase("de", "klant"));
+        dutchClause.setVerb("betalen");
+        NPPhraseSpec rekening = factory_nl.createNounPhrase("de", "rekening");
+        rekening.addPreModifier("oud");
+        dutchClause.setObject(rekening);
+        dutchClause.addComplement(factory_nl.createPrepositionPhrase("in",
+                factory_nl.createNounPhrase("Amsterdam")));
+        dutchClause.setFeature(Feature.TENSE, Tense.PAST);
+
+        SPhraseSpec templateClause = factory_nl.createClause();
+        templateClause.setSubject(new TemplateSlot("subject", PhraseCategory.NOUN_PHRASE));
+        templateClause.setVerb("betalen");
+        templateClause.setObject(new TemplateSlot("amount", PhraseCategory.CANNED_TEXT));
+        templateClause.addComplement(factory_nl.createPrepositionPhrase("op",
+                new TemplateSlot("date", PhraseCategory.CANNED_TEXT)));
+        templateClause.setFeature(Feature.PERFECT, true);
+        dutchTemplate = SentenceTemplate.compile(templateClause);
+    }
+
+    @Benchmark
+    public String realiseEnglishSentence() {
+        return realiser.realiseSentence(englishClause);
+    }
+
+    @Benchmark
+    public String realiseDutchSentence() {
+        return realiser.realiseSentence(dutchClause);
+    }
+
+    @Benchmark
+    public String realiseEnglishSentenceFused() {
+        return fusedRealiser.realiseSentence(englishClause);
+    }
+
+    @Benchmark
+    public String realiseDutchSentenceFused() {
+        return fusedRealiser.realiseSentence(dutchClause);
+    }
+
+    @Benchmark
+    public String realiseDutchTemplate() {
+        Map<String, Object> fillers = new HashMap<String, Object>();
+        fillers.put("subject", factory_nl.createNounPhrase("de", "klant"));
+        fillers.put("amount", "100 euro");
+        fillers.put("date", "1 mei");
+        return realiser.realiseSentence(dutchTemplate, fillers);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RealisationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,276 @@
+package dutch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.NumberAgreement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.morphology.dutch.MorphologyRules;
+import simplenlg.morphology.dutch.Spelling;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+/**
+ * Checks that the spelling engine gives the same results as the regular
+ * expressions and <code>endsWith</code> chains the Dutch morphology rules
+ * used before it, for every word of the bundled lexicon and for random words.
+ */
+public class DutchSpellingTest {
+
+    final private static Lexicon lexicon_nl = new simplenlg.lexicon.dutch.XMLLexicon();
+
+    final private static String CONSONANT = "[b-df-hj-np-tv-xzB-DF-HJ-NP-TV-XZ]";
+    final private static String CVVC = ".*([aeiouAEIOU])\\1" + CONSONANT;
+    final private static String CVVC_NOT_R = ".*([aeiouAEIOU])\\1[b-df-hj-npqstv-xzB-DF-HJ-NPQSTV-XZ]";
+    final private static String CVC = ".*" + CONSONANT + "[aeiouyAEIOUY]" + CONSONANT;
+    final private static String VCC = ".*[aeiouyAEIOUY]" + CONSONANT + "{2,}";
+    final private static String VOWEL_F_S = ".*([aeiouyAEIOUY]|(ij)|(ei)|(ui)|(au)|(ou))[fsFS]";
+    final private static String ENDS_IN_VOWEL = "[a-zA-Z-]+[aiouyAIOUY]";
+    final private static String SHORT_VOWEL_RADICAL = "[a-zA-Z]*[b-df-hj-np-tv-zB-DF-HJ-NP-TV-Z]+"
+            + "[aeouAEOU]{1}[b-df-hj-np-tv-zB-DF-HJ-NP-TV-Z]{1}";
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private static List<String> lexiconWords() {
+        List<String> words = new ArrayList<String>();
+        for (WordElement word : lexicon_nl.getWords(LexicalCategory.ANY, null)) {
+            String baseForm = word.getBaseForm();
+            words.add(baseForm);
+            if (baseForm.endsWith("en") && baseForm.length() > 2) {
+                words.add(baseForm.substring(0, baseForm.length() - 2));
+            }
+        }
+        return words;
+    }
+
+    private static List<String> randomWords() {
+        String alphabet = "aaeeiioouuyYAEbcdfghjklmnprstvwxzBFRSij-é";
+        Random random = new Random(42);
+        List<String> words = new ArrayList<String>();
+        for (int i = 0; i < 20000; i++) {
+            int length = 3 + random.nextInt(6);
+            StringBuilder word = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private void checkClassification(String word) {
+        int tail = Spelling.classify(word);
+        collector.checkThat(word, Spelling.is(tail, Spelling.LONG_VOWEL_CLOSED), equalTo(word.matches(CVVC)));
+        collector.checkThat(word, Spelling.is(tail, Spelling.LONG_VOWEL_CLOSED) && !Spelling.is(tail, Spelling.FINAL_R),
+                equalTo(word.matches(CVVC_NOT_R)));
+        collector.checkThat(word, Spelling.is(tail, Spelling.SHORT_VOWEL_CLOSED), equalTo(word.matches(CVC)));
+        collector.checkThat(word, Spelling.is(tail, Spelling.CONSONANT_CLUSTER), equalTo(word.matches(VCC)));
+        collector.checkThat(word, Spelling.is(tail, Spelling.FINAL_FRICATIVE), equalTo(word.matches(VOWEL_F_S)));
+        collector.checkThat(word, Spelling.is(tail, Spelling.OPEN_VOWEL), equalTo(word.matches(ENDS_IN_VOWEL)));
+        collector.checkThat(word, Spelling.is(tail, Spelling.SHORT_VOWEL_RADICAL),
+                equalTo(word.matches(SHORT_VOWEL_RADICAL)));
+    }
+
+    private void checkRules(ReferenceRules rules, String word) {
+        collector.checkThat(word, rules.buildRegularPlural(word), equalTo(rules.regexPlural(word)));
+        collector.checkThat(word, rules.addNounEnSuffix(word), equalTo(rules.regexNounEnSuffix(word)));
+        collector.checkThat(word, rules.comparative(word), equalTo(rules.regexComparative(word)));
+        collector.checkThat(word, rules.superlative(word), equalTo(rules.regexSuperlative(word)));
+        collector.checkThat(word, outcome(() -> rules.baseRadical(word)),
+                equalTo(outcome(() -> rules.regexBaseRadical(word))));
+        for (NumberAgreement number : NumberAgreement.values()) {
+            collector.checkThat(word, rules.pastSuffix(word, number, true),
+                    equalTo(rules.regexPastSuffix(word, number, true)));
+            collector.checkThat(word, rules.pastSuffix(word, number, false),
+                    equalTo(rules.regexPastSuffix(word, number, false)));
+        }
+    }
+
+    /**
+     * The result of a rule, or the exception it throws.
+     */
+    private static String outcome(Supplier<String> rule) {
+        try {
+            return rule.get();
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    @Test
+    public void sameRulesOverTheLexicon() {
+        ReferenceRules rules = new ReferenceRules();
+        for (String word : lexiconWords()) {
+            checkClassification(word);
+            checkRules(rules, word);
+        }
+    }
+
+    @Test
+    public void sameRulesOverRandomWords() {
+        ReferenceRules rules = new ReferenceRules();
+        for (String word : randomWords()) {
+            checkClassification(word);
+            checkRules(rules, word);
+        }
+    }
+
+    /**
+     * The rules as they were written with regular expressions, next to
+     * the current ones.
+     */
+    private static class ReferenceRules extends MorphologyRules {
+
+        String comparative(String word) {
+            return buildRegularComparative(word);
+        }
+
+        String superlative(String word) {
+            return buildRegularSuperlative(word);
+        }
+
+        String baseRadical(String word) {
+            return getBaseRadical(word);
+        }
+
+        String pastSuffix(String word, NumberAgreement number, boolean isStrongVerb) {
+            return addPastSuffix(word, number, isStrongVerb);
+        }
+
+        String regexPlural(String form) {
+            if (form.matches(ENDS_IN_VOWEL)) {
+                if (!form.endsWith("ee") && !form.endsWith("ie") && !form.endsWith("eau")) {
+                    form += "'s";
+                } else {
+                    form = addNounSSuffix(form);
+                }
+            } else if (form.endsWith("el") || form.endsWith("em") || form.endsWith("en")
+                    || (form.endsWith("er") && !form.endsWith("oer"))
+                    || form.endsWith("aar") || form.endsWith("aard") || form.endsWith("erd")
+                    || form.endsWith("je") || form.endsWith("ster") || form.endsWith("stel")
+                    || form.endsWith("sel") || form.endsWith("te") || form.endsWith("age")
+                    || form.endsWith("e") || form.endsWith("ette") || form.endsWith("eur")
+                    || form.endsWith("ier") || form.endsWith("trice") || form.endsWith("ine")
+                    || form.endsWith("oir")) {
+                form = addNounSSuffix(form);
+            } else if (form.length() == 1) {
+                form += "'s";
+            } else {
+                form = regexNounEnSuffix(form);
+            }
+            return form;
+        }
+
+        String regexNounEnSuffix(String form) {
+            int length = form.length();
+            String suffix = "en";
+            if (form.endsWith("ij")) {
+            } else if (form.endsWith("erik")) {
+                suffix = "en";
+            } else if (form.matches(CVVC)) {
+                if (form.endsWith("f")) {
+                    form = form.substring(0, length - 1) + "v";
+                } else if (form.endsWith("s")) {
+                    form = form.substring(0, length - 1) + "z";
+                }
+                form = form.substring(0, length - 2) + form.substring(length - 1);
+            } else if (form.matches(CVC)) {
+                String lastVowel = "";
+                if (form.endsWith("ijf")) {
+                    form = form.substring(0, length - 3) + "ijv";
+                } else if (form.endsWith("eis")) {
+                    form = form.substring(0, length - 3) + "eiz";
+                } else if (form.endsWith("f")) {
+                    form = form.substring(0, length - 1) + "v";
+                } else if (form.endsWith("s")) {
+                    form = form.substring(0, length - 1) + "z";
+                } else {
+                    lastVowel = form.substring(length - 1);
+                }
+                suffix = lastVowel + "en";
+            } else if (form.endsWith("heid")) {
+                form = form.substring(0, length - 4);
+                suffix = "heden";
+            }
+            return form + suffix;
+        }
+
+        String regexOpenSyllable(String baseForm) {
+            int length = baseForm.length();
+            if (baseForm.matches(VOWEL_F_S)) {
+                if (baseForm.endsWith("f")) {
+                    baseForm = baseForm.substring(0, length - 1) + "v";
+                } else if (baseForm.endsWith("s")) {
+                    baseForm = baseForm.substring(0, length - 1) + "z";
+                }
+            }
+            if (baseForm.matches(CVVC_NOT_R)) {
+                baseForm = baseForm.substring(0, length - 2) + baseForm.substring(length - 1);
+            }
+            return baseForm;
+        }
+
+        String regexComparative(String baseForm) {
+            baseForm = regexOpenSyllable(baseForm);
+            return baseForm.endsWith("r") ? baseForm + "der" : baseForm + "er";
+        }
+
+        String regexSuperlative(String baseForm) {
+            if (baseForm.endsWith("st") || baseForm.endsWith("sd") || baseForm.endsWith("s")
+                    || baseForm.endsWith("sch") || baseForm.endsWith("sk") || baseForm.endsWith("de")) {
+                if (baseForm.matches(VOWEL_F_S)) {
+                    if (baseForm.endsWith("f")) {
+                        baseForm = baseForm.substring(0, baseForm.length() - 1) + "v";
+                    } else if (baseForm.endsWith("s")) {
+                        baseForm = baseForm.substring(0, baseForm.length() - 1) + "z";
+                    }
+                }
+                return "meest " + baseForm;
+            } else if (baseForm.endsWith("s") || baseForm.endsWith("sch")) {
+                return baseForm + "t";
+            } else {
+                return baseForm + "st";
+            }
+        }
+
+        String regexBaseRadical(String baseForm) {
+            String radical = baseForm;
+            if (baseForm.endsWith("en")) radical = baseForm.substring(0, baseForm.length() - 2);
+            if (radical.matches(SHORT_VOWEL_RADICAL)) {
+                String includingVowel = radical.substring(0, radical.length() - 1);
+                radical = includingVowel + includingVowel.substring(includingVowel.length() - 1)
+                        + radical.substring(radical.length() - 1);
+            }
+            if (radical.charAt(radical.length() - 1) == radical.charAt(radical.length() - 2)) {
+                radical = radical.substring(0, radical.length() - 1);
+            }
+            return radical;
+        }
+
+        String regexPastSuffix(String radical, NumberAgreement number, boolean isStrongVerb) {
+            if (isStrongVerb) {
+                if (number != NumberAgreement.PLURAL) return radical;
+                if (radical.endsWith("e")) return radical + "n";
+                return regexOpenSyllable(radical) + "en";
+            }
+            boolean hasUnvoicedConsonant = false;
+            for (String endSound : new String[] {"t", "k", "f", "s", "ch", "p", "x", "sj", "c"}) {
+                if (radical.endsWith(endSound)) hasUnvoicedConsonant = true;
+            }
+            if (radical.endsWith("v")) radical = radical.substring(0, radical.length() - 1) + "f";
+            if (radical.endsWith("z")) radical = radical.substring(0, radical.length() - 1) + "s";
+            if (number == NumberAgreement.PLURAL) {
+                return radical + (hasUnvoicedConsonant ? "ten" : "den");
+            }
+            return radical + (hasUnvoicedConsonant ? "te" : "de");
+        }
+    }
+}
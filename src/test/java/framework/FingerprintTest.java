@@ -0,0 +1,100 @@
+package framework;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.features.LexicalFeature;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+
+public class FingerprintTest {
+
+    final private static Lexicon lexicon = new simplenlg.lexicon.dutch.XMLLexicon();
+    final private static NLGFactory factory = new NLGFactory(lexicon);
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private SPhraseSpec clause(NPPhraseSpec object) {
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(factory.createNounPhrase("de", "klant"));
+        clause.setVerb("betalen");
+        clause.setObject(object);
+        clause.setFeature(Feature.TENSE, Tense.PAST);
+        return clause;
+    }
+
+    @Test
+    public void equalSpecsHaveEqualFingerprints() {
+        long first = clause(factory.createNounPhrase("de", "rekening")).getFingerprint();
+        long second = clause(factory.createNounPhrase("de", "rekening")).getFingerprint();
+        collector.checkThat(first, equalTo(second));
+
+        long other = clause(factory.createNounPhrase("het", "bedrag")).getFingerprint();
+        collector.checkThat(first, not(equalTo(other)));
+    }
+
+    @Test
+    public void modifiedChildChangesCachedFingerprint() {
+        NPPhraseSpec object = factory.createNounPhrase("de", "rekening");
+        SPhraseSpec clause = clause(object);
+        long before = clause.getFingerprint();
+        collector.checkThat(clause.getFingerprint(), equalTo(before));
+
+        object.setPlural(true);
+        long after = clause.getFingerprint();
+        collector.checkThat(after, not(equalTo(before)));
+
+        object.setPlural(false);
+        collector.checkThat(clause.getFingerprint(), equalTo(before));
+    }
+
+    @Test
+    public void sharedSubtreeDoesNotKeepItsHolders() throws InterruptedException {
+        NPPhraseSpec shared = factory.createNounPhrase("de", "rekening");
+        SPhraseSpec first = clause(shared);
+        SPhraseSpec second = clause(shared);
+        long before = first.getFingerprint();
+        collector.checkThat(second.getFingerprint(), equalTo(before));
+
+        shared.setPlural(true);
+        collector.checkThat(first.getFingerprint(), not(equalTo(before)));
+        collector.checkThat(second.getFingerprint(), equalTo(first.getFingerprint()));
+
+        // a fingerprinted holder can be collected while the shared subtree lives on
+        WeakReference<SPhraseSpec> holder = new WeakReference<SPhraseSpec>(clause(shared));
+        holder.get().getFingerprint();
+        // the parent of the shared subtree is the last clause it was put in
+        clause(shared).getFingerprint();
+        for (int attempt = 0; attempt < 50 && holder.get() != null; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        collector.checkThat(holder.get() == null, equalTo(true));
+    }
+
+    @Test
+    public void modifiedLexiconWordChangesCachedFingerprint() {
+        Lexicon ownLexicon = new simplenlg.lexicon.dutch.XMLLexicon();
+        NLGFactory ownFactory = new NLGFactory(ownLexicon);
+        SPhraseSpec clause = ownFactory.createClause();
+        clause.setSubject(ownFactory.createNounPhrase("de", "klant"));
+        clause.setVerb("betalen");
+        long before = clause.getFingerprint();
+
+        WordElement verb = ownLexicon.getWord("betalen", LexicalCategory.VERB);
+        verb.setFeature(LexicalFeature.PAST, "betaalde" + verb.getFeatureAsString(LexicalFeature.PAST));
+        collector.checkThat(clause.getFingerprint(), not(equalTo(before)));
+    }
+}
@@ -0,0 +1,113 @@
+package framework;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ServiceConfigurationError;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.TemporaryFolder;
+import simplenlg.framework.Language;
+import simplenlg.framework.LanguageHelpers;
+import simplenlg.framework.LanguageHelpersProvider;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.SPhraseSpec;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+
+public class LanguageHelpersTest {
+
+    /**
+     * Registered in src/test/resources/META-INF/services. Replaces the
+     * English helpers by a copy of the default ones, so that the other
+     * tests are not affected.
+     */
+    public static class RegisteredProvider implements LanguageHelpersProvider {
+
+        static final Set<LanguageHelpers> created = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public Language getLanguage() {
+            return Language.ENGLISH;
+        }
+
+        @Override
+        public LanguageHelpers createHelpers(LanguageHelpers current) {
+            LanguageHelpers helpers = new LanguageHelpers(current.getLanguage(), current.getClauseHelper(),
+                    current.getNounPhraseHelper(), current.getPhraseHelper(),
+                    current.getVerbPhraseHelper(), current.getCoordinatedPhraseHelper(),
+                    current.getMorphologyRuleSet(), current.getMorphophonologyRuleSet(),
+                    current.getOrthographyHelper());
+            created.add(helpers);
+            return helpers;
+        }
+    }
+
+    public static class WrongLanguageProvider implements LanguageHelpersProvider {
+
+        @Override
+        public Language getLanguage() {
+            return Language.FRENCH;
+        }
+
+        @Override
+        public LanguageHelpers createHelpers(LanguageHelpers current) {
+            return LanguageHelpers.createDefault(Language.DUTCH);
+        }
+    }
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ClassLoader loaderWithProviders(String... providers) throws IOException {
+        File services = new File(folder.getRoot(), "META-INF/services");
+        services.mkdirs();
+        Files.write(new File(services, LanguageHelpersProvider.class.getName()).toPath(),
+                String.join("\n", providers).getBytes(StandardCharsets.UTF_8));
+        return new URLClassLoader(new URL[] { folder.getRoot().toURI().toURL() },
+                getClass().getClassLoader());
+    }
+
+    @Test
+    public void registeredProviderReplacesHelpers() {
+        LanguageHelpers english = LanguageHelpers.forLanguage(Language.ENGLISH);
+
+        collector.checkThat(RegisteredProvider.created.contains(english), equalTo(true));
+
+        Lexicon lexicon = Lexicon.getDefaultLexicon();
+        NLGFactory factory = new NLGFactory(lexicon);
+        SPhraseSpec clause = factory.createClause("the dog", "chase", "the cat");
+        collector.checkThat(clause.getClauseHelper(), sameInstance(english.getClauseHelper()));
+    }
+
+    @Test
+    public void providersOfOtherLanguagesAreNotUsed() {
+        collector.checkThat(LanguageHelpers.forLanguage(Language.DUTCH).getLanguage(),
+                equalTo(Language.DUTCH));
+        collector.checkThat(LanguageHelpers.forLanguage(null),
+                sameInstance(LanguageHelpers.forLanguage(Language.DEFAULT_LANGUAGE)));
+    }
+
+    @Test(expected = ServiceConfigurationError.class)
+    public void missingProviderClassFails() throws IOException {
+        LanguageHelpers.load(Language.ENGLISH, loaderWithProviders("framework.MissingProvider"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void providerForAnotherLanguageFails() throws IOException {
+        LanguageHelpers.load(Language.FRENCH,
+                loaderWithProviders(WrongLanguageProvider.class.getName()));
+    }
+}
@@ -0,0 +1,94 @@
+package realiser;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.framework.NLGFactory;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.AsyncRealiser;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+
+public class AsyncRealiserTest {
+
+    final private static NLGFactory factory = new NLGFactory(new simplenlg.lexicon.dutch.XMLLexicon());
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private SPhraseSpec clause() {
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(factory.createNounPhrase("de", "klant"));
+        clause.setVerb("betalen");
+        clause.setObject(factory.createNounPhrase("de", "rekening"));
+        return clause;
+    }
+
+    @Test
+    public void realisesAsynchronously() throws Exception {
+        String expected = new Realiser().realiseSentence(clause());
+        AsyncRealiser realiser = new AsyncRealiser(4, 100);
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[50];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = realiser.realiseSentence(clause());
+            }
+            for (CompletableFuture<?> future : futures) {
+                collector.checkThat(future.get(10, TimeUnit.SECONDS), equalTo((Object) expected));
+            }
+        } finally {
+            realiser.close();
+        }
+    }
+
+    @Test
+    public void rejectsWhenFullAndReleasesOnCancel() throws Exception {
+        // a single thread kept busy so that the realisations wait
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch latch = new CountDownLatch(1);
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        try {
+            AsyncRealiser realiser = new AsyncRealiser(executor, 1, 1, Realiser::new);
+            CompletableFuture<String> first = realiser.realiseSentence(clause());
+            CompletableFuture<String> second = realiser.realiseSentence(clause());
+            CompletableFuture<String> rejected = realiser.realiseSentence(clause());
+            collector.checkThat(rejected.isCompletedExceptionally(), equalTo(true));
+            try {
+                rejected.get();
+            } catch (ExecutionException ex) {
+                collector.checkThat(ex.getCause(), instanceOf(RejectedExecutionException.class));
+            }
+
+            second.cancel(true);
+            collector.checkThat(realiser.getAvailableCapacity(), equalTo(1));
+            CompletableFuture<String> third = realiser.realiseSentence(clause());
+
+            latch.countDown();
+            String expected = new Realiser().realiseSentence(clause());
+            collector.checkThat(first.get(10, TimeUnit.SECONDS), equalTo(expected));
+            collector.checkThat(third.get(10, TimeUnit.SECONDS), equalTo(expected));
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package realiser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.StringElement;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.BatchRealiser;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+
+public class BatchRealiserTest {
+
+    final private static NLGFactory factory = new NLGFactory(new simplenlg.lexicon.dutch.XMLLexicon());
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private List<NLGElement> clauses(int count) {
+        List<NLGElement> clauses = new ArrayList<NLGElement>();
+        for (int i = 0; i < count; i++) {
+            SPhraseSpec clause = factory.createClause();
+            clause.setSubject(factory.createNounPhrase("de", "klant"));
+            clause.setVerb("betalen");
+            // words missing from the lexicon are created concurrently
+            clause.setObject(factory.createNounPhrase("de", "rekening" + (i % 50)));
+            clause.setPlural(i % 3 == 0);
+            if (i % 2 == 0) {
+                clause.setFeature(Feature.TENSE, Tense.PAST);
+            }
+            clauses.add(clause);
+        }
+        return clauses;
+    }
+
+    @Test
+    public void parallelRealisationKeepsOrder() throws InterruptedException {
+        List<BatchRealiser.Result> results;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            BatchRealiser batch = new BatchRealiser(executor);
+            batch.setChunkSize(7);
+            results = batch.realiseSentences(clauses(500));
+        } finally {
+            executor.shutdown();
+        }
+
+        Realiser realiser = new Realiser();
+        List<String> expected = new ArrayList<String>();
+        for (NLGElement clause : clauses(500)) {
+            expected.add(realiser.realiseSentence(clause));
+        }
+        collector.checkThat(results.size(), equalTo(expected.size()));
+        for (int i = 0; i < results.size(); i++) {
+            collector.checkThat(results.get(i).getIndex(), equalTo((long) i));
+            collector.checkThat(results.get(i).getRealisation(), equalTo(expected.get(i)));
+        }
+    }
+
+    @Test
+    public void failedElementDoesNotStopBatch() throws InterruptedException {
+        List<NLGElement> elements = clauses(3);
+        elements.add(1, new StringElement("kapot") {
+            @Override
+            public NLGElement realiseSyntax() {
+                throw new IllegalStateException("kapot");
+            }
+        });
+
+        final List<BatchRealiser.Result> results = new ArrayList<BatchRealiser.Result>();
+        BatchRealiser batch = new BatchRealiser();
+        batch.setWindowSize(2);
+        batch.realiseSentences(elements.stream(), results::add);
+
+        collector.checkThat(results.size(), equalTo(4));
+        collector.checkThat(results.get(0).isSuccessful(), equalTo(true));
+        collector.checkThat(results.get(1).isSuccessful(), equalTo(false));
+        collector.checkThat(results.get(1).getError(), notNullValue());
+        collector.checkThat(results.get(2).getRealisation(), notNullValue());
+        collector.checkThat(results.get(3).getIndex(), equalTo(3L));
+    }
+}
@@ -0,0 +1,109 @@
+package realiser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.format.english.HTMLFormatter;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+/**
+ * One Realiser, with its formatter, shared by several threads must give the
+ * same output as when it is used by a single thread.
+ */
+public class ConcurrentRealisationTest {
+
+    final private static NLGFactory factory = new NLGFactory(new simplenlg.lexicon.dutch.XMLLexicon());
+
+    private static final int THREADS = 8;
+    private static final int DOCUMENTS = 400;
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private DocumentElement sentence(int i, String noun) {
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(factory.createNounPhrase("de", "klant"));
+        clause.setVerb("betalen");
+        clause.setObject(factory.createNounPhrase("de", noun));
+        clause.setPlural(i % 3 == 0);
+        if (i % 2 == 0) {
+            clause.setFeature(Feature.TENSE, Tense.PAST);
+        }
+        return factory.createSentence(clause);
+    }
+
+    private DocumentElement document(int i) {
+        DocumentElement document = factory.createDocument("Rapport " + i);
+        DocumentElement paragraph = factory.createParagraph();
+        paragraph.addComponent(sentence(i, "rekening"));
+        DocumentElement steps = factory.createList();
+        for (int item = 0; item < 1 + i % 4; item++) {
+            steps.addComponent(factory.createListItem(sentence(i + item, "factuur")));
+        }
+        DocumentElement subSteps = factory.createList();
+        subSteps.addComponent(factory.createListItem(sentence(i, "boete")));
+        subSteps.addComponent(factory.createListItem(sentence(i + 1, "rente")));
+        DocumentElement lastItem = factory.createListItem();
+        lastItem.addComponent(subSteps);
+        steps.addComponent(lastItem);
+        paragraph.addComponent(steps);
+        document.addComponent(paragraph);
+        return document;
+    }
+
+    private void checkSharedRealiser(final Realiser realiser) throws Exception {
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            expected.add(realiser.realise(document(i)).getRealisation());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        List<String> realisations = new ArrayList<String>();
+                        for (int i = 0; i < DOCUMENTS; i++) {
+                            realisations.add(realiser.realise(document(i)).getRealisation());
+                        }
+                        return realisations;
+                    }
+                }));
+            }
+            for (Future<List<String>> future : futures) {
+                collector.checkThat(future.get(), equalTo(expected));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void sharedTextRealiser() throws Exception {
+        checkSharedRealiser(new Realiser());
+    }
+
+    @Test
+    public void sharedHtmlFusedRealiser() throws Exception {
+        Realiser realiser = new Realiser();
+        realiser.setFormatter(new HTMLFormatter());
+        realiser.setFusedPipeline(true);
+        checkSharedRealiser(realiser);
+    }
+}
@@ -0,0 +1,100 @@
+package realiser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.framework.NLGFactory;
+import simplenlg.jfr.FlightRecording;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class FlightRecordingTest {
+
+    final private static Lexicon lexicon = new simplenlg.lexicon.dutch.XMLLexicon();
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private List<RecordedEvent> record(String eventName, Runnable action) throws Exception {
+        File file = File.createTempFile("simplenlg", ".jfr");
+        try {
+            Recording recording = new Recording();
+            recording.enable(eventName);
+            recording.start();
+            collector.checkThat(FlightRecording.isRecording(), equalTo(true));
+            action.run();
+            recording.stop();
+            recording.dump(file.toPath());
+            recording.close();
+            List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+                if (event.getEventType().getName().equals(eventName)) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void realisationEventHasStageDurations() throws Exception {
+        final NLGFactory factory = new NLGFactory(lexicon);
+        final Realiser realiser = new Realiser();
+        List<RecordedEvent> events = record("simplenlg.Realisation", new Runnable() {
+            @Override
+            public void run() {
+                SPhraseSpec clause = factory.createClause();
+                clause.setSubject(factory.createNounPhrase("de", "klant"));
+                clause.setVerb("betalen");
+                realiser.realiseSentence(clause);
+            }
+        });
+        collector.checkThat(events.size(), equalTo(1));
+        RecordedEvent event = events.get(0);
+        collector.checkThat(event.getString("language"), equalTo("nl"));
+        collector.checkThat(event.getInt("treeSize") > 1, equalTo(true));
+        collector.checkThat(event.getLong("syntax") > 0, equalTo(true));
+        collector.checkThat(event.getLong("orthography") > 0, equalTo(true));
+        collector.checkThat(event.getString("realisation"), equalTo("De klant betaalt."));
+    }
+
+    @Test
+    public void lexiconMissEventNamesTheWord() throws Exception {
+        List<RecordedEvent> events = record("simplenlg.LexiconMiss", new Runnable() {
+            @Override
+            public void run() {
+                lexicon.lookupWord("klant");
+                lexicon.lookupWord("flibbertigibbet");
+            }
+        });
+        collector.checkThat(events.size(), equalTo(1));
+        collector.checkThat(events.get(0).getString("baseForm"), equalTo("flibbertigibbet"));
+    }
+
+    @Test
+    public void lexiconLoadEventsForEachPhase() throws Exception {
+        List<RecordedEvent> events = record("simplenlg.LexiconLoad", new Runnable() {
+            @Override
+            public void run() {
+                new simplenlg.lexicon.dutch.XMLLexicon();
+            }
+        });
+        collector.checkThat(events.size(), equalTo(2));
+        collector.checkThat(events.get(0).getString("phase"), equalTo("parse"));
+        collector.checkThat(events.get(1).getString("phase"), equalTo("index"));
+        collector.checkThat(events.get(1).getInt("wordCount") > 0, equalTo(true));
+    }
+}
@@ -0,0 +1,71 @@
+package realiser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class FusedPipelineTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private DocumentElement document(Lexicon lexicon, String det, String[] nouns,
+            String verb, String prep) {
+        NLGFactory factory = new NLGFactory(lexicon);
+        DocumentElement paragraph = factory.createParagraph();
+        for (int i = 0; i < nouns.length; i++) {
+            SPhraseSpec clause = factory.createClause();
+            CoordinatedPhraseElement subject = factory.createCoordinatedPhrase(
+                    factory.createNounPhrase(det, nouns[i]),
+                    factory.createNounPhrase(det, nouns[(i + 1) % nouns.length]));
+            clause.setSubject(i % 2 == 0 ? subject : factory.createNounPhrase(det, nouns[i]));
+            clause.setVerb(verb);
+            clause.setObject(factory.createNounPhrase(det, nouns[(i + 2) % nouns.length]));
+            clause.addComplement(factory.createPrepositionPhrase(prep,
+                    factory.createNounPhrase(det, nouns[(i + 3) % nouns.length])));
+            clause.setFeature(Feature.TENSE, i % 3 == 0 ? Tense.PAST : Tense.PRESENT);
+            clause.setFeature(Feature.NEGATED, i % 4 == 1);
+            paragraph.addComponent(factory.createSentence(clause));
+        }
+        return paragraph;
+    }
+
+    private void checkSameRealisation(Lexicon lexicon, String det, String[] nouns,
+            String verb, String prep) {
+        Realiser staged = new Realiser();
+        Realiser fused = new Realiser();
+        fused.setFusedPipeline(true);
+        String expected = staged.realise(document(lexicon, det, nouns, verb, prep)).getRealisation();
+        collector.checkThat(fused.realise(document(lexicon, det, nouns, verb, prep)).getRealisation(),
+                equalTo(expected));
+    }
+
+    @Test
+    public void dutchRealisationIsUnchanged() {
+        checkSameRealisation(new simplenlg.lexicon.dutch.XMLLexicon(), "de",
+                new String[] {"klant", "rekening", "bank", "man"}, "betalen", "in");
+    }
+
+    @Test
+    public void englishRealisationIsUnchanged() {
+        checkSameRealisation(new simplenlg.lexicon.english.XMLLexicon(), "a",
+                new String[] {"customer", "apple", "bank", "hour"}, "see", "of");
+    }
+
+    @Test
+    public void frenchRealisationIsUnchanged() {
+        // exercises contractions and elisions such as "de le homme" -> "de l'homme"
+        checkSameRealisation(new simplenlg.lexicon.french.XMLLexicon(), "le",
+                new String[] {"homme", "client", "arbre", "femme"}, "aimer", "de");
+    }
+}
@@ -0,0 +1,67 @@
+package realiser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.Language;
+import simplenlg.framework.NLGFactory;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.MultilingualRealiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class MultilingualRealiserTest {
+
+    final private static MultilingualRealiser engine = new MultilingualRealiser(Language.ENGLISH, Language.DUTCH);
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private String realise(int i) {
+        boolean dutch = i % 2 == 0;
+        NLGFactory factory = engine.getFactory(dutch ? Language.DUTCH : Language.ENGLISH);
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(factory.createNounPhrase(dutch ? "de" : "the", dutch ? "klant" : "customer"));
+        clause.setVerb(dutch ? "betalen" : "pay");
+        clause.setObject(factory.createNounPhrase(dutch ? "de" : "the", dutch ? "rekening" : "invoice"));
+        if (i % 3 == 0) clause.setFeature(Feature.TENSE, Tense.PAST);
+        return engine.realiseSentence(clause);
+    }
+
+    @Test
+    public void routesMixedLanguagesConcurrently() throws Exception {
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 400; i++) {
+            expected.add(realise(i));
+        }
+        collector.checkThat(expected.get(0), equalTo("De klant betaalde de rekening."));
+        collector.checkThat(expected.get(1), equalTo("The customer pays the invoice."));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 400; i++) {
+                final int index = i;
+                results.add(executor.submit(() -> realise(index)));
+            }
+            for (int i = 0; i < 400; i++) {
+                collector.checkThat(results.get(i).get(), equalTo(expected.get(i)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLanguageNotLoaded() {
+        engine.getFactory(Language.FRENCH);
+    }
+}
@@ -0,0 +1,60 @@
+package realiser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.PhraseMemo;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+
+public class PhraseMemoTest {
+
+    final private static NLGFactory factory = new NLGFactory(new simplenlg.lexicon.dutch.XMLLexicon());
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private DocumentElement paragraph() {
+        DocumentElement paragraph = factory.createParagraph();
+        for (int i = 0; i < 6; i++) {
+            SPhraseSpec clause = factory.createClause();
+            clause.setSubject(factory.createNounPhrase("de", i % 3 == 2 ? "rekening" : "klant"));
+            clause.setVerb("betalen");
+            NPPhraseSpec object = factory.createNounPhrase("de", i % 2 == 0 ? "rekening" : "klant");
+            object.setPlural(i == 4);
+            clause.setObject(object);
+            clause.addComplement(factory.createPrepositionPhrase("in",
+                    factory.createNounPhrase("Amsterdam")));
+            clause.setFeature(Feature.NEGATED, i == 1);
+            clause.setFeature(Feature.PASSIVE, i == 3);
+            if (i == 5) {
+                clause.setFeature(Feature.TENSE, Tense.PAST);
+            }
+            paragraph.addComponent(factory.createSentence(clause));
+        }
+        return paragraph;
+    }
+
+    @Test
+    public void memoisedRealisationIsUnchanged() {
+        Realiser realiser = new Realiser();
+        String expected = realiser.realise(paragraph()).getRealisation();
+
+        realiser.setPhraseMemoisation(true);
+        PhraseMemo memo = PhraseMemo.enter();
+        try {
+            collector.checkThat(realiser.realise(paragraph()).getRealisation(), equalTo(expected));
+            collector.checkThat(memo.getHitCount(), not(equalTo(0L)));
+        } finally {
+            memo.exit();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package realiser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.RealisationBudget;
+import simplenlg.framework.RealisationBudgetExceededException;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class RealisationBudgetTest {
+
+    final private static NLGFactory factory = new NLGFactory(new simplenlg.lexicon.dutch.XMLLexicon());
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private SPhraseSpec clause(int objects) {
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(factory.createNounPhrase("de", "klant"));
+        clause.setVerb("betalen");
+        CoordinatedPhraseElement object = factory.createCoordinatedPhrase();
+        for (int i = 0; i < objects; i++) {
+            object.addCoordinate(factory.createNounPhrase("de", "rekening"));
+        }
+        clause.setObject(object);
+        return clause;
+    }
+
+    @Test
+    public void smallSpecFitsInBudget() {
+        Realiser realiser = new Realiser();
+        realiser.setBudget(RealisationBudget.ofNodes(100));
+        collector.checkThat(realiser.realiseSentence(clause(2)),
+                equalTo("De klant betaalt de rekening en de rekening."));
+    }
+
+    @Test
+    public void hugeSpecExceedsNodeBudget() {
+        Realiser realiser = new Realiser();
+        realiser.setBudget(RealisationBudget.ofNodes(100));
+        try {
+            realiser.realiseSentence(clause(1000));
+            collector.addError(new AssertionError("budget not enforced"));
+        } catch (RealisationBudgetExceededException ex) {
+            collector.checkThat(ex.isTimeExceeded(), equalTo(false));
+            collector.checkThat(ex.getNodes(), equalTo(101L));
+        }
+
+        realiser.setBudgetFallback(element -> "Geen details beschikbaar.");
+        collector.checkThat(realiser.realiseSentence(clause(1000)), equalTo("Geen details beschikbaar."));
+        // the budget is not carried over to the next realisation
+        collector.checkThat(realiser.realiseSentence(clause(1)), equalTo("De klant betaalt de rekening."));
+    }
+
+    @Test
+    public void deadlineIsChecked() {
+        Realiser realiser = new Realiser();
+        realiser.setBudget(new RealisationBudget(1, Long.MAX_VALUE));
+        try {
+            realiser.realise(clause(1000));
+            collector.addError(new AssertionError("deadline not enforced"));
+        } catch (RealisationBudgetExceededException ex) {
+            collector.checkThat(ex.isTimeExceeded(), equalTo(true));
+        }
+    }
+}
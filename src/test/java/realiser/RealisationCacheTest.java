@@ -0,0 +1,83 @@
+package realiser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.dutch.XMLLexicon;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.RealisationCache;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class RealisationCacheTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private SPhraseSpec clause(NLGFactory factory, String object) {
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(factory.createNounPhrase("de", "klant"));
+        clause.setVerb("betalen");
+        clause.setObject(factory.createNounPhrase("de", object));
+        clause.setFeature(Feature.TENSE, Tense.PAST);
+        return clause;
+    }
+
+    @Test
+    public void equalSpecsAreRealisedOnce() {
+        NLGFactory factory = new NLGFactory(new XMLLexicon());
+        Realiser realiser = new Realiser();
+        String expected = realiser.realiseSentence(clause(factory, "rekening"));
+        RealisationCache cache = new RealisationCache(10);
+        realiser.setCache(cache);
+
+        collector.checkThat(realiser.realiseSentence(clause(factory, "rekening")), equalTo(expected));
+        collector.checkThat(realiser.realiseSentence(clause(factory, "rekening")), equalTo(expected));
+        collector.checkThat(cache.getMissCount(), equalTo(1L));
+        collector.checkThat(cache.getHitCount(), equalTo(1L));
+
+        realiser.realiseSentence(clause(factory, "bon"));
+        collector.checkThat(cache.getMissCount(), equalTo(2L));
+        collector.checkThat(cache.size(), equalTo(2));
+    }
+
+    @Test
+    public void lexiconReloadInvalidatesEntries() {
+        XMLLexicon lexicon = new XMLLexicon();
+        NLGFactory factory = new NLGFactory(lexicon);
+        Realiser realiser = new Realiser();
+        RealisationCache cache = new RealisationCache(10);
+        realiser.setCache(cache);
+
+        String expected = realiser.realiseSentence(clause(factory, "rekening"));
+        lexicon.reload();
+        collector.checkThat(realiser.realiseSentence(clause(factory, "rekening")), equalTo(expected));
+        collector.checkThat(cache.getHitCount(), equalTo(0L));
+
+        cache.cleanUp();
+        collector.checkThat(cache.size(), equalTo(1));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        NLGFactory factory = new NLGFactory(new XMLLexicon());
+        Realiser realiser = new Realiser();
+        RealisationCache cache = new RealisationCache(2);
+        realiser.setCache(cache);
+
+        realiser.realiseSentence(clause(factory, "rekening"));
+        realiser.realiseSentence(clause(factory, "bon"));
+        realiser.realiseSentence(clause(factory, "rekening"));
+        realiser.realiseSentence(clause(factory, "factuur"));
+        collector.checkThat(cache.getEvictionCount(), equalTo(1L));
+
+        realiser.realiseSentence(clause(factory, "rekening"));
+        collector.checkThat(cache.getHitCount(), equalTo(2L));
+        realiser.realiseSentence(clause(factory, "bon"));
+        collector.checkThat(cache.getHitCount(), equalTo(2L));
+    }
+}
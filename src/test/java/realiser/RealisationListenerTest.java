@@ -0,0 +1,91 @@
+package realiser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.framework.Language;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.LatencyHistogramListener;
+import simplenlg.realiser.RealisationListener;
+import simplenlg.realiser.RealisationStage;
+import simplenlg.realiser.Realiser;
+import simplenlg.realiser.TreePrintingListener;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class RealisationListenerTest {
+
+    final private static NLGFactory factory = new NLGFactory(new simplenlg.lexicon.dutch.XMLLexicon());
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private SPhraseSpec clause() {
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(factory.createNounPhrase("de", "klant"));
+        clause.setVerb("betalen");
+        clause.setObject(factory.createNounPhrase("de", "rekening"));
+        return clause;
+    }
+
+    @Test
+    public void stagesAreReportedInOrder() {
+        final List<String> calls = new ArrayList<String>();
+        Realiser realiser = new Realiser();
+        realiser.addListener(new RealisationListener() {
+            @Override
+            public void stageStarted(RealisationStage stage, Language language, NLGElement input) {
+                calls.add("start " + stage + " " + language.code);
+            }
+
+            @Override
+            public void stageEnded(RealisationStage stage, Language language, NLGElement output,
+                    long elapsedNanos) {
+                calls.add("end " + stage);
+            }
+        });
+        realiser.realiseSentence(clause());
+        collector.checkThat(calls.toString(), equalTo("[start SYNTAX nl, end SYNTAX, "
+                + "start MORPHOLOGY nl, end MORPHOLOGY, start MORPHOPHONOLOGY nl, end MORPHOPHONOLOGY, "
+                + "start ORTHOGRAPHY nl, end ORTHOGRAPHY, start FORMATTING nl, end FORMATTING]"));
+    }
+
+    @Test
+    public void histogramCountsEachStage() {
+        LatencyHistogramListener histogram = new LatencyHistogramListener();
+        Realiser realiser = new Realiser();
+        realiser.addListener(histogram);
+        for (int i = 0; i < 20; i++) {
+            realiser.realiseSentence(clause());
+        }
+        for (RealisationStage stage : RealisationStage.values()) {
+            collector.checkThat(histogram.getCount(Language.DUTCH, stage), equalTo(20L));
+            collector.checkThat(histogram.getCount(Language.ENGLISH, stage), equalTo(0L));
+            long median = histogram.getPercentileNanos(Language.DUTCH, stage, 50);
+            collector.checkThat(median <= histogram.getMaxNanos(Language.DUTCH, stage), equalTo(true));
+        }
+
+        realiser.removeListener(histogram);
+        realiser.realiseSentence(clause());
+        collector.checkThat(histogram.getCount(Language.DUTCH, RealisationStage.SYNTAX), equalTo(20L));
+    }
+
+    @Test
+    public void treesArePrinted() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Realiser realiser = new Realiser();
+        realiser.addListener(new TreePrintingListener(new PrintStream(bytes, true)));
+        realiser.realiseSentence(clause());
+        String printed = bytes.toString();
+        collector.checkThat(printed.startsWith("INITIAL TREE"), equalTo(true));
+        collector.checkThat(printed.contains("POST-ORTHOGRAPHY TREE"), equalTo(true));
+        collector.checkThat(printed.contains("POST-FORMATTER TREE"), equalTo(true));
+    }
+}
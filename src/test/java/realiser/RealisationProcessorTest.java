@@ -0,0 +1,210 @@
+package realiser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.StringElement;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.RealisationProcessor;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class RealisationProcessorTest {
+
+    final private static NLGFactory factory = new NLGFactory(new simplenlg.lexicon.dutch.XMLLexicon());
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private NLGElement clause(int i) {
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(factory.createNounPhrase("de", "klant"));
+        clause.setVerb("betalen");
+        clause.setObject(factory.createNounPhrase("de", "rekening" + i));
+        clause.setPlural(i % 3 == 0);
+        return clause;
+    }
+
+    /** Requests one realisation at a time and records them. */
+    private static class SlowSubscriber implements Flow.Subscriber<String> {
+        final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(1);
+        final int limit;
+        Flow.Subscription subscription;
+
+        SlowSubscriber(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(String item) {
+            received.add(item);
+            if (received.size() < limit) subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            received.add("error: " + throwable.getMessage());
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+
+    @Test
+    public void publishesInOrderAndReplacesFailures() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            RealisationProcessor processor = new RealisationProcessor(executor, 6, true, Realiser::new);
+            processor.setFailureHandler((element, error) -> "[" + error.getMessage() + "]");
+            SlowSubscriber subscriber = new SlowSubscriber(Integer.MAX_VALUE);
+            processor.subscribe(subscriber);
+
+            List<String> expected = new ArrayList<String>();
+            Realiser realiser = new Realiser();
+            try (SubmissionPublisher<NLGElement> publisher = new SubmissionPublisher<NLGElement>()) {
+                publisher.subscribe(processor);
+                for (int i = 0; i < 200; i++) {
+                    if (i == 50) {
+                        publisher.submit(new StringElement("kapot") {
+                            @Override
+                            public NLGElement realiseSyntax() {
+                                throw new IllegalStateException("kapot");
+                            }
+                        });
+                        expected.add("[kapot]");
+                    }
+                    expected.add(realiser.realiseSentence(clause(i)));
+                    publisher.submit(clause(i));
+                }
+            }
+            collector.checkThat(subscriber.done.await(30, TimeUnit.SECONDS), equalTo(true));
+            collector.checkThat(subscriber.received, equalTo(expected));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void respectsDownstreamDemand() throws InterruptedException {
+        final AtomicLong requested = new AtomicLong();
+        final AtomicLong sent = new AtomicLong();
+        RealisationProcessor processor = new RealisationProcessor(4);
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requested.addAndGet(n);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        SlowSubscriber subscriber = new SlowSubscriber(3);
+        processor.subscribe(subscriber);
+        // an unbounded source, sending only what was requested
+        for (int round = 0; round < 50; round++) {
+            while (sent.get() < requested.get()) {
+                processor.onNext(clause((int) sent.getAndIncrement()));
+            }
+            Thread.sleep(10);
+        }
+        collector.checkThat(subscriber.received.size(), equalTo(3));
+        collector.checkThat(requested.get(), equalTo(3L + 4L));
+    }
+
+    private static NLGElement broken() {
+        return new StringElement("kapot") {
+            @Override
+            public NLGElement realiseSyntax() {
+                throw new IllegalStateException("kapot");
+            }
+        };
+    }
+
+    @Test
+    public void failuresArePublishedInPlaceByDefault() throws InterruptedException {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        RealisationProcessor processor = new RealisationProcessor(4);
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+            }
+        });
+        SlowSubscriber subscriber = new SlowSubscriber(Integer.MAX_VALUE);
+        processor.subscribe(subscriber);
+
+        try {
+            processor.onNext(null);
+            collector.addError(new AssertionError("onNext(null) accepted"));
+        } catch (NullPointerException ex) {
+            // rule 2.13
+        }
+        processor.onNext(clause(1));
+        processor.onNext(broken());
+        processor.onNext(clause(2));
+        processor.onComplete();
+        Realiser realiser = new Realiser();
+        collector.checkThat(subscriber.done.await(30, TimeUnit.SECONDS), equalTo(true));
+        collector.checkThat(subscriber.received, equalTo(Arrays.asList(realiser.realiseSentence(clause(1)),
+                "java.lang.IllegalStateException: kapot", realiser.realiseSentence(clause(2)))));
+        collector.checkThat(cancelled.get(), equalTo(false));
+    }
+
+    @Test
+    public void cancelOnFailureEndsStream() throws InterruptedException {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        RealisationProcessor processor = new RealisationProcessor(4);
+        processor.setCancelOnFailure(true);
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+            }
+        });
+        SlowSubscriber subscriber = new SlowSubscriber(Integer.MAX_VALUE);
+        processor.subscribe(subscriber);
+
+        processor.onNext(clause(1));
+        processor.onNext(broken());
+        processor.onNext(clause(2));
+        collector.checkThat(subscriber.done.await(30, TimeUnit.SECONDS), equalTo(true));
+        collector.checkThat(subscriber.received,
+                equalTo(Arrays.asList(new Realiser().realiseSentence(clause(1)), "error: kapot")));
+        collector.checkThat(cancelled.get(), equalTo(true));
+    }
+}
@@ -0,0 +1,166 @@
+package realiser;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.Feature;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.PhraseCategory;
+import simplenlg.framework.SentenceTemplate;
+import simplenlg.framework.StringElement;
+import simplenlg.framework.TemplateSlot;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class SentenceTemplateTest {
+
+    final private static NLGFactory factory = new NLGFactory(new simplenlg.lexicon.dutch.XMLLexicon());
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private final Realiser realiser = new Realiser();
+
+    /**
+     * "<subject> heeft <amount> betaald op <date>", with the given elements
+     * in place of the slots.
+     */
+    private SPhraseSpec payment(NLGElement subject, NLGElement amount, NLGElement date) {
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(subject);
+        clause.setVerb("betalen");
+        clause.setObject(amount);
+        clause.addComplement(factory.createPrepositionPhrase("op", date));
+        clause.setFeature(Feature.PERFECT, true);
+        return clause;
+    }
+
+    private SentenceTemplate paymentTemplate(boolean pluralSubject) {
+        TemplateSlot subject = new TemplateSlot("subject", PhraseCategory.NOUN_PHRASE);
+        subject.setPlural(pluralSubject);
+        return SentenceTemplate.compile(payment(subject,
+                new TemplateSlot("amount", PhraseCategory.CANNED_TEXT),
+                new TemplateSlot("date", PhraseCategory.CANNED_TEXT)));
+    }
+
+    private Map<String, Object> fillers(NLGElement subject, String amount, String date) {
+        Map<String, Object> fillers = new HashMap<String, Object>();
+        fillers.put("subject", subject);
+        fillers.put("amount", amount);
+        fillers.put("date", date);
+        return fillers;
+    }
+
+    @Test
+    public void filledTemplateMatchesFullRealisation() {
+        SentenceTemplate template = paymentTemplate(false);
+        collector.checkThat(template.getSlotNames().toString(), equalTo("[subject, amount, date]"));
+        String[][] cases = {
+                { "klant", "100 euro", "1 mei" },
+                { "bedrijf", "het bedrag", "vrijdag" },
+                { "man", "de rekening", "de eerste dag" } };
+        for (String[] each : cases) {
+            String expected = realiser.realiseSentence(payment(factory.createNounPhrase("de", each[0]),
+                    new StringElement(each[1]), new StringElement(each[2])));
+            String filled = realiser.realiseSentence(template,
+                    fillers(factory.createNounPhrase("de", each[0]), each[1], each[2]));
+            collector.checkThat(filled, equalTo(expected));
+        }
+        // the template can be filled again
+        collector.checkThat(realiser.realiseSentence(template,
+                fillers(factory.createNounPhrase("de", "klant"), "10 euro", "maandag")),
+                equalTo("De klant heeft 10 euro betaald op maandag."));
+    }
+
+    @Test
+    public void pluralSlotFixesVerbAgreement() {
+        SentenceTemplate template = paymentTemplate(true);
+        NPPhraseSpec customers = factory.createNounPhrase("de", "klant");
+        customers.setPlural(true);
+        collector.checkThat(realiser.realiseSentence(template, fillers(customers, "100 euro", "1 mei")),
+                equalTo("De klanten hebben 100 euro betaald op 1 mei."));
+    }
+
+    @Test
+    public void fillerMustMatchItsSlot() {
+        SentenceTemplate template = paymentTemplate(false);
+        NPPhraseSpec customers = factory.createNounPhrase("de", "klant");
+        customers.setPlural(true);
+        String[] errors = new String[3];
+        try {
+            template.fill(fillers(customers, "100 euro", "1 mei"));
+        } catch (IllegalArgumentException e) {
+            errors[0] = "number";
+        }
+        try {
+            template.fill(fillers(factory.createNounPhrase("de", "klant"), "100 euro", null));
+        } catch (IllegalArgumentException e) {
+            errors[1] = "missing";
+        }
+        try {
+            Map<String, Object> fillers = fillers(factory.createNounPhrase("de", "klant"), "100 euro", "1 mei");
+            fillers.put("time", "10 uur");
+            template.fill(fillers);
+        } catch (IllegalArgumentException e) {
+            errors[2] = "unknown";
+        }
+        collector.checkThat(errors, equalTo(new String[] { "number", "missing", "unknown" }));
+    }
+
+    private static void collectParents(NLGElement element, Map<NLGElement, NLGElement> parents) {
+        parents.put(element, element.getParent());
+        if (element.getChildren() != null) {
+            for (NLGElement child : element.getChildren()) {
+                if (child != null) collectParents(child, parents);
+            }
+        }
+    }
+
+    @Test
+    public void concurrentFillsLeaveThePlanUnchanged() throws Exception {
+        final SentenceTemplate template = paymentTemplate(false);
+        Field planField = SentenceTemplate.class.getDeclaredField("plan");
+        planField.setAccessible(true);
+        NLGElement plan = (NLGElement) planField.get(template);
+        Map<NLGElement, NLGElement> parents = new IdentityHashMap<NLGElement, NLGElement>();
+        collectParents(plan, parents);
+        long fingerprint = plan.getFingerprint();
+
+        // the factory is not thread-safe: the fillers are made beforehand
+        List<Map<String, Object>> fillers = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < 200; i++) {
+            fillers.add(fillers(factory.createNounPhrase("de", "klant"), i + " euro", "maandag"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (final Map<String, Object> each : fillers) {
+                results.add(executor.submit(() -> new Realiser().realiseSentence(template, each)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                collector.checkThat(results.get(i).get(), equalTo("De klant heeft " + i + " euro betaald op maandag."));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<NLGElement, NLGElement> after = new IdentityHashMap<NLGElement, NLGElement>();
+        collectParents(plan, after);
+        collector.checkThat(after, equalTo(parents));
+        collector.checkThat(plan.getFingerprint(), equalTo(fingerprint));
+    }
+}
@@ -0,0 +1,100 @@
+package realiser;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.format.english.ByteBufferPool;
+import simplenlg.format.english.ByteBufferSink;
+import simplenlg.format.english.HTMLFormatter;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class StreamingRealisationTest {
+
+    final private static NLGFactory factory = new NLGFactory(new simplenlg.lexicon.dutch.XMLLexicon());
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private SPhraseSpec clause(String subject, String object) {
+        SPhraseSpec clause = factory.createClause();
+        clause.setSubject(factory.createNounPhrase("de", subject));
+        clause.setVerb("betalen");
+        clause.setObject(factory.createNounPhrase("de", object));
+        return clause;
+    }
+
+    private DocumentElement document() {
+        DocumentElement document = factory.createDocument("Overzicht");
+        for (int i = 0; i < 3; i++) {
+            DocumentElement section = factory.createSection("Deel " + i);
+            DocumentElement paragraph = factory.createParagraph();
+            paragraph.addComponent(factory.createSentence(clause("klant", "rekening")));
+            paragraph.addComponent(factory.createSentence(clause("bank", "rente")));
+            section.addComponent(paragraph);
+            DocumentElement list = factory.createList();
+            list.addComponent(factory.createListItem(clause("man", "fiets")));
+            list.addComponent(factory.createListItem(clause("vrouw", "auto")));
+            section.addComponent(list);
+            document.addComponent(section);
+        }
+        return document;
+    }
+
+    @Test
+    public void streamedTextIsUnchanged() throws IOException {
+        Realiser realiser = new Realiser();
+        StringWriter out = new StringWriter();
+        realiser.realise(document(), out);
+        collector.checkThat(out.toString(), equalTo(realiser.realise(document()).getRealisation()));
+    }
+
+    @Test
+    public void streamedHTMLIsUnchanged() throws IOException {
+        Realiser realiser = new Realiser();
+        realiser.setFormatter(new HTMLFormatter());
+        StringWriter out = new StringWriter();
+        realiser.realise(document(), out);
+        collector.checkThat(out.toString(), equalTo(realiser.realise(document()).getRealisation()));
+    }
+
+    @Test
+    public void streamedIntoCharBuffer() throws IOException {
+        Realiser realiser = new Realiser();
+        CharBuffer out = CharBuffer.allocate(4096);
+        realiser.realise(document(), out);
+        out.flip();
+        collector.checkThat(out.toString(), equalTo(realiser.realise(document()).getRealisation()));
+    }
+
+    @Test
+    public void streamedIntoByteBuffers() throws IOException {
+        Realiser realiser = new Realiser();
+        realiser.setFormatter(new HTMLFormatter());
+        ByteBufferPool pool = new ByteBufferPool(64, true, 8);
+        ByteBufferSink sink = new ByteBufferSink(pool);
+        realiser.realise(document(), sink);
+        sink.append(" caf\u00e9 \u20ac \ud83d\ude00");
+        byte[] bytes = new byte[(int) sink.getByteCount()];
+        int offset = 0;
+        for (ByteBuffer buffer : sink.finish()) {
+            int length = buffer.remaining();
+            buffer.get(bytes, offset, length);
+            offset += length;
+            pool.release(buffer);
+        }
+        String expected = realiser.realise(document()).getRealisation() + " caf\u00e9 \u20ac \ud83d\ude00";
+        collector.checkThat(offset, equalTo(bytes.length));
+        collector.checkThat(bytes, equalTo(expected.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,29 @@
+package realiser;
+
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.framework.Language;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.realiser.WarmUp;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+
+public class WarmUpTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    @Test
+    public void warmsUpWithTheGivenLexicon() {
+        Lexicon lexicon = new simplenlg.lexicon.dutch.XMLLexicon();
+        WarmUp warmUp = WarmUp.warmUp(Collections.singletonMap(Language.DUTCH, lexicon), 300);
+        collector.checkThat(WarmUp.isWarm(Language.DUTCH), equalTo(true));
+        collector.checkThat(warmUp.getLexicon(Language.DUTCH), sameInstance(lexicon));
+        collector.checkThat(warmUp.getRounds() > 0, equalTo(true));
+        collector.checkThat(warmUp.getNanos() < 5000000000L, equalTo(true));
+    }
+}
@@ -0,0 +1,136 @@
+package serialisation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.features.Feature;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.Realiser;
+import simplenlg.serialisation.BinarySpecReader;
+import simplenlg.serialisation.BinarySpecWriter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+
+public class BinarySpecTest {
+
+    final private static Lexicon lexicon_en = new simplenlg.lexicon.english.XMLLexicon();
+    final private static NLGFactory factory_en = new NLGFactory(lexicon_en);
+    final private static Lexicon lexicon_nl = new simplenlg.lexicon.dutch.XMLLexicon();
+    final private static NLGFactory factory_nl = new NLGFactory(lexicon_nl);
+    final private static Realiser realiser = new Realiser();
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private SPhraseSpec englishClause() {
+        SPhraseSpec clause = factory_en.createClause();
+        CoordinatedPhraseElement subject = factory_en.createCoordinatedPhrase(
+                factory_en.createNounPhrase("the", "woman"),
+                factory_en.createNounPhrase("a", "man"));
+        clause.setSubject(subject);
+        clause.setVerb("kiss");
+        NPPhraseSpec object = factory_en.createNounPhrase("the", "dog");
+        object.addPreModifier("old");
+        clause.setObject(object);
+        clause.setFeature(Feature.TENSE, Tense.PAST);
+        clause.setFeature(Feature.INTERROGATIVE_TYPE, InterrogativeType.YES_NO);
+        return clause;
+    }
+
+    private SPhraseSpec dutchClause() {
+        SPhraseSpec clause = factory_nl.createClause();
+        clause.setSubject(factory_nl.createNounPhrase("de", "klant"));
+        clause.setVerb("betalen");
+        clause.setObject(factory_nl.createNounPhrase("de", "rekening"));
+        clause.addComplement(factory_nl.createPrepositionPhrase("in",
+                factory_nl.createNounPhrase("Amsterdam")));
+        clause.setFeature(Feature.TENSE, Tense.PAST);
+        return clause;
+    }
+
+    @Test
+    public void roundTripKeepsRealisation() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinarySpecWriter writer = new BinarySpecWriter(bytes);
+        writer.write(englishClause());
+        writer.write(englishClause());
+        writer.close();
+
+        BinarySpecReader reader = new BinarySpecReader(
+                new ByteArrayInputStream(bytes.toByteArray()), factory_en);
+        String expected = realiser.realiseSentence(englishClause());
+        collector.checkThat(realiser.realiseSentence(reader.read()), equalTo(expected));
+        collector.checkThat(realiser.realiseSentence(reader.read()), equalTo(expected));
+        collector.checkThat(reader.read(), nullValue());
+    }
+
+    @Test
+    public void roundTripDutch() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinarySpecWriter writer = new BinarySpecWriter(bytes);
+        writer.write(dutchClause());
+        writer.close();
+
+        BinarySpecReader reader = new BinarySpecReader(
+                new ByteArrayInputStream(bytes.toByteArray()), factory_nl);
+        NLGElement clause = reader.read();
+        collector.checkThat(realiser.realiseSentence(clause),
+                equalTo(realiser.realiseSentence(dutchClause())));
+        collector.checkThat(clause.getFeature(Feature.TENSE), equalTo((Object) Tense.PAST));
+    }
+
+    @Test
+    public void wordsAreLookedUpInLexicon() throws IOException {
+        NPPhraseSpec dog = factory_en.createNounPhrase("the", "dog");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinarySpecWriter writer = new BinarySpecWriter(bytes);
+        writer.write(dog.getHead());
+        writer.close();
+
+        BinarySpecReader reader = new BinarySpecReader(
+                new ByteArrayInputStream(bytes.toByteArray()), factory_en);
+        collector.checkThat(reader.read(), sameInstance((NLGElement) dog.getHead()));
+    }
+
+    private void checkCorrupted(byte[] record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[] {'S', 'N', 'L', 'G', 1, 'R'});
+        bytes.write(record);
+        BinarySpecReader reader = new BinarySpecReader(
+                new ByteArrayInputStream(bytes.toByteArray()), factory_en);
+        try {
+            reader.read();
+            collector.addError(new AssertionError("corrupted record was read"));
+        } catch (StreamCorruptedException expected) {
+            // the caps were applied
+        }
+    }
+
+    @Test
+    public void hostileLengthsAreRejected() throws IOException {
+        // a string of 2^31 - 1 bytes
+        checkCorrupted(new byte[] {7, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+
+        // lists nested 100000 deep
+        byte[] nested = new byte[200000];
+        for (int index = 0; index < nested.length; index += 2) {
+            nested[index] = 9;
+            nested[index + 1] = 1;
+        }
+        checkCorrupted(nested);
+    }
+}
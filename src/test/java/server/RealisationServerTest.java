@@ -0,0 +1,143 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import simplenlg.framework.Language;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.server.RealisationServer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+public class RealisationServerTest {
+
+    private static final String SPEC = "{\"type\":\"clause\","
+            + "\"subject\":{\"type\":\"np\",\"specifier\":\"de\",\"noun\":\"klant\"},"
+            + "\"verb\":\"betalen\",\"object\":{\"type\":\"np\",\"specifier\":\"de\",\"noun\":\"rekening\"},"
+            + "\"features\":{\"TENSE\":\"PAST\"}}";
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private RealisationServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new RealisationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                Language.DUTCH, Language.ENGLISH);
+        server.setMaxPending(8);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private String[] post(String path, String body) throws IOException {
+        URL url = new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        OutputStream out = connection.getOutputStream();
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+        out.close();
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int length;
+        while ((length = in.read(buffer)) > 0) {
+            response.write(buffer, 0, length);
+        }
+        in.close();
+        return new String[] { String.valueOf(status), new String(response.toByteArray(), StandardCharsets.UTF_8),
+                connection.getHeaderField("Retry-After") };
+    }
+
+    @Test
+    public void realisesSingleAndBatchRequests() throws IOException {
+        String[] single = post("/realise?lang=nl", SPEC);
+        collector.checkThat(single[0], equalTo("200"));
+        collector.checkThat(single[1], equalTo("{\"realisation\":\"De klant betaalde de rekening.\"}"));
+
+        String[] english = post("/realise?lang=en", "{\"type\":\"clause\",\"subject\":\"the dog\",\"verb\":\"chase\",\"object\":\"the cat\"}");
+        collector.checkThat(english[1], equalTo("{\"realisation\":\"The dog chases the cat.\"}"));
+
+        String[] batch = post("/realise/batch", "[" + SPEC + ",{\"type\":\"nope\"}," + SPEC + "]");
+        collector.checkThat(batch[0], equalTo("200"));
+        collector.checkThat(batch[1], equalTo("{\"results\":["
+                + "{\"realisation\":\"De klant betaalde de rekening.\"},"
+                + "{\"error\":\"java.lang.IllegalArgumentException: Unknown spec type 'nope'\"},"
+                + "{\"realisation\":\"De klant betaalde de rekening.\"}]}"));
+
+        collector.checkThat(post("/realise", "{not json")[0], equalTo("400"));
+        collector.checkThat(post("/realise?lang=fr", SPEC)[0], equalTo("400"));
+    }
+
+    @Test
+    public void rejectsOversizedRequests() throws IOException {
+        StringBuilder batch = new StringBuilder("[");
+        for (int i = 0; i < 9; i++) {
+            if (i > 0) batch.append(',');
+            batch.append(SPEC);
+        }
+        batch.append(']');
+        String[] response = post("/realise/batch", batch.toString());
+        collector.checkThat(response[0], equalTo("413"));
+        collector.checkThat(response[1], equalTo("{\"error\":\"Batch of 9 specs larger than maxPending 8\"}"));
+        // the permits of a rejected request are not kept
+        collector.checkThat(post("/realise/batch", "[" + SPEC + "]")[0], equalTo("200"));
+
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            nested.append('[');
+        }
+        collector.checkThat(post("/realise", nested.toString())[0], equalTo("400"));
+
+        // announced too long: answered before any of the body is sent
+        Socket socket = new Socket(server.getAddress().getAddress(), server.getAddress().getPort());
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /realise HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+                    + (RealisationServer.DEFAULT_MAX_BODY_BYTES + 1) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            collector.checkThat(in.readLine(), equalTo("HTTP/1.1 413 Request Entity Too Large"));
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void unknownWordsDoNotGrowTheLexicon() throws IOException {
+        server.stop(0);
+        server = new RealisationServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), Language.DUTCH);
+        server.setMaxCreatedWords(0);
+        server.start();
+        Lexicon lexicon = server.getLexicons().get(Language.DUTCH);
+        for (char letter = 'a'; letter <= 'e'; letter++) {
+            String[] response = post("/realise", "{\"type\":\"clause\",\"subject\":{\"type\":\"np\","
+                    + "\"specifier\":\"de\",\"noun\":\"zorp" + letter + "\"},\"verb\":\"slapen\"}");
+            collector.checkThat(response[1], equalTo("{\"realisation\":\"De zorp" + letter + " slaapt.\"}"));
+        }
+        for (char letter = 'a'; letter <= 'e'; letter++) {
+            collector.checkThat(lexicon.hasWord("zorp" + letter), equalTo(false));
+        }
+    }
+}